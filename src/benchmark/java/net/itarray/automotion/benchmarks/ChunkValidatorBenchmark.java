@@ -0,0 +1,75 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.validation.ChunkUIElementValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkValidatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int elementCount;
+
+    private UISnapshot snapshot;
+    private List<WebElement> elements;
+    private ChunkUIElementValidator chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = Layouts.snapshot(elementCount);
+        elements = Layouts.grid(elementCount);
+    }
+
+    /**
+     * Every invocation validates a new chunk, so its violations do not add up to those of the previous invocations.
+     */
+    @Setup(Level.Invocation)
+    public void setUpChunk() {
+        chunk = snapshot.findElements(elements);
+    }
+
+    @Benchmark
+    public ChunkUIElementValidator construction() {
+        return snapshot.findElements(elements);
+    }
+
+    @Benchmark
+    public ChunkUIElementValidator doNotOverlap() {
+        return chunk.doNotOverlap();
+    }
+
+    @Benchmark
+    public ChunkUIElementValidator alignedAsGrid() {
+        return chunk.alignedAsGrid(Layouts.COLUMNS);
+    }
+
+    @Benchmark
+    public ChunkUIElementValidator areAlignedAsGridCells() {
+        return chunk.areAlignedAsGridCells();
+    }
+
+    @Benchmark
+    public ChunkUIElementValidator haveEqualSize() {
+        return chunk.haveEqualSize();
+    }
+}
@@ -0,0 +1,54 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the html report of a suite with one validation per element.
+ * The validations (and their json results) are prepared before every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HtmlReportBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int validationCount;
+
+    private ResponsiveUIValidator validator;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        UISnapshot snapshot = Layouts.snapshot(validationCount);
+        validator = snapshot.getResponsiveUIValidator();
+        validator.drawMap();
+        List<WebElement> grid = Layouts.grid(validationCount);
+        for (int i = 0; i < grid.size(); i++) {
+            snapshot.findElement(grid.get(i), "element " + i).validate();
+        }
+    }
+
+    @Benchmark
+    public void buildReport() {
+        validator.generateReport("benchmark");
+    }
+}
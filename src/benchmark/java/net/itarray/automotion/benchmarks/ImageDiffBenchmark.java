@@ -0,0 +1,71 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.internal.ImageDiff;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 4K screenshot compared with its baseline, which the baseline store keeps as packed ints: the screenshot as taken
+ * from the driver (packed ints) and as decoded from a png file (BGR bytes, unpacked within the tiles).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageDiffBenchmark {
+
+    @Param({"" + BufferedImage.TYPE_INT_RGB, "" + BufferedImage.TYPE_3BYTE_BGR})
+    public int screenshotType;
+
+    private final ImageDiff imageDiff = new ImageDiff(0, Collections.emptyList());
+    private BufferedImage baseline;
+    private BufferedImage screenshot;
+
+    @Setup
+    public void setUp() {
+        baseline = page(BufferedImage.TYPE_INT_RGB);
+        screenshot = page(screenshotType);
+        fill(screenshot, Color.RED, 1000, 1000, 1200, 1100);
+    }
+
+    @Benchmark
+    public List<Rectangle> diff() {
+        return imageDiff.diff(baseline, screenshot);
+    }
+
+    private static BufferedImage page(int type) {
+        BufferedImage image = new BufferedImage(3840, 2160, type);
+        fill(image, Color.WHITE, 0, 0, 3840, 2160);
+        fill(image, Color.DARK_GRAY, 0, 0, 3840, 120);
+        return image;
+    }
+
+    private static void fill(BufferedImage image, Color color, int originX, int originY, int cornerX, int cornerY) {
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(color);
+            graphics.fillRect(originX, originY, cornerX - originX, cornerY - originY);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static rectangles.DummyWebElement.createElement;
+
+/**
+ * Synthetic layouts for the benchmarks. They are built on the dummy driver and elements of the tests,
+ * so the benchmarks run without a browser.
+ */
+public class Layouts {
+
+    public static final int COLUMNS = 10;
+    public static final int CELL_WIDTH = 120;
+    public static final int CELL_HEIGHT = 80;
+    public static final int GAP = 10;
+
+    public static List<WebElement> grid(int count) {
+        List<WebElement> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = GAP + (i % COLUMNS) * (CELL_WIDTH + GAP);
+            int y = GAP + (i / COLUMNS) * (CELL_HEIGHT + GAP);
+            elements.add(createElement(x, y, x + CELL_WIDTH, y + CELL_HEIGHT));
+        }
+        return elements;
+    }
+
+    public static List<Rectangle> rectangles(int count) {
+        return rectangles(count, COLUMNS);
+    }
+
+    public static List<Rectangle> rectangles(int count, int columns) {
+        List<Rectangle> rectangles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = GAP + (i % columns) * (CELL_WIDTH + GAP);
+            int y = GAP + (i / columns) * (CELL_HEIGHT + GAP);
+            rectangles.add(new Rectangle(x, y, x + CELL_WIDTH, y + CELL_HEIGHT));
+        }
+        return rectangles;
+    }
+
+    public static WebElement container(int count) {
+        int rows = (count + COLUMNS - 1) / COLUMNS;
+        return createElement(0, 0, COLUMNS * (CELL_WIDTH + GAP) + GAP, rows * (CELL_HEIGHT + GAP) + GAP);
+    }
+
+    public static UISnapshot snapshot(int count) {
+        DummyDriverFacade driver = new DummyDriverFacade();
+        int rows = (count + COLUMNS - 1) / COLUMNS;
+        driver.setPageSize(new Dimension(COLUMNS * (CELL_WIDTH + GAP) + GAP, rows * (CELL_HEIGHT + GAP) + GAP));
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(driver);
+        validator.dontDrawMap();
+        return validator.snapshot("benchmark");
+    }
+}
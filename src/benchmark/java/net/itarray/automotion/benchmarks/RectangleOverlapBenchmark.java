@@ -0,0 +1,80 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.internal.geometry.Overlaps;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
+
+/**
+ * Overlap checks on plain rectangles: all pairs through {@link Rectangle#intersects(Rectangle)}
+ * (the scalar arithmetic in the hot loop) against the sweep line of {@link Overlaps}.
+ * The single column is one horizontal component, so the sweep line cannot split it up. Containers spanning the rows
+ * make every row one component, the rows of 1000 columns are wide rows of many active rectangles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RectangleOverlapBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rectangleCount;
+
+    @Param({"10", "1", "1000"})
+    public int columns;
+
+    @Param({"false", "true"})
+    public boolean rowContainers;
+
+    private List<Rectangle> rectangles;
+
+    @Setup
+    public void setUp() {
+        rectangles = new ArrayList<>(Layouts.rectangles(rectangleCount, columns));
+        if (rowContainers) {
+            int width = columns * (Layouts.CELL_WIDTH + Layouts.GAP) + Layouts.GAP;
+            for (int y = 0; y < rectangleCount / columns * (Layouts.CELL_HEIGHT + Layouts.GAP); y += Layouts.CELL_HEIGHT + Layouts.GAP) {
+                rectangles.add(new Rectangle(0, y, width, y + Layouts.CELL_HEIGHT + Layouts.GAP));
+            }
+        }
+    }
+
+    @Benchmark
+    public int allPairsIntersect() {
+        int overlaps = 0;
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle rectangle = rectangles.get(i);
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                if (rectangle.intersects(rectangles.get(j))) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    @Benchmark
+    public int sweepLine() {
+        int[] overlaps = new int[1];
+        new Overlaps<>(rectangles, Function.identity(), scalar(0)).forEachOverlappingPair((first, second) -> overlaps[0]++);
+        return overlaps[0];
+    }
+}
@@ -0,0 +1,102 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.internal.geometry.Scalar;
+import org.apache.commons.math3.fraction.Fraction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The int backed {@link Scalar} against the {@link Fraction} every scalar used to wrap: the width arithmetic and the
+ * overlap comparisons of the rectangles of a grid, each rectangle compared with the following row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalarBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rectangleCount;
+
+    private List<Rectangle> rectangles;
+    private Fraction[][] fractions;
+
+    @Setup
+    public void setUp() {
+        rectangles = Layouts.rectangles(rectangleCount);
+        fractions = new Fraction[rectangles.size()][];
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle rectangle = rectangles.get(i);
+            fractions[i] = new Fraction[]{
+                    rectangle.getOrigin().getX().fractionValue(),
+                    rectangle.getOrigin().getY().fractionValue(),
+                    rectangle.getCorner().getX().fractionValue(),
+                    rectangle.getCorner().getY().fractionValue()};
+        }
+    }
+
+    @Benchmark
+    public Scalar scalarExtends() {
+        Scalar sum = Scalar.scalar(0);
+        for (Rectangle rectangle : rectangles) {
+            sum = sum.plus(rectangle.getCorner().getX().minus(rectangle.getOrigin().getX()))
+                    .plus(rectangle.getCorner().getY().minus(rectangle.getOrigin().getY()));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Fraction fractionExtends() {
+        Fraction sum = Fraction.ZERO;
+        for (Fraction[] rectangle : fractions) {
+            sum = sum.add(rectangle[2].subtract(rectangle[0]))
+                    .add(rectangle[3].subtract(rectangle[1]));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int scalarIntersects() {
+        int overlaps = 0;
+        for (int i = 0; i < rectangles.size(); i++) {
+            Rectangle rectangle = rectangles.get(i);
+            for (int j = i + 1; j < Math.min(i + Layouts.COLUMNS + 1, rectangles.size()); j++) {
+                if (rectangle.intersects(rectangles.get(j))) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    @Benchmark
+    public int fractionIntersects() {
+        int overlaps = 0;
+        for (int i = 0; i < fractions.length; i++) {
+            Fraction[] rectangle = fractions[i];
+            for (int j = i + 1; j < Math.min(i + Layouts.COLUMNS + 1, fractions.length); j++) {
+                Fraction[] other = fractions[j];
+                if (rectangle[0].compareTo(other[2]) < 0 && other[0].compareTo(rectangle[2]) < 0
+                        && rectangle[1].compareTo(other[3]) < 0 && other[1].compareTo(rectangle[3]) < 0) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+}
@@ -0,0 +1,93 @@
+package net.itarray.automotion.benchmarks;
+
+import net.itarray.automotion.validation.UIElementValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import net.itarray.automotion.validation.properties.Padding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.itarray.automotion.validation.properties.Condition.between;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UIElementValidatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int elementCount;
+
+    private UISnapshot snapshot;
+    private WebElement root;
+    private WebElement container;
+    private List<WebElement> others;
+    private UIElementValidator element;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = Layouts.snapshot(elementCount);
+        List<WebElement> grid = Layouts.grid(elementCount);
+        root = grid.get(0);
+        others = grid.subList(1, grid.size());
+        container = Layouts.container(elementCount);
+    }
+
+    /**
+     * A validator collects the violations of all its validations, a new one per invocation keeps them from piling up.
+     */
+    @Setup(Level.Invocation)
+    public void setUpElement() {
+        element = snapshot.findElement(root, "root");
+    }
+
+    @Benchmark
+    public UIElementValidator construction() {
+        return snapshot.findElement(root, "root");
+    }
+
+    @Benchmark
+    public UIElementValidator isNotOverlapping() {
+        return element.isNotOverlapping(others);
+    }
+
+    @Benchmark
+    public UIElementValidator isTopAlignedWith() {
+        return element.isTopAlignedWith(others);
+    }
+
+    @Benchmark
+    public UIElementValidator hasEqualSizeAs() {
+        return element.hasEqualSizeAs(others);
+    }
+
+    @Benchmark
+    public UIElementValidator isInsideOf() {
+        return element.isInsideOf(container, "container", new Padding(10));
+    }
+
+    @Benchmark
+    public UIElementValidator hasWidth() {
+        return element.hasWidth(between(100).and(200));
+    }
+
+    @Benchmark
+    public UIElementValidator isCenteredOnPageHorizontally() {
+        return element.isCenteredOnPageHorizontally();
+    }
+}
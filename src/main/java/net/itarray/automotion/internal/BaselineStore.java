@@ -0,0 +1,94 @@
+package net.itarray.automotion.internal;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The reference screenshots of the snapshots, one per scenario, resolution and zoom, stored as png files in a directory.
+ * <p>
+ * The most recently used baselines are kept decoded as long as their files are not modified, so the snapshots of a
+ * scenario that are compared repeatedly decode their baseline only once. They are kept with their pixels stored as ints,
+ * the layout {@link ImageDiff} compares without unpacking.
+ */
+public class BaselineStore {
+
+    private static final int CACHED_BASELINES = 8;
+
+    private final File directory;
+    private final Map<File, CachedBaseline> cache = new LinkedHashMap<File, CachedBaseline>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, CachedBaseline> eldest) {
+            return size() > CACHED_BASELINES;
+        }
+    };
+
+    public BaselineStore(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public File baselineFile(String scenario, Object resolution, Object zoom) {
+        String name = String.format("%s-%s-%s", scenario, resolution, zoom).replaceAll("[^\\w.-]", "_");
+        return new File(directory, name + ".png");
+    }
+
+    /**
+     * @return the reference screenshot, or null if there is none yet
+     * @throws RuntimeException if the file cannot be read or is not an image
+     */
+    public synchronized BufferedImage load(File baselineFile) {
+        if (!baselineFile.exists()) {
+            cache.remove(baselineFile);
+            return null;
+        }
+        CachedBaseline cached = cache.get(baselineFile);
+        if (cached != null && cached.isCurrent(baselineFile)) {
+            return cached.image;
+        }
+        BufferedImage image;
+        try {
+            image = ImageIO.read(baselineFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read baseline: " + baselineFile, e);
+        }
+        if (image == null) {
+            throw new RuntimeException("Cannot read baseline, it is not a supported image: " + baselineFile);
+        }
+        image = ImageDiff.withIntPixels(image);
+        cache.put(baselineFile, new CachedBaseline(baselineFile, image));
+        return image;
+    }
+
+    public synchronized void store(File baselineFile, BufferedImage image) {
+        baselineFile.getParentFile().mkdirs();
+        try {
+            ImageIO.write(image, "PNG", baselineFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write baseline: " + baselineFile, e);
+        }
+        cache.remove(baselineFile);
+    }
+
+    private static class CachedBaseline {
+        private final long lastModified;
+        private final long length;
+        private final BufferedImage image;
+
+        private CachedBaseline(File file, BufferedImage image) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.image = image;
+        }
+
+        private boolean isCurrent(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+}
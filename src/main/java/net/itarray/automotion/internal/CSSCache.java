@@ -0,0 +1,115 @@
+package net.itarray.automotion.internal;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The css values of the elements of a snapshot, retrieved with one script execution per property for all elements
+ * that are validated together, and kept until the resolution or zoom of the page changes.
+ * <p>
+ * Drivers that cannot execute scripts are queried per element and property.
+ */
+public class CSSCache {
+
+    private final DriverFacade driver;
+    private final Map<WebElement, Map<String, String>> values = new HashMap<>();
+    private int layoutVersion;
+
+    public CSSCache(DriverFacade driver) {
+        this.driver = driver;
+        this.layoutVersion = driver.getLayoutVersion();
+    }
+
+    public CSSSource sourceFor(WebElement webElement) {
+        return sourceFor(webElement, Collections.singletonList(webElement));
+    }
+
+    /**
+     * @param batch the elements validated together with the element, their values are retrieved along with the element's
+     */
+    public CSSSource sourceFor(WebElement webElement, List<WebElement> batch) {
+        if (!driver.canCaptureElements()) {
+            return new SeleniumCSSSource(webElement);
+        }
+        return new CSSSource() {
+            @Override
+            public String getCssValue(String propertyName) {
+                return CSSCache.this.getCssValue(webElement, batch, propertyName);
+            }
+        };
+    }
+
+    /**
+     * Retrieves the values of the properties of all elements at once, e.g. before validating several properties of a chunk.
+     */
+    public synchronized void prefetch(List<WebElement> webElements, Collection<String> cssProperties) {
+        if (driver.canCaptureElements()) {
+            invalidateOnLayoutChange();
+            capture(webElements, new ArrayList<>(cssProperties));
+        }
+    }
+
+    synchronized String getCssValue(WebElement webElement, List<WebElement> batch, String propertyName) {
+        invalidateOnLayoutChange();
+        String value = values.getOrDefault(webElement, Collections.emptyMap()).get(propertyName);
+        if (value == null) {
+            List<WebElement> missing = new ArrayList<>();
+            for (WebElement element : batch) {
+                if (!values.getOrDefault(element, Collections.emptyMap()).containsKey(propertyName)) {
+                    missing.add(element);
+                }
+            }
+            if (!missing.contains(webElement)) {
+                missing.add(webElement);
+            }
+            capture(missing, Collections.singletonList(propertyName));
+            value = values.get(webElement).get(propertyName);
+        }
+        return value;
+    }
+
+    private void capture(List<WebElement> webElements, List<String> cssProperties) {
+        Set<WebElement> distinct = new LinkedHashSet<>(webElements);
+        List<WebElement> elements = new ArrayList<>(distinct);
+        List<Object> captured = null;
+        try {
+            captured = driver.captureCssValues(elements, cssProperties);
+        } catch (RuntimeException e) {
+            // fall back to querying every element on its own
+        }
+        if (captured == null || captured.size() != elements.size() * cssProperties.size()) {
+            for (WebElement element : elements) {
+                for (String property : cssProperties) {
+                    store(element, property, element.getCssValue(property));
+                }
+            }
+            return;
+        }
+        int index = 0;
+        for (WebElement element : elements) {
+            for (String property : cssProperties) {
+                Object value = captured.get(index++);
+                store(element, property, value == null ? "" : value.toString());
+            }
+        }
+    }
+
+    private void store(WebElement webElement, String propertyName, String value) {
+        values.computeIfAbsent(webElement, element -> new HashMap<>()).put(propertyName, value == null ? "" : value);
+    }
+
+    private void invalidateOnLayoutChange() {
+        if (layoutVersion != driver.getLayoutVersion()) {
+            layoutVersion = driver.getLayoutVersion();
+            values.clear();
+        }
+    }
+}
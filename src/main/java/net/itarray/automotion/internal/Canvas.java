@@ -0,0 +1,41 @@
+package net.itarray.automotion.internal;
+
+import java.awt.*;
+
+/**
+ * The primitives the drawings of a validation are made of, in pixels of the screenshot.
+ */
+public interface Canvas {
+
+    void setStroke(Stroke stroke);
+
+    void setColor(Color color);
+
+    void drawRect(int x, int y, int width, int height);
+
+    void drawLine(int x1, int y1, int x2, int y2);
+
+    static Canvas of(Graphics2D g) {
+        return new Canvas() {
+            @Override
+            public void setStroke(Stroke stroke) {
+                g.setStroke(stroke);
+            }
+
+            @Override
+            public void setColor(Color color) {
+                g.setColor(color);
+            }
+
+            @Override
+            public void drawRect(int x, int y, int width, int height) {
+                g.drawRect(x, y, width, height);
+            }
+
+            @Override
+            public void drawLine(int x1, int y1, int x2, int y2) {
+                g.drawLine(x1, y1, x2, y2);
+            }
+        };
+    }
+}
@@ -1,99 +1,196 @@
 package net.itarray.automotion.internal;
 
+import net.itarray.automotion.internal.geometry.Rectangle;
 import net.itarray.automotion.internal.geometry.Scalar;
 import net.itarray.automotion.internal.geometry.Vector;
 import net.itarray.automotion.tools.helpers.Helper;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_IMG;
 
+/**
+ * Records the drawings of a validation and renders them onto a transparent image of the screenshot's extend.
+ * The drawings are only rendered when saved, so rendering and encoding can happen on another thread.
+ * Screenshots and drawings are kept in the {@link ImageStore}, identical images are written once.
+ */
 public class DrawableScreenshot {
 
     private final DrawingConfiguration drawingConfiguration;
+    private final SimpleTransform transform;
     private final Vector extend;
-    private TransformedGraphics graphics;
-    private File screenshotName;
-    private File drawingsOutput;
-    private BufferedImage drawings;
+    private final List<Drawing> drawings = new ArrayList<>();
+    private Rectangle bounds;
+    private volatile File screenshotName;
+    private volatile File drawingsOutput;
 
     public DrawableScreenshot(Vector extend, SimpleTransform transform, DrawingConfiguration drawingConfiguration, String rootElementReadableName, File screenshotName) {
-        this.drawingConfiguration = drawingConfiguration;
+        this.extend = extend;
+        this.transform = transform;
+        this.drawingConfiguration = drawingConfiguration.copy();
         this.screenshotName = screenshotName;
-        File imgFolder = new File(TARGET_AUTOMOTION_IMG);
-        if (!imgFolder.exists()) {
-            imgFolder.mkdir();
-        }
-        drawingsOutput = new File(TARGET_AUTOMOTION_IMG + rootElementReadableName.replaceAll("[\\W]|_", "") + "-draw-" + System.currentTimeMillis() + Helper.getGeneratedStringWithLength(7) + ".png");
+    }
 
-        try {
-            this.extend = extend;
-            drawings = new BufferedImage(extend.getX().intValue(), extend.getY().intValue(), BufferedImage.TYPE_INT_ARGB);
+    /**
+     * Creates a screenshot whose extend is not known yet. It has to be saved with {@link #deferredSaveDrawing()},
+     * the screenshot name may be given when the screenshot is stored, see {@link #setScreenshotName(File)}.
+     */
+    public DrawableScreenshot(SimpleTransform transform, DrawingConfiguration drawingConfiguration, String rootElementReadableName, File screenshotName) {
+        this(null, transform, drawingConfiguration, rootElementReadableName, screenshotName);
+    }
 
-            Graphics2D g2d = drawings.createGraphics();
+    public static File takeScreenshot(DriverFacade driver, String rootElementReadableName) {
+        return takeScreenshot(driver, rootElementReadableName, ImageStore.getInstance());
+    }
 
-            graphics = new TransformedGraphics(g2d, transform);
+    /**
+     * @return the file of the screenshot in the store, see {@link ImageStore#storeFile(File)}
+     */
+    public static File takeScreenshot(DriverFacade driver, String rootElementReadableName, ImageStore imageStore) {
+        return takeScreenshot(driver, rootElementReadableName, imageStore, null);
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create screenshot file: " + screenshotName, e);
-        }
+    /**
+     * @param pageMetrics the page metrics already retrieved for the screenshot, null to retrieve zoom and scroll position
+     * @return the file of the screenshot in the store, see {@link ImageStore#storeFile(File)}
+     */
+    public static File takeScreenshot(DriverFacade driver, String rootElementReadableName, ImageStore imageStore, PageMetrics pageMetrics) {
+        File screenshotName = screenshotFile(rootElementReadableName);
+        driver.takeScreenshot(screenshotName, pageMetrics);
+        return imageStore.storeFile(screenshotName);
     }
 
-    public static File takeScreenshot(DriverFacade driver, String rootElementReadableName) {
-        File screenshotName = new File(TARGET_AUTOMOTION_IMG + rootElementReadableName.replaceAll("[\\W]|_", "") + "-" + System.currentTimeMillis() + Helper.getGeneratedStringWithLength(7) + ".png");
-        driver.takeScreenshot(screenshotName);
-        return screenshotName;
+    public static File screenshotFile(String rootElementReadableName) {
+        return new File(TARGET_AUTOMOTION_IMG + rootElementReadableName.replaceAll("[\\W]|_", "") + "-" + System.currentTimeMillis() + Helper.getGeneratedStringWithLength(7) + ".png");
     }
 
     public File getScreenshotName() {
         return screenshotName;
     }
 
+    public void setScreenshotName(File screenshotName) {
+        this.screenshotName = screenshotName;
+    }
+
+    /**
+     * @return the file of the drawings, null until they are saved
+     */
     public File getDrawingsOutput() {
         return drawingsOutput;
     }
 
     public void drawVerticalLine(Scalar x) {
-        drawingConfiguration.setLinesStyle(graphics);
-        graphics.drawVerticalLine(x.intValue(), extend.getY().intValue());
+        int lineX = x.intValue();
+        drawings.add((graphics, extend) -> {
+            drawingConfiguration.setLinesStyle(graphics);
+            graphics.drawVerticalLine(lineX, extend.getY().intValue());
+        });
     }
 
     public void drawHorizontalLine(Scalar y) {
-        drawingConfiguration.setLinesStyle(graphics);
-        graphics.drawHorizontalLine(y.intValue(), extend.getX().intValue());
+        int lineY = y.intValue();
+        drawings.add((graphics, extend) -> {
+            drawingConfiguration.setLinesStyle(graphics);
+            graphics.drawHorizontalLine(lineY, extend.getX().intValue());
+        });
+    }
+
+    /**
+     * @return the bounds (in page coordinates) of the drawn elements, null if no element was drawn
+     */
+    public Rectangle getBounds() {
+        return bounds;
     }
 
     public void saveDrawing() {
+        save(extend, transform, drawings);
+    }
+
+    /**
+     * @return a task that saves the drawings recorded so far once the extend of the screenshot is known
+     */
+    public Consumer<Vector> deferredSaveDrawing() {
+        List<Drawing> recorded = new ArrayList<>(drawings);
+        return extend -> save(extend, transform, recorded);
+    }
+
+    /**
+     * @return a task that saves the drawings recorded so far once the extend of the screenshot and the transform into it are known,
+     * e.g. for a screenshot of a region of the page only
+     */
+    public BiConsumer<Vector, SimpleTransform> deferredSaveTransformedDrawing() {
+        List<Drawing> recorded = new ArrayList<>(drawings);
+        return (extend, transform) -> save(extend, transform, recorded);
+    }
+
+    private synchronized void save(Vector extend, SimpleTransform transform, List<Drawing> drawings) {
+        if (drawingConfiguration.isVectorDrawings()) {
+            SvgCanvas canvas = new SvgCanvas(extend.getX().intValue(), extend.getY().intValue());
+            TransformedGraphics graphics = new TransformedGraphics(canvas, transform);
+            for (Drawing drawing : drawings) {
+                drawing.drawOn(graphics, extend);
+            }
+            drawingsOutput = ImageStore.getInstance().store(canvas.toBytes(), "svg");
+            return;
+        }
+        BufferedImage image = new BufferedImage(extend.getX().intValue(), extend.getY().intValue(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
         try {
-            if (drawings != null && drawingsOutput != null) {
-                ImageIO.write(drawings, "png", drawingsOutput);
+            TransformedGraphics graphics = new TransformedGraphics(g2d, transform);
+            for (Drawing drawing : drawings) {
+                drawing.drawOn(graphics, extend);
             }
-        } catch (NullPointerException | IOException ignored) {}
-
-        if (drawings != null) {
-            drawings.getGraphics().dispose();
+        } finally {
+            g2d.dispose();
         }
+
+        drawingsOutput = ImageStore.getInstance().store(image);
     }
 
     public void drawRoot(UIElement rootElement) {
-        drawingConfiguration.setRootElementStyle(graphics);
-        basicDraw(rootElement);
+        include(rootElement);
+        drawings.add((graphics, extend) -> {
+            drawingConfiguration.setRootElementStyle(graphics);
+            basicDraw(graphics, rootElement);
+        });
     }
 
     public void draw(UIElement element) {
-        drawingConfiguration.setHighlightedElementStyle(graphics);
-        basicDraw(element);
+        include(element);
+        drawings.add((graphics, extend) -> {
+            drawingConfiguration.setHighlightedElementStyle(graphics);
+            basicDraw(graphics, element);
+        });
     }
 
-    private void basicDraw(UIElement element) {
+    private void include(UIElement element) {
+        Rectangle rectangle = element.getBounds();
+        if (bounds == null) {
+            bounds = rectangle;
+        } else {
+            bounds = new Rectangle(
+                    bounds.getOrigin().getX().min(rectangle.getOrigin().getX()),
+                    bounds.getOrigin().getY().min(rectangle.getOrigin().getY()),
+                    bounds.getCorner().getX().max(rectangle.getCorner().getX()),
+                    bounds.getCorner().getY().max(rectangle.getCorner().getY()));
+        }
+    }
+
+    private void basicDraw(TransformedGraphics graphics, UIElement element) {
         int x = element.getOrigin().getX().intValue();
         int y = element.getOrigin().getY().intValue();
         int width = element.getWidth().intValue();
         int height = element.getHeight().intValue();
         graphics.drawRectByExtend(x, y, width, height);
     }
+
+    private interface Drawing {
+        void drawOn(TransformedGraphics graphics, Vector extend);
+    }
 }
@@ -6,6 +6,16 @@ public class DrawingConfiguration {
     private Color rootColor = new Color(255, 0, 0, 255);
     private Color highlightedElementsColor = new Color(255, 0, 255, 255);
     private Color linesColor = Color.ORANGE;
+    private boolean vectorDrawings = true;
+
+    public DrawingConfiguration copy() {
+        DrawingConfiguration copy = new DrawingConfiguration();
+        copy.rootColor = rootColor;
+        copy.highlightedElementsColor = highlightedElementsColor;
+        copy.linesColor = linesColor;
+        copy.vectorDrawings = vectorDrawings;
+        return copy;
+    }
 
     public void setRootColor(Color rootColor) {
         this.rootColor = rootColor;
@@ -19,6 +29,17 @@ public class DrawingConfiguration {
         this.linesColor = linesColor;
     }
 
+    /**
+     * @param vectorDrawings true to save the drawings as svg, false to save them as a transparent png of the screenshot's size
+     */
+    public void setVectorDrawings(boolean vectorDrawings) {
+        this.vectorDrawings = vectorDrawings;
+    }
+
+    public boolean isVectorDrawings() {
+        return vectorDrawings;
+    }
+
     public void setHighlightedElementStyle(TransformedGraphics graphics) {
         graphics.setColor(highlightedElementsColor);
         graphics.setStroke(new BasicStroke(2));
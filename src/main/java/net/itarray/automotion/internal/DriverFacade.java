@@ -13,21 +13,127 @@ import org.openqa.selenium.phantomjs.PhantomJSDriver;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import ru.yandex.qatools.ashot.AShot;
 import ru.yandex.qatools.ashot.Screenshot;
+import ru.yandex.qatools.ashot.coordinates.Coords;
 import ru.yandex.qatools.ashot.shooting.ShootingStrategies;
+import ru.yandex.qatools.ashot.shooting.ShootingStrategy;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.lang.Integer.parseInt;
 import static net.itarray.automotion.tools.environment.EnvironmentFactory.getApp;
 import static net.itarray.automotion.tools.environment.EnvironmentFactory.isFirefox;
 
 public class DriverFacade {
+
+    /**
+     * Number of packed values per element returned by {@link #captureElements(List)}:
+     * x, y, width, height, tag name and the beginning of the trimmed text.
+     */
+    public static final int CAPTURED_VALUES_PER_ELEMENT = 6;
+
+    private static final String CAPTURE_ELEMENTS_SCRIPT =
+            "var elements = arguments[0], result = [];" +
+            "function trunc(v) { return v < 0 ? Math.ceil(v) : Math.floor(v); }" +
+            "var scrollX = window.pageXOffset || 0, scrollY = window.pageYOffset || 0;" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "  var e = elements[i], r = e.getBoundingClientRect();" +
+            "  var text = (e.innerText || e.textContent || '').trim();" +
+            "  result.push(trunc(r.left + scrollX), trunc(r.top + scrollY), trunc(r.width), trunc(r.height)," +
+            "    e.tagName.toLowerCase(), text.substring(0, 14));" +
+            "}" +
+            "return result;";
+
+    /**
+     * Installs the mutation tracking of the page on first use (again after navigating) and returns per element either
+     * null, if neither its box, its content nor the attributes of its ancestors changed since the tracker with the
+     * token last saw it, or the values packed like {@link #CAPTURE_ELEMENTS_SCRIPT} does.
+     * Boxes are always read, scrolling containers, animations and viewport units move elements without a mutation,
+     * content and attributes are only compared if the page changed at all since then.
+     */
+    private static final String CAPTURE_CHANGED_ELEMENTS_SCRIPT =
+            "var elements = arguments[0], known = arguments[1], key = '__automotion' + arguments[2], result = [];" +
+            "var tracker = window.__automotionTracker;" +
+            "if (!tracker) {" +
+            "  tracker = window.__automotionTracker = {generation: 1};" +
+            "  var changed = function() { tracker.generation++; };" +
+            "  new MutationObserver(function(records) {" +
+            "    tracker.generation++;" +
+            "    for (var i = 0; i < records.length; i++) {" +
+            "      var target = records[i].target;" +
+            "      if (target.nodeType !== 1) { target = target.parentNode; }" +
+            "      if (!target) { continue; }" +
+            "      if (records[i].type === 'attributes') { target.__automotionAttributes = tracker.generation; }" +
+            "      for (var node = target; node; node = node.parentNode) { node.__automotionContent = tracker.generation; }" +
+            "    }" +
+            "  }).observe(document.documentElement, {attributes: true, childList: true, characterData: true, subtree: true});" +
+            "  window.addEventListener('resize', changed);" +
+            "  document.addEventListener('load', changed, true);" +
+            "  document.addEventListener('transitionend', changed, true);" +
+            "  document.addEventListener('animationend', changed, true);" +
+            "  if (window.ResizeObserver) { tracker.resizeObserver = new ResizeObserver(changed); }" +
+            "}" +
+            "function trunc(v) { return v < 0 ? Math.ceil(v) : Math.floor(v); }" +
+            "var scrollX = window.pageXOffset || 0, scrollY = window.pageYOffset || 0;" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "  var e = elements[i], seen = e[key], r = e.getBoundingClientRect();" +
+            "  var box = [trunc(r.left + scrollX), trunc(r.top + scrollY), trunc(r.width), trunc(r.height)];" +
+            "  var dirty = !known[i] || !seen || box.join() !== seen.box;" +
+            "  if (!dirty && seen.generation !== tracker.generation) {" +
+            "    dirty = (e.__automotionContent || 0) > seen.generation;" +
+            "    for (var a = e; !dirty && a; a = a.parentNode) { dirty = (a.__automotionAttributes || 0) > seen.generation; }" +
+            "  }" +
+            "  if (!seen && tracker.resizeObserver) { tracker.resizeObserver.observe(e); }" +
+            "  e[key] = {generation: tracker.generation, box: box.join()};" +
+            "  if (!dirty) { result.push(null); continue; }" +
+            "  var text = (e.innerText || e.textContent || '').trim();" +
+            "  result.push(box.concat([e.tagName.toLowerCase(), text.substring(0, 14)]));" +
+            "}" +
+            "return result;";
+
+    /**
+     * Colours are standardized to {@code rgba(r, g, b, a)} like {@link WebElement#getCssValue(String)} does.
+     */
+    private static final String CAPTURE_CSS_VALUES_SCRIPT =
+            "var elements = arguments[0], properties = arguments[1], result = [];" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "  var style = window.getComputedStyle(elements[i]);" +
+            "  for (var j = 0; j < properties.length; j++) {" +
+            "    var value = style.getPropertyValue(properties[j]);" +
+            "    var rgb = /^rgb\\((\\d+), (\\d+), (\\d+)\\)$/.exec(value);" +
+            "    result.push(rgb ? 'rgba(' + rgb[1] + ', ' + rgb[2] + ', ' + rgb[3] + ', 1)' : value);" +
+            "  }" +
+            "}" +
+            "return result;";
+
+    private static final String PAGE_METRICS_SCRIPT =
+            "var zoom = arguments[0] ? '' : document.body.style.zoom;" +
+            "if (!zoom) { zoom = '100%'; }" +
+            "var width, height;" +
+            "if (zoom === '100%') {" +
+            "  width = self.innerWidth || (document.documentElement && document.documentElement.clientWidth) || (document.body && document.body.clientWidth);" +
+            "  height = self.innerHeight || (document.documentElement && document.documentElement.clientHeight) || (document.body && document.body.clientHeight);" +
+            "} else {" +
+            "  width = document.getElementsByTagName('body')[0].offsetWidth;" +
+            "  height = document.getElementsByTagName('body')[0].offsetHeight;" +
+            "}" +
+            "var result = [zoom, width, height, window.pageXOffset || 0, window.pageYOffset || 0];" +
+            "document.documentElement.style.overflow = 'hidden';" +
+            "return result;";
+
     private final WebDriver driver;
+    private Boolean chromeDriver;
+    private Boolean firefoxDriver;
+    private int layoutVersion;
 
     public DriverFacade(WebDriver driver) {
         this.driver = driver;
@@ -38,25 +144,21 @@ public class DriverFacade {
     }
 
     public void takeScreenshot(File file) {
-        file.getParentFile().mkdirs();
-
-        if (!isPhantomJSDriver() && !isAppiumContext() && parseInt(getZoom().replace("%", "")) <= 100) {
-            long windowYOffset = (long) executeScript("return window.pageYOffset");
-            long windowXOffset = (long) executeScript("return window.pageXOffset");
+        takeScreenshot(file, null);
+    }
 
-            Screenshot screenshot = new AShot()
-                    .shootingStrategy(ShootingStrategies.viewportRetina(100,
-                            Integer.parseInt(System.getProperty("headerCutPx") != null ? System.getProperty("headerCutPx") : "0"),
-                            Integer.parseInt(System.getProperty("footerCutPx") != null ? System.getProperty("footerCutPx") : "0"),
-                            (SystemHelper.isRetinaDisplay()) ? 2 : 1)).takeScreenshot(driver);
+    /**
+     * @param pageMetrics the page metrics already retrieved for the screenshot, null to retrieve zoom and scroll position
+     */
+    public void takeScreenshot(File file, PageMetrics pageMetrics) {
+        file.getParentFile().mkdirs();
 
+        if (isViewportScreenshot(pageMetrics)) {
             try {
-                ImageIO.write(screenshot.getImage(), "PNG", file);
+                ImageIO.write(takeViewportScreenshot(pageMetrics), "PNG", file);
             } catch (IOException e) {
                 e.printStackTrace();
             }
-
-            executeScript("window.scrollTo(" + windowXOffset + ", " + windowYOffset + ")");
         } else {
             byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
 
@@ -68,6 +170,87 @@ public class DriverFacade {
         }
     }
 
+    /**
+     * Takes the screenshot from the browser but leaves decoding it to the caller,
+     * so that the image can be processed on another thread.
+     */
+    public Supplier<BufferedImage> captureScreenshot() {
+        return captureScreenshot(null);
+    }
+
+    /**
+     * @param pageMetrics the page metrics already retrieved for the screenshot, null to retrieve zoom and scroll position
+     */
+    public Supplier<BufferedImage> captureScreenshot(PageMetrics pageMetrics) {
+        if (isViewportScreenshot(pageMetrics)) {
+            BufferedImage image = takeViewportScreenshot(pageMetrics);
+            return () -> image;
+        }
+        byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        return () -> {
+            try {
+                return ImageIO.read(new ByteArrayInputStream(bytes));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Takes a screenshot of a region of the page only, scrolling just through the viewports that cover it.
+     *
+     * @param region the region of the page in css pixels
+     * @param pageMetrics the page metrics already retrieved for the screenshot, null to retrieve zoom and scroll position
+     * @return the screenshot of the region, or null if the driver can only take screenshots of the whole viewport
+     * (Appium, PhantomJS and zoom above 100%), these are cropped to the region by the caller: Selenium 3 offers neither
+     * a clipped screenshot nor one of an arbitrary region, only of single elements
+     */
+    public Supplier<BufferedImage> captureScreenshotOfRegion(java.awt.Rectangle region, PageMetrics pageMetrics) {
+        if (!isViewportScreenshot(pageMetrics)) {
+            return null;
+        }
+        long windowYOffset = pageMetrics != null ? pageMetrics.getYOffset() : (long) executeScript("return window.pageYOffset");
+        long windowXOffset = pageMetrics != null ? pageMetrics.getXOffset() : (long) executeScript("return window.pageXOffset");
+
+        ShootingStrategy strategy = viewportStrategy();
+        Set<Coords> coords = Collections.singleton(new Coords(region));
+        BufferedImage image = strategy.getScreenshot(driver, coords);
+
+        executeScript("window.scrollTo(" + windowXOffset + ", " + windowYOffset + ")");
+        Coords shot = Coords.unity(strategy.prepareCoords(coords)).intersection(Coords.ofImage(image));
+        if (shot.isEmpty()) {
+            return null;
+        }
+        BufferedImage cropped = image.getSubimage(shot.x, shot.y, shot.width, shot.height);
+        return () -> cropped;
+    }
+
+    private boolean isViewportScreenshot(PageMetrics pageMetrics) {
+        if (isPhantomJSDriver() || isAppiumContext()) {
+            return false;
+        }
+        String zoom = pageMetrics != null ? pageMetrics.getZoom() : getZoom();
+        return parseInt(zoom.replace("%", "")) <= 100;
+    }
+
+    private BufferedImage takeViewportScreenshot(PageMetrics pageMetrics) {
+        long windowYOffset = pageMetrics != null ? pageMetrics.getYOffset() : (long) executeScript("return window.pageYOffset");
+        long windowXOffset = pageMetrics != null ? pageMetrics.getXOffset() : (long) executeScript("return window.pageXOffset");
+
+        Screenshot screenshot = new AShot()
+                .shootingStrategy(viewportStrategy()).takeScreenshot(driver);
+
+        executeScript("window.scrollTo(" + windowXOffset + ", " + windowYOffset + ")");
+        return screenshot.getImage();
+    }
+
+    private ShootingStrategy viewportStrategy() {
+        return ShootingStrategies.viewportRetina(100,
+                Integer.parseInt(System.getProperty("headerCutPx") != null ? System.getProperty("headerCutPx") : "0"),
+                Integer.parseInt(System.getProperty("footerCutPx") != null ? System.getProperty("footerCutPx") : "0"),
+                (SystemHelper.isRetinaDisplay()) ? 2 : 1);
+    }
+
     public Vector getExtend(File screenshotName) {
         try {
             BufferedImage img = ImageIO.read(screenshotName);
@@ -86,11 +269,17 @@ public class DriverFacade {
     }
 
     public boolean isChromeDriver() {
-        return (driver instanceof ChromeDriver) || ((RemoteWebDriver) driver).getCapabilities().getBrowserName().toLowerCase().equals("chrome");
+        if (chromeDriver == null) {
+            chromeDriver = (driver instanceof ChromeDriver) || ((RemoteWebDriver) driver).getCapabilities().getBrowserName().toLowerCase().equals("chrome");
+        }
+        return chromeDriver;
     }
 
     public boolean isFirefoxDriver() {
-        return (driver instanceof FirefoxDriver) || ((RemoteWebDriver) driver).getCapabilities().getBrowserName().toLowerCase().equals("firefox");
+        if (firefoxDriver == null) {
+            firefoxDriver = (driver instanceof FirefoxDriver) || ((RemoteWebDriver) driver).getCapabilities().getBrowserName().toLowerCase().equals("firefox");
+        }
+        return firefoxDriver;
     }
 
     public boolean isPhantomJSDriver() {
@@ -109,6 +298,51 @@ public class DriverFacade {
         return driver instanceof AppiumDriver;
     }
 
+    /**
+     * @return the parent of the element, or null if it has none (e.g. the root element) or the driver cannot tell
+     */
+    public WebElement findParent(WebElement webElement) {
+        try {
+            return webElement.findElement(By.xpath(".."));
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    public boolean canCaptureElements() {
+        return driver instanceof JavascriptExecutor && !isAppiumContext();
+    }
+
+    /**
+     * Retrieves geometry, tag name and text of all elements with one script execution.
+     * The result is packed with {@link #CAPTURED_VALUES_PER_ELEMENT} values per element.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> captureElements(List<WebElement> webElements) {
+        return (List<Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_ELEMENTS_SCRIPT, webElements);
+    }
+
+    /**
+     * Retrieves the elements that changed since the tracker with the token saw them with one script execution,
+     * see {@link ElementTracker}.
+     *
+     * @param known whether the tracker knows the element, unknown elements are always retrieved
+     * @return per element null if it did not change, otherwise its x, y, width, height, tag name and the beginning of its trimmed text
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> captureChangedElements(List<WebElement> webElements, List<Boolean> known, String token) {
+        return (List<Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_CHANGED_ELEMENTS_SCRIPT, webElements, known, token);
+    }
+
+    /**
+     * Retrieves the computed values of the css properties of all elements with one script execution.
+     * The result is packed with one value per property per element, in the order of the properties.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> captureCssValues(List<WebElement> webElements, List<String> cssProperties) {
+        return (List<Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_CSS_VALUES_SCRIPT, webElements, cssProperties);
+    }
+
     public boolean isAppiumWebContext() {
         if (!(driver instanceof AppiumDriver)) {
             return false;
@@ -140,6 +374,7 @@ public class DriverFacade {
     }
 
     public void setZoom(int percentage) {
+        layoutChanged();
         if (!isAppiumContext()) {
             if (percentage <= 0) {
                 throw new IllegalArgumentException(String.format("illegal zoom percentage %s - should be greater than zero", percentage));
@@ -199,6 +434,30 @@ public class DriverFacade {
         return new Dimension((int) retrievePageWidth(), (int) retrievePageHeight());
     }
 
+    /**
+     * Retrieves page size, zoom and scroll position with one script execution and hides the scrollbars of the page.
+     */
+    @SuppressWarnings("unchecked")
+    public PageMetrics retrievePageMetrics() {
+        if (isAppiumContext()) {
+            return new PageMetrics(retrievePageSize(), getZoom(), 0, 0);
+        }
+        List<Object> values = (List<Object>) ((JavascriptExecutor) driver).executeScript(PAGE_METRICS_SCRIPT, isFirefox());
+        Dimension pageSize = new Dimension(((Number) values.get(1)).intValue(), ((Number) values.get(2)).intValue());
+        return new PageMetrics(pageSize, (String) values.get(0), ((Number) values.get(3)).intValue(), ((Number) values.get(4)).intValue());
+    }
+
+    /**
+     * @return a number that changes whenever resolution or zoom are set, i.e. whenever retrieved page metrics become stale
+     */
+    public int getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    protected void layoutChanged() {
+        layoutVersion++;
+    }
+
     public Dimension getResolution() {
         if (isAppiumContext() && ((AppiumDriver)driver).getCapabilities().getCapability("app") == null) {
             Object res = ((RemoteWebDriver) driver).getCapabilities().getCapability("deviceScreenSize");
@@ -217,6 +476,7 @@ public class DriverFacade {
     }
 
     public void setResolution(Dimension resolution) {
+        layoutChanged();
         driver.manage().window().setSize(resolution);
     }
 }
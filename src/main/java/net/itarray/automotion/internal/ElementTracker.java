@@ -0,0 +1,332 @@
+package net.itarray.automotion.internal;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+import org.json.simple.JSONObject;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the captured elements of the snapshots of a page, so that a snapshot only retrieves the elements that changed
+ * since the previous one, and the results of the checks, so that a check is only run again if one of the elements it
+ * retrieved changed. The results a check reported are reported again for the snapshots it is not run for.
+ * The parents of the retrieved elements are dependencies of a check as well, so that elements added to or removed from
+ * the containers the check looked into (e.g. the items of a list that is filtered) run the check again.
+ * <p>
+ * The page tracks its mutations with a MutationObserver, a ResizeObserver and load, transition and resize events.
+ * Every snapshot asks the page once per element whether it changed, the page only returns the elements whose box,
+ * content or ancestors' attributes changed. Drivers that cannot execute scripts retrieve every element once per snapshot
+ * and compare it with the previous one.
+ * <p>
+ * A snapshot of another resolution or zoom discards everything.
+ */
+public class ElementTracker {
+
+    private static final AtomicInteger TOKENS = new AtomicInteger();
+
+    private final DriverFacade driver;
+    private final String token = String.valueOf(TOKENS.incrementAndGet());
+    private final Map<WebElement, CapturedElement> captured = new HashMap<>();
+    private final Set<WebElement> verified = new HashSet<>();
+    private final Map<String, TrackedCheck> checks = new HashMap<>();
+    private final Map<WebElement, Set<String>> dependentChecks = new HashMap<>();
+    private final Map<WebElement, WebElement> parents = new HashMap<>();
+    private Set<WebElement> recordedDependencies;
+    private List<CompletableFuture<JSONObject>> recordedResults;
+    private String layout;
+    private int changedCount;
+
+    public ElementTracker(DriverFacade driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Starts a new snapshot: the elements are verified again when they are retrieved next.
+     *
+     * @param layout the resolution and zoom of the snapshot
+     */
+    public synchronized void startSnapshot(String layout) {
+        if (!layout.equals(this.layout)) {
+            this.layout = layout;
+            captured.clear();
+            parents.clear();
+            checks.clear();
+            dependentChecks.clear();
+        }
+        verified.clear();
+    }
+
+    /**
+     * @return the elements, retrieved from the page only if they changed since the previous snapshot
+     */
+    public synchronized List<CapturedElement> capture(List<WebElement> webElements) {
+        verify(webElements);
+        if (recordedDependencies != null) {
+            List<WebElement> containers = parentsOf(webElements);
+            verify(containers);
+            recordedDependencies.addAll(webElements);
+            recordedDependencies.addAll(containers);
+        }
+        List<CapturedElement> elements = new ArrayList<>(webElements.size());
+        for (WebElement webElement : webElements) {
+            elements.add(captured.get(webElement));
+        }
+        return elements;
+    }
+
+    /**
+     * Runs the check unless it ran before and none of the elements it retrieved changed since.
+     *
+     * @param name identifies the check across snapshots
+     * @param reportAgain reports a result the check reported when it ran, for a check that is not run
+     * @return the result of the check, the previous result if it is not run
+     */
+    public boolean check(String name, BooleanSupplier check, Consumer<CompletableFuture<JSONObject>> reportAgain) {
+        TrackedCheck previous = previousCheck(name);
+        if (previous != null) {
+            for (CompletableFuture<JSONObject> result : previous.results) {
+                reportAgain.accept(result);
+            }
+            return previous.result;
+        }
+        Set<WebElement> outerDependencies;
+        List<CompletableFuture<JSONObject>> outerResults;
+        Set<WebElement> dependencies = new HashSet<>();
+        List<CompletableFuture<JSONObject>> results = new ArrayList<>();
+        synchronized (this) {
+            outerDependencies = recordedDependencies;
+            outerResults = recordedResults;
+            recordedDependencies = dependencies;
+            recordedResults = results;
+        }
+        boolean result;
+        try {
+            result = check.getAsBoolean();
+        } finally {
+            synchronized (this) {
+                recordedDependencies = outerDependencies;
+                recordedResults = outerResults;
+                if (outerDependencies != null) {
+                    outerDependencies.addAll(dependencies);
+                }
+                if (outerResults != null) {
+                    outerResults.addAll(results);
+                }
+            }
+        }
+        register(name, dependencies, results, result);
+        return result;
+    }
+
+    /**
+     * Records the result of a validation for the checks that are running.
+     *
+     * @param result completes with the result once its deferred images are stored
+     */
+    public synchronized void reported(CompletableFuture<JSONObject> result) {
+        if (recordedResults != null) {
+            recordedResults.add(result);
+        }
+    }
+
+    /**
+     * @return the number of elements that changed since they were retrieved first
+     */
+    public synchronized int getChangedCount() {
+        return changedCount;
+    }
+
+    private synchronized TrackedCheck previousCheck(String name) {
+        TrackedCheck previous = checks.get(name);
+        if (previous == null) {
+            return null;
+        }
+        if (recordedDependencies != null) {
+            recordedDependencies.addAll(previous.dependencies);
+        }
+        verify(previous.dependencies);
+        if (!checks.containsKey(name)) {
+            return null;
+        }
+        if (recordedResults != null) {
+            recordedResults.addAll(previous.results);
+        }
+        return previous;
+    }
+
+    private synchronized void register(String name, Set<WebElement> dependencies, List<CompletableFuture<JSONObject>> results, boolean result) {
+        checks.put(name, new TrackedCheck(result, dependencies, results));
+        for (WebElement dependency : dependencies) {
+            dependentChecks.computeIfAbsent(dependency, element -> new HashSet<>()).add(name);
+        }
+    }
+
+    /**
+     * @return the parents of the elements, each looked up once
+     */
+    private List<WebElement> parentsOf(List<WebElement> webElements) {
+        Set<WebElement> containers = new LinkedHashSet<>();
+        for (WebElement webElement : webElements) {
+            WebElement parent = parents.containsKey(webElement)
+                    ? parents.get(webElement)
+                    : lookUpParent(webElement);
+            if (parent != null) {
+                containers.add(parent);
+            }
+        }
+        return new ArrayList<>(containers);
+    }
+
+    private WebElement lookUpParent(WebElement webElement) {
+        WebElement parent = driver.findParent(webElement);
+        parents.put(webElement, parent);
+        return parent;
+    }
+
+    private void verify(Collection<WebElement> webElements) {
+        List<WebElement> unverified = new ArrayList<>();
+        for (WebElement webElement : new LinkedHashSet<>(webElements)) {
+            if (!verified.contains(webElement)) {
+                unverified.add(webElement);
+            }
+        }
+        if (unverified.isEmpty()) {
+            return;
+        }
+        List<CapturedElement> changed = driver.canCaptureElements()
+                ? captureChanged(unverified)
+                : captureEach(unverified);
+        for (int i = 0; i < unverified.size(); i++) {
+            WebElement webElement = unverified.get(i);
+            CapturedElement element = changed.get(i);
+            if (element != null) {
+                if (captured.put(webElement, element) != null) {
+                    changedCount++;
+                }
+                invalidateDependentChecks(webElement);
+            }
+            verified.add(webElement);
+        }
+    }
+
+    /**
+     * @return the elements that changed or are not known yet, null for the unchanged ones
+     */
+    private List<CapturedElement> captureChanged(List<WebElement> webElements) {
+        List<Boolean> known = new ArrayList<>(webElements.size());
+        for (WebElement webElement : webElements) {
+            known.add(captured.containsKey(webElement));
+        }
+        List<Object> values;
+        try {
+            values = driver.captureChangedElements(webElements, known, token);
+        } catch (RuntimeException e) {
+            return captureEach(webElements);
+        }
+        if (values == null || values.size() != webElements.size()) {
+            return captureEach(webElements);
+        }
+        List<CapturedElement> elements = new ArrayList<>(webElements.size());
+        for (Object value : values) {
+            elements.add(value == null ? null : CapturedElement.of((List<?>) value));
+        }
+        return elements;
+    }
+
+    /**
+     * @return the elements that differ from the captured ones, null for the unchanged ones
+     */
+    private List<CapturedElement> captureEach(List<WebElement> webElements) {
+        List<CapturedElement> elements = new ArrayList<>(webElements.size());
+        for (WebElement webElement : webElements) {
+            CapturedElement element = new CapturedElement(Rectangle.rectangle(webElement), webElement.getTagName(), webElement.getText());
+            elements.add(element.equals(captured.get(webElement)) ? null : element);
+        }
+        return elements;
+    }
+
+    private void invalidateDependentChecks(WebElement webElement) {
+        Set<String> dependents = dependentChecks.remove(webElement);
+        if (dependents != null) {
+            checks.keySet().removeAll(dependents);
+        }
+    }
+
+    private static class TrackedCheck {
+        private final boolean result;
+        private final Set<WebElement> dependencies;
+        private final List<CompletableFuture<JSONObject>> results;
+
+        private TrackedCheck(boolean result, Set<WebElement> dependencies, List<CompletableFuture<JSONObject>> results) {
+            this.result = result;
+            this.dependencies = dependencies;
+            this.results = results;
+        }
+    }
+
+    public static class CapturedElement {
+        private final Rectangle rectangle;
+        private final String tagName;
+        private final String text;
+
+        public CapturedElement(Rectangle rectangle, String tagName, String text) {
+            this.rectangle = rectangle;
+            this.tagName = tagName;
+            this.text = text;
+        }
+
+        /**
+         * @param values x, y, width, height, tag name and text as packed by {@link DriverFacade#captureChangedElements(List, List, String)}
+         */
+        private static CapturedElement of(List<?> values) {
+            int x = ((Number) values.get(0)).intValue();
+            int y = ((Number) values.get(1)).intValue();
+            int width = ((Number) values.get(2)).intValue();
+            int height = ((Number) values.get(3)).intValue();
+            return new CapturedElement(new Rectangle(x, y, x + width, y + height), (String) values.get(4), (String) values.get(5));
+        }
+
+        public Rectangle getRectangle() {
+            return rectangle;
+        }
+
+        public String getTagName() {
+            return tagName;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof CapturedElement)) {
+                return false;
+            }
+            CapturedElement other = (CapturedElement) object;
+            return rectangle.getOrigin().equals(other.rectangle.getOrigin())
+                    && rectangle.getCorner().equals(other.rectangle.getCorner())
+                    && String.valueOf(tagName).equals(String.valueOf(other.tagName))
+                    && String.valueOf(text).equals(String.valueOf(other.text));
+        }
+
+        @Override
+        public int hashCode() {
+            return rectangle.getOrigin().hashCode() * 31 + rectangle.getCorner().hashCode();
+        }
+    }
+}
@@ -3,36 +3,92 @@ package net.itarray.automotion.internal;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static net.itarray.automotion.validation.Constants.*;
 
+/**
+ * The violations found by a validator.
+ * <p>
+ * Violations are kept as they are and rendered to messages only when the messages are asked for.
+ * At most {@code maxStoredViolations} of them are kept, the others are only counted.
+ */
 public class Errors {
 
-    private final JSONArray messages = new JSONArray();
-    private String lastMessage;
+    private final List<Violation> violations = new ArrayList<>();
+    private final int maxStoredViolations;
+    private int count;
+    private Violation lastViolation;
+
+    public Errors() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public Errors(int maxStoredViolations) {
+        if (maxStoredViolations < 0) {
+            throw new IllegalArgumentException("maxStoredViolations needs to be greater or equal to zero, maxStoredViolations supplied was " + maxStoredViolations);
+        }
+        this.maxStoredViolations = maxStoredViolations;
+    }
 
     public String getLastMessage() {
-        return lastMessage;
+        return lastViolation == null ? null : lastViolation.getMessage();
     }
 
     public void add(String message) {
-        lastMessage = message;
-        JSONObject details = new JSONObject();
-        JSONObject messageObject = new JSONObject();
-        messageObject.put(MESSAGE, message);
-        details.put(REASON, messageObject);
-        messages.add(details);
+        add(Violation.message(message));
+    }
+
+    public void add(Violation violation) {
+        count++;
+        lastViolation = violation;
+        if (violations.size() < maxStoredViolations) {
+            violations.add(violation);
+        }
     }
 
     public boolean hasMessages() {
-        return !messages.isEmpty();
+        return count > 0;
     }
 
+    /**
+     * @return the number of violations, including the ones that were not stored
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public List<Violation> getViolations() {
+        return Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * @return the rendered messages of the stored violations, followed by the number of the others if there are any
+     */
+    @SuppressWarnings("unchecked")
     public JSONArray getMessages() {
+        JSONArray messages = new JSONArray();
+        for (Violation violation : violations) {
+            messages.add(details(violation.getMessage()));
+        }
+        if (count > violations.size()) {
+            messages.add(details(String.format("%d more violations are not listed", count - violations.size())));
+        }
         return messages;
     }
 
+    private static JSONObject details(String message) {
+        JSONObject details = new JSONObject();
+        JSONObject messageObject = new JSONObject();
+        messageObject.put(MESSAGE, message);
+        details.put(REASON, messageObject);
+        return details;
+    }
+
     @Override
     public String toString() {
-        return messages.toString();
+        return getMessages().toString();
     }
 }
@@ -0,0 +1,302 @@
+package net.itarray.automotion.internal;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compares two screenshots pixel by pixel and reports the regions in which they differ.
+ * <p>
+ * The pixels are read from the int or byte arrays backing the images, not with {@link BufferedImage#getRGB(int, int)}.
+ * The expected image is usually a baseline already stored as ints (see {@link BaselineStore}),
+ * the actual image is unpacked row by row within the tiles.
+ * The images are split into tiles that are compared in parallel; differing tiles that touch each other are merged
+ * into a single region. Alpha is ignored, colors differing by at most the tolerance in every channel are equal.
+ */
+public class ImageDiff {
+
+    private static final int TILE_SIZE = 128;
+    private static final int RGB = 0xFFFFFF;
+
+    private final int colorTolerance;
+    private final List<Rectangle> ignoredRegions;
+
+    /**
+     * @param colorTolerance the difference of a color channel (0 - 255) that is still considered equal
+     * @param ignoredRegions the regions of the image (in pixels of the image) that are not compared
+     */
+    public ImageDiff(int colorTolerance, List<Rectangle> ignoredRegions) {
+        if (colorTolerance < 0 || colorTolerance > 255) {
+            throw new IllegalArgumentException("color tolerance has to be between 0 and 255: " + colorTolerance);
+        }
+        this.colorTolerance = colorTolerance;
+        this.ignoredRegions = new ArrayList<>(ignoredRegions);
+    }
+
+    /**
+     * @return the regions (in pixels of the images) that differ, the whole extend if the sizes of the images differ
+     */
+    public List<Rectangle> diff(BufferedImage expected, BufferedImage actual) {
+        int width = actual.getWidth();
+        int height = actual.getHeight();
+        if (expected.getWidth() != width || expected.getHeight() != height) {
+            List<Rectangle> whole = new ArrayList<>();
+            whole.add(new Rectangle(0, 0, Math.max(width, expected.getWidth()), Math.max(height, expected.getHeight())));
+            return whole;
+        }
+        int[] expectedPixels = pixels(expected);
+        PackedPixels actualPixels = PackedPixels.of(actual);
+        int[][] ignored = ignoredRegions.stream()
+                .map(region -> new int[]{
+                        Math.max(0, region.getOrigin().getX().intValue()),
+                        Math.max(0, region.getOrigin().getY().intValue()),
+                        Math.min(width, region.getCorner().getX().intValue()),
+                        Math.min(height, region.getCorner().getY().intValue())})
+                .filter(region -> region[0] < region[2] && region[1] < region[3])
+                .toArray(int[][]::new);
+
+        int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        int[][] tiles = new int[columns * rows][];
+        IntStream.range(0, tiles.length).parallel().forEach(tile -> {
+            int originX = (tile % columns) * TILE_SIZE;
+            int originY = (tile / columns) * TILE_SIZE;
+            tiles[tile] = diffTile(expectedPixels, actualPixels, width,
+                    originX, originY, Math.min(originX + TILE_SIZE, width), Math.min(originY + TILE_SIZE, height), ignored);
+        });
+        return merge(tiles, columns, rows);
+    }
+
+    /**
+     * @return the bounds (originX, originY, cornerX, cornerY) of the differing pixels of the tile, or null if there are none
+     */
+    private int[] diffTile(int[] expected, PackedPixels actual, int width, int originX, int originY, int cornerX, int cornerY, int[][] ignored) {
+        int[][] ignoredInTile = overlapping(ignored, originX, originY, cornerX, cornerY);
+        int[] bounds = null;
+        int[] actualRow = new int[cornerX - originX];
+        for (int y = originY; y < cornerY; y++) {
+            int row = y * width;
+            actual.unpack(row + originX, actualRow.length, actualRow);
+            for (int x = originX; x < cornerX; x++) {
+                int expectedPixel = expected[row + x];
+                int actualPixel = actualRow[x - originX];
+                if (((expectedPixel ^ actualPixel) & RGB) != 0
+                        && !isEqualWithTolerance(expectedPixel, actualPixel)
+                        && !isIgnored(ignoredInTile, x, y)) {
+                    if (bounds == null) {
+                        bounds = new int[]{x, y, x + 1, y + 1};
+                    } else {
+                        bounds[0] = Math.min(bounds[0], x);
+                        bounds[2] = Math.max(bounds[2], x + 1);
+                        bounds[3] = y + 1;
+                    }
+                }
+            }
+        }
+        return bounds;
+    }
+
+    private boolean isEqualWithTolerance(int expected, int actual) {
+        return colorTolerance > 0
+                && Math.abs(((expected >> 16) & 0xFF) - ((actual >> 16) & 0xFF)) <= colorTolerance
+                && Math.abs(((expected >> 8) & 0xFF) - ((actual >> 8) & 0xFF)) <= colorTolerance
+                && Math.abs((expected & 0xFF) - (actual & 0xFF)) <= colorTolerance;
+    }
+
+    private static boolean isIgnored(int[][] ignored, int x, int y) {
+        for (int[] region : ignored) {
+            if (region[0] <= x && x < region[2] && region[1] <= y && y < region[3]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[][] overlapping(int[][] regions, int originX, int originY, int cornerX, int cornerY) {
+        List<int[]> overlapping = new ArrayList<>();
+        for (int[] region : regions) {
+            if (region[0] < cornerX && originX < region[2] && region[1] < cornerY && originY < region[3]) {
+                overlapping.add(region);
+            }
+        }
+        return overlapping.toArray(new int[0][]);
+    }
+
+    /**
+     * Merges the bounds of differing tiles that are neighbours (including diagonal ones) into regions.
+     */
+    private static List<Rectangle> merge(int[][] tiles, int columns, int rows) {
+        List<Rectangle> regions = new ArrayList<>();
+        boolean[] visited = new boolean[tiles.length];
+        int[] stack = new int[tiles.length];
+        for (int start = 0; start < tiles.length; start++) {
+            if (tiles[start] == null || visited[start]) {
+                continue;
+            }
+            int[] bounds = tiles[start].clone();
+            int size = 0;
+            stack[size++] = start;
+            visited[start] = true;
+            while (size > 0) {
+                int tile = stack[--size];
+                int[] tileBounds = tiles[tile];
+                bounds[0] = Math.min(bounds[0], tileBounds[0]);
+                bounds[1] = Math.min(bounds[1], tileBounds[1]);
+                bounds[2] = Math.max(bounds[2], tileBounds[2]);
+                bounds[3] = Math.max(bounds[3], tileBounds[3]);
+                int column = tile % columns;
+                int row = tile / columns;
+                for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(rows - 1, row + 1); neighbourRow++) {
+                    for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(columns - 1, column + 1); neighbourColumn++) {
+                        int neighbour = neighbourRow * columns + neighbourColumn;
+                        if (tiles[neighbour] != null && !visited[neighbour]) {
+                            visited[neighbour] = true;
+                            stack[size++] = neighbour;
+                        }
+                    }
+                }
+            }
+            regions.add(new Rectangle(bounds[0], bounds[1], bounds[2], bounds[3]));
+        }
+        return regions;
+    }
+
+    /**
+     * @return the pixels of the image row by row as packed ARGB ints, the backing array if the image is stored as packed ints,
+     * unpacked from the backing array if it is stored as (A)BGR bytes (as png files are usually decoded)
+     */
+    static int[] pixels(BufferedImage image) {
+        PackedPixels packed = PackedPixels.of(image);
+        if (packed.ints != null) {
+            return packed.ints;
+        }
+        int[] pixels = new int[image.getWidth() * image.getHeight()];
+        packed.unpack(0, pixels.length, pixels);
+        return pixels;
+    }
+
+    /**
+     * @return the image if its pixels are stored as packed ints, otherwise a copy of type {@link BufferedImage#TYPE_INT_RGB},
+     * so that comparing with the image does not need to unpack its pixels again
+     */
+    static BufferedImage withIntPixels(BufferedImage image) {
+        if (intData(image) != null) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) converted.getRaster().getDataBuffer()).getData();
+        PackedPixels.of(image).unpack(0, pixels.length, pixels);
+        return converted;
+    }
+
+    /**
+     * @return the array backing the image if it holds the pixels row by row as packed ints, null otherwise
+     */
+    private static int[] intData(BufferedImage image) {
+        Raster raster = image.getRaster();
+        if ((image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)
+                && raster.getDataBuffer() instanceof DataBufferInt
+                && raster.getDataBuffer().getNumBanks() == 1
+                && raster.getDataBuffer().getOffset() == 0
+                && raster.getParent() == null
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                && ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() == image.getWidth()) {
+            return ((DataBufferInt) raster.getDataBuffer()).getData();
+        }
+        return null;
+    }
+
+    /**
+     * @return the array backing the raster if it holds the pixels row by row without gaps, null otherwise
+     */
+    private static byte[] bytes(Raster raster, int pixelStride) {
+        if (!(raster.getDataBuffer() instanceof DataBufferByte)
+                || raster.getDataBuffer().getNumBanks() != 1
+                || raster.getDataBuffer().getOffset() != 0
+                || raster.getParent() != null
+                || !(raster.getSampleModel() instanceof PixelInterleavedSampleModel)) {
+            return null;
+        }
+        PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+        if (sampleModel.getPixelStride() != pixelStride
+                || sampleModel.getScanlineStride() != raster.getWidth() * pixelStride) {
+            return null;
+        }
+        return ((DataBufferByte) raster.getDataBuffer()).getData();
+    }
+
+    /**
+     * The array backing an image, either packed ARGB ints or BGR / ABGR bytes that are unpacked on demand,
+     * so that the tiles of an image stored as bytes are unpacked in parallel.
+     */
+    private static class PackedPixels {
+        private final int[] ints;
+        private final byte[] bytes;
+        private final int pixelStride;
+
+        private PackedPixels(int[] ints, byte[] bytes, int pixelStride) {
+            this.ints = ints;
+            this.bytes = bytes;
+            this.pixelStride = pixelStride;
+        }
+
+        private static PackedPixels of(BufferedImage image) {
+            int[] ints = intData(image);
+            if (ints != null) {
+                return new PackedPixels(ints, null, 1);
+            }
+            if (image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+                byte[] bytes = bytes(image.getRaster(), 3);
+                if (bytes != null) {
+                    return new PackedPixels(null, bytes, 3);
+                }
+            }
+            if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR) {
+                byte[] bytes = bytes(image.getRaster(), 4);
+                if (bytes != null) {
+                    return new PackedPixels(null, bytes, 4);
+                }
+            }
+            BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = converted.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, null);
+            } finally {
+                graphics.dispose();
+            }
+            return new PackedPixels(((DataBufferInt) converted.getRaster().getDataBuffer()).getData(), null, 1);
+        }
+
+        /**
+         * Copies the pixels from the offset on as packed ARGB ints to the start of the target.
+         */
+        private void unpack(int offset, int length, int[] target) {
+            if (ints != null) {
+                System.arraycopy(ints, offset, target, 0, length);
+            } else if (pixelStride == 3) {
+                for (int pixel = 0, index = offset * 3; pixel < length; pixel++, index += 3) {
+                    target[pixel] = 0xFF000000
+                            | (bytes[index + 2] & 0xFF) << 16
+                            | (bytes[index + 1] & 0xFF) << 8
+                            | (bytes[index] & 0xFF);
+                }
+            } else {
+                for (int pixel = 0, index = offset * 4; pixel < length; pixel++, index += 4) {
+                    target[pixel] = (bytes[index] & 0xFF) << 24
+                            | (bytes[index + 3] & 0xFF) << 16
+                            | (bytes[index + 2] & 0xFF) << 8
+                            | (bytes[index + 1] & 0xFF);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package net.itarray.automotion.internal;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_IMG;
+
+/**
+ * Stores images by content: every image is written once to a file named by the SHA-256 digest of its png,
+ * so the reports reference identical screenshots and drawings (e.g. of parameterised tests) by the same file.
+ * <p>
+ * A store with a near-duplicate distance also reuses the file of a screenshot of the same size whose
+ * perceptual hash (a 64 bit difference hash) differs in at most that many bits, e.g. for screens that only differ
+ * in a blinking cursor or anti-aliasing.
+ */
+public class ImageStore {
+
+    private static ImageStore instance;
+
+    private final File directory;
+    private final List<Fingerprint> fingerprints;
+    private final int nearDuplicateDistance;
+
+    public ImageStore(File directory) {
+        this(directory, new ArrayList<>(), 0);
+    }
+
+    private ImageStore(File directory, List<Fingerprint> fingerprints, int nearDuplicateDistance) {
+        this.directory = directory;
+        this.fingerprints = fingerprints;
+        this.nearDuplicateDistance = nearDuplicateDistance;
+    }
+
+    /**
+     * @return the store of the report images, created on first use
+     */
+    public static synchronized ImageStore getInstance() {
+        if (instance == null) {
+            instance = new ImageStore(new File(TARGET_AUTOMOTION_IMG));
+        }
+        return instance;
+    }
+
+    /**
+     * @param nearDuplicateDistance the number of bits the perceptual hashes of near-duplicate screenshots may differ in, 0 for exact duplicates only
+     * @return a store sharing the images of this store
+     */
+    public ImageStore withNearDuplicateDistance(int nearDuplicateDistance) {
+        if (nearDuplicateDistance < 0 || nearDuplicateDistance > 64) {
+            throw new IllegalArgumentException("near-duplicate distance has to be between 0 and 64: " + nearDuplicateDistance);
+        }
+        return new ImageStore(directory, fingerprints, nearDuplicateDistance);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the file of the png, written only if no file of the same content exists
+     */
+    public File store(byte[] png) {
+        return store(png, "png");
+    }
+
+    /**
+     * @param extension the file extension of the format of the content, e.g. "svg"
+     * @return the file of the content, written only if no file of the same content exists
+     */
+    public File store(byte[] content, String extension) {
+        File file = new File(directory, digest(content) + "." + extension);
+        if (!file.exists()) {
+            directory.mkdirs();
+            try {
+                File temporary = File.createTempFile("image", ".tmp", directory);
+                Files.write(temporary.toPath(), content);
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot write image: " + file, e);
+            }
+        }
+        return file;
+    }
+
+    public File store(BufferedImage image) {
+        if (nearDuplicateDistance > 0) {
+            long hash = perceptualHash(image);
+            File nearDuplicate = findNearDuplicate(image.getWidth(), image.getHeight(), hash);
+            if (nearDuplicate != null) {
+                return nearDuplicate;
+            }
+            File file = store(encode(image));
+            register(new Fingerprint(image.getWidth(), image.getHeight(), hash, file));
+            return file;
+        }
+        return store(encode(image));
+    }
+
+    /**
+     * Moves a captured png into the store, a capture that was not written (e.g. by a driver without screenshots) is left as it is.
+     *
+     * @return the file of the png in the store
+     */
+    public File storeFile(File captured) {
+        if (!captured.isFile()) {
+            return captured;
+        }
+        try {
+            File file = nearDuplicateDistance > 0
+                    ? store(ImageIO.read(captured))
+                    : store(Files.readAllBytes(captured.toPath()));
+            if (!file.equals(captured)) {
+                Files.deleteIfExists(captured.toPath());
+            }
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot store image: " + captured, e);
+        }
+    }
+
+    /**
+     * @return the difference hash of the image: the luminance of a 9x8 grid of cells, one bit per horizontal neighbours
+     */
+    public static long perceptualHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = ImageDiff.pixels(image);
+        long[] luminance = new long[9 * 8];
+        int[] counts = new int[9 * 8];
+        int step = Math.max(1, Math.min(width, height) / 256);
+        for (int y = 0; y < height; y += step) {
+            int row = (int) ((long) y * 8 / height) * 9;
+            for (int x = 0; x < width; x += step) {
+                int pixel = pixels[y * width + x];
+                int cell = row + (int) ((long) x * 9 / width);
+                luminance[cell] += (((pixel >> 16) & 0xFF) * 299 + ((pixel >> 8) & 0xFF) * 587 + (pixel & 0xFF) * 114) / 1000;
+                counts[cell]++;
+            }
+        }
+        long hash = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int column = 0; column < 8; column++) {
+                int cell = row * 9 + column;
+                if (average(luminance, counts, cell) < average(luminance, counts, cell + 1)) {
+                    hash |= 1L << (row * 8 + column);
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long average(long[] luminance, int[] counts, int cell) {
+        return counts[cell] == 0 ? 0 : luminance[cell] / counts[cell];
+    }
+
+    private File findNearDuplicate(int width, int height, long hash) {
+        synchronized (fingerprints) {
+            for (Fingerprint fingerprint : fingerprints) {
+                if (fingerprint.width == width && fingerprint.height == height
+                        && Long.bitCount(fingerprint.hash ^ hash) <= nearDuplicateDistance
+                        && fingerprint.file.exists()) {
+                    return fingerprint.file;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void register(Fingerprint fingerprint) {
+        synchronized (fingerprints) {
+            fingerprints.add(fingerprint);
+        }
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot encode image", e);
+        }
+        return png.toByteArray();
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Fingerprint {
+        private final int width;
+        private final int height;
+        private final long hash;
+        private final File file;
+
+        private Fingerprint(int width, int height, long hash, File file) {
+            this.width = width;
+            this.height = height;
+            this.hash = hash;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package net.itarray.automotion.internal;
+
+import org.openqa.selenium.Dimension;
+
+/**
+ * Size, zoom and scroll position of the page, as retrieved together by {@link DriverFacade#retrievePageMetrics()}.
+ */
+public class PageMetrics {
+
+    private final Dimension pageSize;
+    private final String zoom;
+    private final int xOffset;
+    private final int yOffset;
+
+    public PageMetrics(Dimension pageSize, String zoom, int xOffset, int yOffset) {
+        this.pageSize = pageSize;
+        this.zoom = zoom;
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+    }
+
+    public Dimension getPageSize() {
+        return pageSize;
+    }
+
+    public String getZoom() {
+        return zoom;
+    }
+
+    public int getXOffset() {
+        return xOffset;
+    }
+
+    public int getYOffset() {
+        return yOffset;
+    }
+}
@@ -1,15 +1,19 @@
     package net.itarray.automotion.internal;
 
 import net.itarray.automotion.internal.geometry.ConnectedIntervals;
+import net.itarray.automotion.internal.geometry.EqualityGroups;
 import net.itarray.automotion.internal.geometry.Interval;
+import net.itarray.automotion.internal.geometry.Overlaps;
+import net.itarray.automotion.internal.geometry.Rectangle;
 import net.itarray.automotion.internal.geometry.Scalar;
+import net.itarray.automotion.internal.geometry.SpatialIndex;
 import net.itarray.automotion.internal.geometry.Vector;
+import net.itarray.automotion.internal.Violation.Type;
 import net.itarray.automotion.internal.properties.Context;
 import net.itarray.automotion.validation.ChunkUIElementValidator;
 import net.itarray.automotion.validation.UISnapshot;
 import net.itarray.automotion.validation.Units;
 import org.json.simple.JSONObject;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 import util.validator.ResponsiveUIValidator;
 
@@ -17,30 +21,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static net.itarray.automotion.internal.UIElement.*;
 import static net.itarray.automotion.internal.geometry.Interval.interval;
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
 
 public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase implements ChunkUIElementValidator {
 
     private final List<UIElement> rootElements;
 
     public ResponsiveUIChunkValidatorBase(UISnapshot snapshot, List<WebElement> webElements, boolean allowEmpty) {
-        super(snapshot);
+        super(snapshot); // retrieving the page metrics also hides the scrollbars
         if (!allowEmpty && webElements.isEmpty()) {
             String message = "Set root web element";
             getContext().add(message);
-        } else {
-            if (!getDriver().isAppiumContext()) {
-                try {
-                    //((JavascriptExecutor) getDriver().getDriver()).executeScript("arguments[0].scrollIntoView();", webElements.get(0));
-                    //((JavascriptExecutor) getDriver().getDriver()).executeScript("javascript:window.scrollBy(0,250);");
-                    ((JavascriptExecutor) getDriver().getDriver()).executeScript("document.documentElement.style.overflow = 'hidden'");
-                } catch (Exception e) {}
-            }
         }
-        rootElements = asElements(webElements);
+        rootElements = snapshot.asElements(webElements);
         doSnapshot();
     }
 
@@ -271,21 +269,71 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
      */
     @Override
     public ResponsiveUIChunkValidatorBase areInsideOf(WebElement containerElement, String readableContainerName) {
-        validateInsideOfContainer(asElement(containerElement, readableContainerName), rootElements);
+        validateInsideOfContainer(snapshot.asElement(containerElement, readableContainerName), rootElements);
+        return this;
+    }
+
+    /**
+     * Verify that every element is located inside of one of the specified elements, e.g. every item inside of some column.
+     * The containers of an element are looked up in the spatial index of the snapshot.
+     *
+     * @param containerElements
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidatorBase areInsideOfAnyOf(List<WebElement> containerElements) {
+        validateInsideOfAnyContainer(snapshot.getSpatialIndex(containerElements), rootElements);
+        return this;
+    }
+
+    /**
+     * Verify that no element is overlapped with one of the specified elements.
+     * The overlapping elements are looked up in the spatial index of the snapshot.
+     *
+     * @param otherElements
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidatorBase doNotOverlapWith(List<WebElement> otherElements) {
+        validateNotOverlappingWithAny(snapshot.getSpatialIndex(otherElements), rootElements);
+        return this;
+    }
+
+    /**
+     * Verify that all elements have correct CSS values.
+     * The values of all elements are retrieved with a single script execution per property.
+     *
+     * @param cssProperty
+     * @param args
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidatorBase haveCssValue(String cssProperty, String... args) {
+        for (UIElement element : rootElements) {
+            element.validateHasCssValue(cssProperty, args, getContext());
+        }
+        return this;
+    }
+
+    /**
+     * Verify that concrete CSS values are absent for all elements
+     *
+     * @param cssProperty
+     * @param args
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidatorBase doNotHaveCssValue(String cssProperty, String... args) {
+        for (UIElement element : rootElements) {
+            element.validateDoesNotHaveCssValue(cssProperty, args, getContext());
+        }
         return this;
     }
 
     private void validateElementsAreNotOverlapped(List<UIElement> elements) {
         Context context = getContext();
-        for (int firstIndex = 0; firstIndex < elements.size(); firstIndex++) {
-            UIElement first = elements.get(firstIndex);
-            for (int secondIndex = firstIndex+1; secondIndex < elements.size(); secondIndex++) {
-                UIElement second = elements.get(secondIndex);
-                if (!first.validateNotOverlappingWithElement(second, context)) {
-                    break;
-                }
-            }
-        }
+        new Overlaps<>(elements, UIElement::getBounds, context.getTolerance())
+                .forEachOverlappingPair((first, second) -> first.validateNotOverlappingWithElement(second, context));
     }
 
     // todo: tolerance
@@ -299,7 +347,7 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
         int mapSize = map.size();
         if (rows > 0) {
             if (mapSize != rows) {
-                getContext().add(String.format("Elements in a grid are not aligned properly. Looks like grid has wrong amount of rows. Expected is %d. Actual is %d", rows, mapSize));
+                getContext().add(new Violation(Type.GRID, null, null, mapSize, rows, () -> String.format("Elements in a grid are not aligned properly. Looks like grid has wrong amount of rows. Expected is %d. Actual is %d", rows, mapSize)));
             }
         }
 
@@ -312,7 +360,8 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
                     if (actualInARow != columns) {
                         errorLastLine++;
                         if (errorLastLine > 1 || actualInARow > columns) {
-                            getContext().add(String.format("Elements in a grid are not aligned properly in row #%d. Expected %d elements in a row. Actually it's %d", rowCount, columns, actualInARow));
+                            int row = rowCount;
+                            getContext().add(new Violation(Type.GRID, null, null, actualInARow, columns, () -> String.format("Elements in a grid are not aligned properly in row #%d. Expected %d elements in a row. Actually it's %d", row, columns, actualInARow)));
                         }
                     }
                     rowCount++;
@@ -394,7 +443,8 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
             UIElement element = elements.get(i);
             UIElement elementToCompare = elements.get(i + 1);
             if (!element.hasSameWidthAs(elementToCompare, context)) {
-                context.add(String.format("Element %s has different width than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
+                context.add(new Violation(Type.EQUAL_EXTENDS, element, elementToCompare, element.getWidth(), elementToCompare.getWidth(),
+                        () -> String.format("Element %s has different width than element %s.", element.getQuotedName(), elementToCompare.getQuotedName())));
                 context.draw(element);
                 context.draw(elementToCompare);
             }
@@ -407,7 +457,8 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
             UIElement element = elements.get(i);
             UIElement elementToCompare = elements.get(i + 1);
             if (!element.hasSameHeightAs(elementToCompare, context)) {
-                context.add(String.format("Element %s has different height than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
+                context.add(new Violation(Type.EQUAL_EXTENDS, element, elementToCompare, element.getHeight(), elementToCompare.getHeight(),
+                        () -> String.format("Element %s has different height than element %s.", element.getQuotedName(), elementToCompare.getQuotedName())));
                 context.draw(element);
                 context.draw(elementToCompare);
             }
@@ -420,7 +471,8 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
             UIElement element = elements.get(i);
             UIElement elementToCompare = elements.get(i + 1);
             if (!element.hasSameSizeAs(elementToCompare, context)) {
-                context.add(String.format("Element %s has different size than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
+                context.add(new Violation(Type.EQUAL_EXTENDS, element, elementToCompare, element.getSize(), elementToCompare.getSize(),
+                        () -> String.format("Element %s has different size than element %s.", element.getQuotedName(), elementToCompare.getQuotedName())));
                 context.draw(element);
                 context.draw(elementToCompare);
             }
@@ -429,46 +481,38 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
     }
 
     private void validateHaveDifferentSizes(List<UIElement> elements) {
-        Context context = getContext();
-        for (int firstIndex = 0; firstIndex < elements.size(); firstIndex++) {
-            UIElement element = elements.get(firstIndex);
-            for (int secondIndex = firstIndex+1; secondIndex < elements.size(); secondIndex++) {
-                UIElement elementToCompare = elements.get(secondIndex);
-                if (element.hasSameSizeAs(elementToCompare, context)) {
-                    context.add(String.format("Element %s has same size than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
-                    context.draw(element);
-                    context.draw(elementToCompare);
-                }
-            }
-        }
+        validateHaveDifferentExtends(elements, UIElement::getSize, size -> size.toStringWithUnits("px"), "size");
     }
 
     private void validateHaveDifferentWidths(List<UIElement> elements) {
-        Context context = getContext();
-        for (int firstIndex = 0; firstIndex < elements.size(); firstIndex++) {
-            UIElement element = elements.get(firstIndex);
-            for (int secondIndex = firstIndex+1; secondIndex < elements.size(); secondIndex++) {
-                UIElement elementToCompare = elements.get(secondIndex);
-                if (element.hasSameWidthAs(elementToCompare, context)) {
-                    context.add(String.format("Element %s has same width than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
-                    context.draw(element);
-                    context.draw(elementToCompare);
-                }
-            }
-        }
+        validateHaveDifferentExtends(elements, element -> new Vector(element.getWidth(), scalar(0)), width -> width.getX().toStringWithUnits("px"), "width");
     }
 
     private void validateNotSameHeight(List<UIElement> elements) {
+        validateHaveDifferentExtends(elements, element -> new Vector(scalar(0), element.getHeight()), height -> height.getY().toStringWithUnits("px"), "height");
+    }
+
+    /**
+     * Reports the groups of elements with equal extends, a group that spans more than one extend
+     * (through elements equal within the tolerance) is reported with its smallest and largest extend.
+     */
+    private void validateHaveDifferentExtends(List<UIElement> elements, Function<UIElement, Vector> extend, Function<Vector, String> extendDescription, String extendName) {
         Context context = getContext();
-        for (int firstIndex = 0; firstIndex < elements.size(); firstIndex++) {
-            UIElement element = elements.get(firstIndex);
-            for (int secondIndex = firstIndex+1; secondIndex < elements.size(); secondIndex++) {
-                UIElement elementToCompare = elements.get(secondIndex);
-                if (element.hasSameHeightAs(elementToCompare, context)) {
-                    context.add(String.format("Element %s has same height than element %s.", element.getQuotedName(), elementToCompare.getQuotedName()));
-                    context.draw(element);
-                    context.draw(elementToCompare);
-                }
+        for (List<UIElement> group : new EqualityGroups<>(elements, extend, context.getTolerance()).getGroups()) {
+            Vector smallest = extend.apply(group.get(0));
+            Vector largest = smallest;
+            for (UIElement element : group) {
+                Vector value = extend.apply(element);
+                smallest = new Vector(smallest.getX().min(value.getX()), smallest.getY().min(value.getY()));
+                largest = new Vector(largest.getX().max(value.getX()), largest.getY().max(value.getY()));
+            }
+            String span = smallest.equals(largest) ? "" : String.format(", from %s to %s", extendDescription.apply(smallest), extendDescription.apply(largest));
+            context.add(new Violation(Type.DIFFERENT_EXTENDS, group.get(0), group.get(1), smallest, largest, () -> String.format("Elements %s have same %s%s.",
+                    group.stream().map(UIElement::getQuotedName).collect(Collectors.joining(", ")),
+                    extendName,
+                    span)));
+            for (UIElement element : group) {
+                context.draw(element);
             }
         }
     }
@@ -491,6 +535,29 @@ public class ResponsiveUIChunkValidatorBase extends ResponsiveUIValidatorBase im
         }
     }
 
+    private void validateInsideOfAnyContainer(SpatialIndex<UIElement> containers, List<UIElement> elements) {
+        Context context = getContext();
+        Vector tolerance = new Vector(context.getTolerance(), context.getTolerance());
+        for (UIElement element : elements) {
+            // containers within the tolerance touch the element grown by the tolerance
+            Rectangle grown = new Rectangle(element.getOrigin().minus(tolerance), element.getCorner().plus(tolerance));
+            if (containers.touching(grown).stream().noneMatch(container -> container.contains(element, context))) {
+                context.add(new Violation(Type.INSIDE, element, null, null, null, () -> String.format("Element '%s' is not inside of any of %d containers",
+                        element.getName(),
+                        containers.size())));
+            }
+        }
+    }
+
+    private void validateNotOverlappingWithAny(SpatialIndex<UIElement> others, List<UIElement> elements) {
+        Context context = getContext();
+        for (UIElement element : elements) {
+            for (UIElement other : others.overlapping(element.getBounds())) {
+                element.validateNotOverlappingWithElement(other, context);
+            }
+        }
+    }
+
     @Override
     protected String getNameOfToBeValidated() {
         return "Root Element";
@@ -12,8 +12,12 @@ import org.json.simple.JSONObject;
 import org.openqa.selenium.Dimension;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static net.itarray.automotion.validation.Constants.*;
 
@@ -28,13 +32,14 @@ public abstract class ResponsiveUIValidatorBase {
     private DrawableScreenshot drawableScreenshot;
     private Scalar tolerance;
     private boolean rootElementDrawn;
+    private Context context;
 
     protected ResponsiveUIValidatorBase(UISnapshot snapshot) {
         this.snapshot = snapshot;
         this.driver = snapshot.getResponsiveUIValidator().getDriver();
-        this.errors = new Errors();
+        this.errors = new Errors(snapshot.getResponsiveUIValidator().getMaxStoredViolations());
         this.zoomFactor = snapshot.getZoomFactor();
-        Dimension dimension = this.driver.retrievePageSize();
+        Dimension dimension = snapshot.getPageMetrics().getPageSize();
         this.page = UIElement.asElement(new net.itarray.automotion.internal.geometry.Rectangle(0, 0, dimension.getWidth(), dimension.getHeight()), "page");
         this.startTime = System.currentTimeMillis();
         tolerance = snapshot.getResponsiveUIValidator().getTolerance();
@@ -42,10 +47,17 @@ public abstract class ResponsiveUIValidatorBase {
 
 
     public DrawableScreenshot getDrawableScreenshot() {
+        if (drawableScreenshot == null && this.errors.hasMessages() && getReport().isTakingRegionScreenshots()) {
+            this.drawableScreenshot = new DrawableScreenshot(getTransform(), getDrawingConfiguration(), getNameOfToBeValidated(), null);
+        }
         if (drawableScreenshot == null && this.errors.hasMessages()) {
             File screenshotName = snapshot.takeScreenshot();
-            Vector extend = driver.getExtend(screenshotName);
-            this.drawableScreenshot = new DrawableScreenshot(extend, getTransform(), getDrawingConfiguration(), getNameOfToBeValidated(), screenshotName);
+            if (getReport().isDeferringScreenshots()) {
+                this.drawableScreenshot = new DrawableScreenshot(getTransform(), getDrawingConfiguration(), getNameOfToBeValidated(), screenshotName);
+            } else {
+                Vector extend = driver.getExtend(screenshotName);
+                this.drawableScreenshot = new DrawableScreenshot(extend, getTransform(), getDrawingConfiguration(), getNameOfToBeValidated(), screenshotName);
+            }
         }
         if (isWithReport() && !rootElementDrawn && this.errors.hasMessages()) {
             rootElementDrawn = true;
@@ -110,6 +122,13 @@ public abstract class ResponsiveUIValidatorBase {
     }
 
     protected Context getContext() {
+        if (context == null) {
+            context = createContext();
+        }
+        return context;
+    }
+
+    private Context createContext() {
         return new Context() {
             @Override
             public Rectangle getPageRectangle() {
@@ -131,6 +150,11 @@ public abstract class ResponsiveUIValidatorBase {
                 errors.add(message);
             }
 
+            @Override
+            public void add(Violation violation) {
+                errors.add(violation);
+            }
+
             @Override
             public void draw(UIElement element) {
                 DrawableScreenshot drawableScreenshot = getDrawableScreenshot();
@@ -173,7 +197,7 @@ public abstract class ResponsiveUIValidatorBase {
 
             @Override
             public int errorCount() {
-                return errors.getMessages().size();
+                return errors.getCount();
             }
         };
     }
@@ -183,19 +207,99 @@ public abstract class ResponsiveUIValidatorBase {
 
     private void compileValidationReport() {
         DrawableScreenshot drawableScreenshot = getDrawableScreenshot();
+        CompletableFuture<Void> saved = null;
 
         if (drawableScreenshot != null) {
             if (isWithReport()) {
-                getDrawableScreenshot().saveDrawing();
+                if (getReport().isTakingRegionScreenshots()) {
+                    saved = saveRegionScreenshot(drawableScreenshot);
+                } else if (getReport().isDeferringScreenshots()) {
+                    Consumer<Vector> saveDrawing = drawableScreenshot.deferredSaveDrawing();
+                    saved = getReport().getScreenshotPipeline().thenAccept(snapshot.getScreenshotExtend(), extend -> {
+                        drawableScreenshot.setScreenshotName(snapshot.getScreenshotName());
+                        saveDrawing.accept(extend);
+                    });
+                } else {
+                    drawableScreenshot.saveDrawing();
+                }
             }
         }
 
         if (isWithReport()) {
-            writeResults(getDrawableScreenshot());
+            writeResults(getDrawableScreenshot(), saved);
+        }
+    }
+
+    /**
+     * Takes the screenshot of the region around the drawn elements and saves it with the drawings,
+     * in the background if screenshots are deferred.
+     * If the driver cannot capture a region, the region is cropped from the screenshot of the snapshot.
+     *
+     * @return the saving of the images if deferred, null otherwise
+     */
+    private CompletableFuture<Void> saveRegionScreenshot(DrawableScreenshot drawableScreenshot) {
+        SimpleTransform transform = getTransform();
+        java.awt.Rectangle region = getScreenshotRegion(drawableScreenshot.getBounds());
+        Supplier<BufferedImage> regionCapture = region.isEmpty() ? null : driver.captureScreenshotOfRegion(region, snapshot.getPageMetrics());
+        Supplier<RegionScreenshot> screenshot;
+        if (regionCapture != null) {
+            screenshot = () -> new RegionScreenshot(regionCapture.get(), transform.forRegionAt(region.x, region.y));
+        } else {
+            if (getReport().isDeferringScreenshots()) {
+                snapshot.takeScreenshot();
+            }
+            screenshot = () -> crop(snapshot.getScreenshotImage(), region, transform);
+        }
+
+        BiConsumer<Vector, SimpleTransform> saveDrawing = drawableScreenshot.deferredSaveTransformedDrawing();
+        ImageStore imageStore = getReport().getImageStore();
+        Runnable save = () -> {
+            RegionScreenshot regionScreenshot = screenshot.get();
+            BufferedImage image = regionScreenshot.image;
+            drawableScreenshot.setScreenshotName(imageStore.store(image));
+            saveDrawing.accept(new Vector(image.getWidth(), image.getHeight()), regionScreenshot.transform);
+        };
+        if (getReport().isDeferringScreenshots()) {
+            return getReport().getScreenshotPipeline().<Void>supply(() -> {
+                save.run();
+                return null;
+            });
+        }
+        save.run();
+        return null;
+    }
+
+    /**
+     * @return the region (in page coordinates) of the bounds with the margin, empty if there are no bounds
+     */
+    private java.awt.Rectangle getScreenshotRegion(Rectangle bounds) {
+        if (bounds == null) {
+            return new java.awt.Rectangle();
+        }
+        int margin = getReport().getRegionScreenshotMargin();
+        Rectangle pageRectangle = page.getBounds();
+        int x = Math.max(0, bounds.getOrigin().getX().intValue() - margin);
+        int y = Math.max(0, bounds.getOrigin().getY().intValue() - margin);
+        int cornerX = Math.min(pageRectangle.getCorner().getX().intValue(), bounds.getCorner().getX().intValue() + margin);
+        int cornerY = Math.min(pageRectangle.getCorner().getY().intValue(), bounds.getCorner().getY().intValue() + margin);
+        return new java.awt.Rectangle(x, y, Math.max(0, cornerX - x), Math.max(0, cornerY - y));
+    }
+
+    /**
+     * @return the part of the screenshot showing the region, the whole screenshot if the region is not on it
+     */
+    private static RegionScreenshot crop(BufferedImage image, java.awt.Rectangle region, SimpleTransform transform) {
+        int x = transform.transformX(region.x);
+        int y = transform.transformY(region.y);
+        int cornerX = Math.min(image.getWidth(), transform.transformX(region.x + region.width));
+        int cornerY = Math.min(image.getHeight(), transform.transformY(region.y + region.height));
+        if (region.isEmpty() || x < 0 || y < 0 || x >= cornerX || y >= cornerY) {
+            return new RegionScreenshot(image, transform);
         }
+        return new RegionScreenshot(image.getSubimage(x, y, cornerX - x, cornerY - y), transform.forRegionAt(region.x, region.y));
     }
 
-    private SimpleTransform getTransform() {
+    protected SimpleTransform getTransform() {
         return new SimpleTransform(getYOffset(), getScaleFactor());
     }
 
@@ -224,7 +328,10 @@ public abstract class ResponsiveUIValidatorBase {
 
     protected abstract void storeRootDetails(JSONObject rootDetails);
 
-    private void writeResults(DrawableScreenshot drawableScreenshot) {
+    /**
+     * @param saved the saving of deferred images, whose names are added to the results once they are stored
+     */
+    private void writeResults(DrawableScreenshot drawableScreenshot, CompletableFuture<Void> saved) {
         JSONObject jsonResults = new JSONObject();
 
         jsonResults.put(ERROR_KEY, errors.hasMessages());
@@ -237,23 +344,69 @@ public abstract class ResponsiveUIValidatorBase {
         jsonResults.put(ROOT_ELEMENT, rootDetails);
         jsonResults.put(TIME_EXECUTION, String.valueOf(System.currentTimeMillis() - startTime) + " milliseconds");
         jsonResults.put(ELEMENT_NAME, getNameOfToBeValidated());
-        jsonResults.put(SCREENSHOT, drawableScreenshot != null ? drawableScreenshot.getScreenshotName().getName() : "");
-        jsonResults.put(DRAWINGS, drawableScreenshot != null ? drawableScreenshot.getDrawingsOutput().getName() : "");
+        putImageNames(jsonResults, drawableScreenshot);
+
+        String jsonFileName = jsonFileName(getNameOfToBeValidated());
+        ResultsJournal.getInstance().append(jsonFileName, jsonResults);
+
+        getReport().addResult(jsonFileName, jsonResults);
+
+        CompletableFuture<JSONObject> reported = CompletableFuture.completedFuture(jsonResults);
+        if (saved != null) {
+            reported = getReport().getScreenshotPipeline().thenAccept(saved, ignored -> {
+                putImageNames(jsonResults, drawableScreenshot);
+                ResultsJournal.getInstance().append(jsonFileName, jsonResults);
+            }).thenApply(ignored -> jsonResults);
+        }
+        if (getReport().isValidatingIncrementally()) {
+            getReport().getElementTracker().reported(reported);
+        }
+    }
 
+    /**
+     * Reports the result of a validation of a previous snapshot for the snapshot, see {@link UISnapshot#check}.
+     * The copy is completed once the images of the previous result are stored, its scenario names the snapshot
+     * the screenshot was taken of.
+     */
+    public static void reportAgain(UISnapshot snapshot, CompletableFuture<JSONObject> previous) {
+        ResponsiveUIValidator report = snapshot.getResponsiveUIValidator();
+        JSONObject jsonResults = new JSONObject();
+        String jsonFileName;
+        if (previous.isDone()) {
+            copyResult(previous.join(), snapshot, jsonResults);
+            jsonFileName = jsonFileName(String.valueOf(jsonResults.get(ELEMENT_NAME)));
+            ResultsJournal.getInstance().append(jsonFileName, jsonResults);
+        } else {
+            jsonFileName = jsonFileName("unchanged");
+            report.getScreenshotPipeline().thenAccept(previous, result -> {
+                copyResult(result, snapshot, jsonResults);
+                ResultsJournal.getInstance().append(jsonFileName, jsonResults);
+            });
+        }
+        report.addResult(jsonFileName, jsonResults);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void copyResult(JSONObject previous, UISnapshot snapshot, JSONObject copy) {
+        copy.putAll(previous);
+        copy.put(SCENARIO, String.format("%s (unchanged since %s, screenshot of that snapshot)",
+                snapshot.getDescription(), previous.get(SCENARIO)));
+    }
+
+    private static String jsonFileName(String nameOfToBeValidated) {
         long ms = System.currentTimeMillis();
         String uuid = Helper.getGeneratedStringWithLength(7);
-        String jsonFileName = getNameOfToBeValidated().replace(" ", "") + "-automotion" + ms + uuid + ".json";
-        File jsonFile = new File(TARGET_AUTOMOTION_JSON + jsonFileName);
-        jsonFile.getParentFile().mkdirs();
-        try (OutputStreamWriter outputStreamWriter =
-                     new OutputStreamWriter(new FileOutputStream(jsonFile), StandardCharsets.UTF_8);
-             Writer writer = new BufferedWriter(outputStreamWriter)) {
-            writer.write(jsonResults.toJSONString());
-        } catch (IOException ex) {
-            throw new RuntimeException("Cannot create json report: " + jsonFile, ex);
-        }
+        return nameOfToBeValidated.replace(" ", "") + "-automotion" + ms + uuid + ".json";
+    }
 
-        addJsonFile(jsonFileName);
+    @SuppressWarnings("unchecked")
+    private static void putImageNames(JSONObject jsonResults, DrawableScreenshot drawableScreenshot) {
+        jsonResults.put(SCREENSHOT, drawableScreenshot != null ? imageName(drawableScreenshot.getScreenshotName()) : "");
+        jsonResults.put(DRAWINGS, drawableScreenshot != null ? imageName(drawableScreenshot.getDrawingsOutput()) : "");
+    }
+
+    private static String imageName(File image) {
+        return image != null ? image.getName() : "";
     }
 
     public void addJsonFile(String jsonFileName) {
@@ -300,4 +453,14 @@ public abstract class ResponsiveUIValidatorBase {
         return getReport().getDrawingConfiguration();
     }
 
+    private static class RegionScreenshot {
+        private final BufferedImage image;
+        private final SimpleTransform transform;
+
+        private RegionScreenshot(BufferedImage image, SimpleTransform transform) {
+            this.image = image;
+            this.transform = transform;
+        }
+    }
+
 }
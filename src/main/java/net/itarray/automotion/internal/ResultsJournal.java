@@ -0,0 +1,235 @@
+package net.itarray.automotion.internal;
+
+import net.itarray.automotion.tools.helpers.Helper;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_JOURNAL;
+import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_JSON;
+
+/**
+ * An append-only log of validation results, replacing one json file per validation.
+ * <p>
+ * The journal starts with a magic number followed by records of the form
+ * {@code [int length][name][int length][result as json]}, all strings in UTF-8.
+ * Every JVM appends to its own journal, see {@link #getInstance()}.
+ * A record that was not completely written (e.g. because the JVM was killed) is ignored and overwritten by the next record.
+ * The journal is deleted as soon as all of its results are reported, see {@link #remove(Collection)}.
+ */
+public class ResultsJournal {
+
+    private static final int MAGIC = 0x414d4a31; // "AMJ1"
+
+    private static ResultsJournal instance;
+
+    private final File file;
+    private final Map<String, Long> positions = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long end;
+
+    public ResultsJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the journal of this JVM, created on first use and closed when the JVM shuts down
+     */
+    public static synchronized ResultsJournal getInstance() {
+        if (instance == null) {
+            String name = "results-" + System.currentTimeMillis() + Helper.getGeneratedStringWithLength(7) + ".journal";
+            ResultsJournal journal = new ResultsJournal(new File(TARGET_AUTOMOTION_JOURNAL + name));
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+            instance = journal;
+        }
+        return instance;
+    }
+
+    /**
+     * Exports a journal to legacy json files: {@code <journal file> [<target directory>]}
+     */
+    public static void main(String[] args) {
+        File directory = new File(args.length > 1 ? args[1] : TARGET_AUTOMOTION_JSON);
+        ResultsJournal journal = new ResultsJournal(new File(args[0]));
+        try {
+            journal.exportJsonFiles(directory);
+        } finally {
+            journal.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void append(String name, JSONObject result) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] resultBytes = result.toJSONString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(8 + nameBytes.length + resultBytes.length);
+        record.putInt(nameBytes.length).put(nameBytes).putInt(resultBytes.length).put(resultBytes);
+        record.flip();
+        try {
+            open();
+            long position = end;
+            write(record, position);
+            end += record.limit();
+            positions.put(name, position);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write results journal: " + file, e);
+        }
+    }
+
+    public synchronized boolean contains(String name) {
+        openIfExists();
+        return positions.containsKey(name);
+    }
+
+    /**
+     * @return the result that was appended last with the given name, or null if there is none
+     */
+    public synchronized JSONObject read(String name) {
+        openIfExists();
+        Long position = positions.get(name);
+        if (position == null) {
+            return null;
+        }
+        try {
+            ByteBuffer nameLength = read(position, 4);
+            long resultPosition = position + 4 + nameLength.getInt();
+            int resultLength = read(resultPosition, 4).getInt();
+            ByteBuffer result = read(resultPosition + 4, resultLength);
+            return (JSONObject) new JSONParser().parse(new String(result.array(), StandardCharsets.UTF_8));
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Cannot read results journal: " + file, e);
+        }
+    }
+
+    public synchronized int size() {
+        openIfExists();
+        return positions.size();
+    }
+
+    /**
+     * Writes every result of the journal to a json file named like the result, as validations did before the journal.
+     */
+    public synchronized void exportJsonFiles(File directory) {
+        openIfExists();
+        directory.mkdirs();
+        for (String name : positions.keySet()) {
+            try {
+                Files.write(new File(directory, name).toPath(), read(name).toJSONString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot export json report: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Forgets the results, e.g. because they are reported, and deletes the journal if no results are left.
+     * The journal is created again by the next {@link #append(String, JSONObject)}.
+     */
+    public synchronized void remove(Collection<String> names) {
+        openIfExists();
+        positions.keySet().removeAll(names);
+        if (!positions.isEmpty()) {
+            return;
+        }
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot delete results journal: " + file, e);
+        }
+    }
+
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+            positions.clear();
+        }
+    }
+
+    private void openIfExists() {
+        if (channel == null && file.isFile()) {
+            try {
+                open();
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot open results journal: " + file, e);
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+            header.flip();
+            write(header, 0);
+            end = 4;
+        } else {
+            if (channel.size() < 4 || read(0, 4).getInt() != MAGIC) {
+                channel.close();
+                channel = null;
+                throw new IOException("Not a results journal: " + file);
+            }
+            scan();
+        }
+    }
+
+    private void scan() throws IOException {
+        long size = channel.size();
+        long position = 4;
+        while (position + 4 <= size) {
+            int nameLength = read(position, 4).getInt();
+            long resultPosition = position + 4 + nameLength;
+            if (nameLength < 0 || resultPosition + 4 > size) {
+                break;
+            }
+            int resultLength = read(resultPosition, 4).getInt();
+            long next = resultPosition + 4 + resultLength;
+            if (resultLength < 0 || next > size) {
+                break;
+            }
+            String name = new String(read(position + 4, nameLength).array(), StandardCharsets.UTF_8);
+            positions.put(name, position);
+            position = next;
+        }
+        end = position;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of results journal: " + file);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
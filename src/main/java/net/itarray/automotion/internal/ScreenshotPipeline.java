@@ -0,0 +1,71 @@
+package net.itarray.automotion.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the image work of deferred screenshots (decoding, writing the screenshot, rendering and encoding the drawings)
+ * on a small pool of daemon threads. The queue is bounded: if it is full, the validating thread does the work itself.
+ */
+public class ScreenshotPipeline {
+
+    private final ThreadPoolExecutor executor;
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    public ScreenshotPipeline(int threads, int capacity) {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "automotion-screenshots");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public synchronized <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return track(CompletableFuture.supplyAsync(task, executor));
+    }
+
+    public synchronized <T> CompletableFuture<Void> thenAccept(CompletableFuture<T> input, Consumer<T> task) {
+        return track(input.thenAcceptAsync(task, executor));
+    }
+
+    /**
+     * Waits until all work submitted so far is done.
+     *
+     * @throws RuntimeException if any of the work failed
+     */
+    public void awaitPending() {
+        List<CompletableFuture<?>> futures;
+        synchronized (this) {
+            futures = new ArrayList<>(pending);
+            pending.clear();
+        }
+        RuntimeException failure = null;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = new RuntimeException("Failed to write screenshot", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private <T extends CompletableFuture<?>> T track(T future) {
+        pending.add(future);
+        return future;
+    }
+}
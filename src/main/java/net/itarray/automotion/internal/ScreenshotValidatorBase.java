@@ -0,0 +1,125 @@
+package net.itarray.automotion.internal;
+
+import net.itarray.automotion.internal.Violation.Type;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.internal.properties.Context;
+import net.itarray.automotion.validation.ScreenshotValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.json.simple.JSONObject;
+import org.openqa.selenium.WebElement;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.itarray.automotion.internal.UIElement.asElement;
+
+public class ScreenshotValidatorBase extends ResponsiveUIValidatorBase implements ScreenshotValidator {
+
+    private final List<UIElement> ignoredElements = new ArrayList<>();
+    private int colorTolerance;
+    private boolean compared;
+
+    public ScreenshotValidatorBase(UISnapshot snapshot) {
+        super(snapshot);
+    }
+
+    @Override
+    public ScreenshotValidatorBase drawMap() {
+        super.drawMap();
+        return this;
+    }
+
+    @Override
+    public ScreenshotValidatorBase dontDrawMap() {
+        super.dontDrawMap();
+        return this;
+    }
+
+    @Override
+    public ScreenshotValidatorBase withColorTolerance(int colorTolerance) {
+        if (colorTolerance < 0 || colorTolerance > 255) {
+            throw new IllegalArgumentException("color tolerance has to be between 0 and 255: " + colorTolerance);
+        }
+        this.colorTolerance = colorTolerance;
+        return this;
+    }
+
+    @Override
+    public ScreenshotValidatorBase ignoring(WebElement element) {
+        ignoredElements.add(snapshot.asElement(element));
+        return this;
+    }
+
+    @Override
+    public ScreenshotValidatorBase ignoring(List<WebElement> elements) {
+        ignoredElements.addAll(snapshot.asElements(elements));
+        return this;
+    }
+
+    /**
+     * Compares the screenshot with the baseline, the differing regions are reported and drawn
+     *
+     * @return true if there are no differences
+     */
+    @Override
+    public boolean validate() {
+        if (!compared) {
+            compared = true;
+            compareWithBaseline();
+        }
+        return super.validate();
+    }
+
+    private void compareWithBaseline() {
+        BaselineStore baselines = getReport().getBaselines();
+        File baselineFile = snapshot.getBaselineFile();
+        BufferedImage screenshot = snapshot.getScreenshotImage();
+        BufferedImage baseline = baselines.load(baselineFile);
+        if (baseline == null) {
+            baselines.store(baselineFile, screenshot);
+            return;
+        }
+
+        SimpleTransform transform = getTransform();
+        List<Rectangle> ignoredRegions = new ArrayList<>();
+        for (UIElement element : ignoredElements) {
+            ignoredRegions.add(new Rectangle(
+                    transform.transformX(element.getX().intValue()),
+                    transform.transformY(element.getY().intValue()),
+                    (int) Math.ceil((element.getCorner().getX().intValue() + transform.xOffset) * transform.scaleFactor),
+                    (int) Math.ceil((element.getCorner().getY().intValue() + transform.yOffset) * transform.scaleFactor)));
+        }
+
+        Context context = getContext();
+        for (Rectangle region : new ImageDiff(colorTolerance, ignoredRegions).diff(baseline, screenshot)) {
+            UIElement difference = asElement(toPage(region, transform), "difference");
+            context.add(new Violation(Type.VISUAL, difference, null, region, null, () -> String.format("Screenshot differs from baseline %s at %s",
+                    baselineFile.getName(),
+                    difference.getBounds())));
+            context.draw(difference);
+        }
+    }
+
+    private static Rectangle toPage(Rectangle region, SimpleTransform transform) {
+        return new Rectangle(
+                (int) Math.floor(region.getOrigin().getX().intValue() / transform.scaleFactor) - transform.xOffset,
+                (int) Math.floor(region.getOrigin().getY().intValue() / transform.scaleFactor) - transform.yOffset,
+                (int) Math.ceil(region.getCorner().getX().intValue() / transform.scaleFactor) - transform.xOffset,
+                (int) Math.ceil(region.getCorner().getY().intValue() / transform.scaleFactor) - transform.yOffset);
+    }
+
+    @Override
+    protected String getNameOfToBeValidated() {
+        return "Screenshot";
+    }
+
+    @Override
+    protected void storeRootDetails(JSONObject rootDetails) {
+    }
+
+    @Override
+    protected void drawRootElement() {
+    }
+}
@@ -2,16 +2,31 @@ package net.itarray.automotion.internal;
 
 public class SimpleTransform {
 
+    public final int xOffset;
     public final int yOffset;
     public final double scaleFactor;
 
     public SimpleTransform(int yOffset, double scaleFactor) {
+        this(0, yOffset, scaleFactor);
+    }
+
+    public SimpleTransform(int xOffset, int yOffset, double scaleFactor) {
+        this.xOffset = xOffset;
         this.yOffset = yOffset;
         this.scaleFactor = scaleFactor;
     }
 
+    /**
+     * The offsets of this transform do not apply, the origin of the region screenshot is the page point (x, y).
+     *
+     * @return the transform into a screenshot of the region of the page starting at (x, y)
+     */
+    public SimpleTransform forRegionAt(int x, int y) {
+        return new SimpleTransform(-x, -y, scaleFactor);
+    }
+
     public int transformX(int x) {
-        return (int) (x * scaleFactor);
+        return (int) ((x + xOffset) * scaleFactor);
     }
 
     public int transformY(int y) {
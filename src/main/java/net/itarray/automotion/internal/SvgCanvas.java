@@ -0,0 +1,75 @@
+package net.itarray.automotion.internal;
+
+import java.awt.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records the drawings as an svg document of the screenshot's extend, a few hundred bytes instead of an image
+ * of the screenshot's size. The report shows it over the screenshot like a transparent png.
+ */
+public class SvgCanvas implements Canvas {
+
+    private final StringBuilder svg = new StringBuilder();
+    private String style = "";
+    private Color color = Color.BLACK;
+    private Stroke stroke = new BasicStroke(1);
+
+    public SvgCanvas(int width, int height) {
+        svg.append(String.format("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\" shape-rendering=\"crispEdges\">\n",
+                width, height, width, height));
+    }
+
+    @Override
+    public void setStroke(Stroke stroke) {
+        this.stroke = stroke;
+        style = null;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        this.color = color;
+        style = null;
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height) {
+        svg.append(String.format("<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\"%s/>\n", x, y, width, height, getStyle()));
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        svg.append(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\"%s/>\n", x1, y1, x2, y2, getStyle()));
+    }
+
+    public byte[] toBytes() {
+        return (svg + "</svg>\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String getStyle() {
+        if (style == null) {
+            StringBuilder attributes = new StringBuilder();
+            attributes.append(String.format(" stroke=\"#%06x\"", color.getRGB() & 0xFFFFFF));
+            if (color.getAlpha() < 255) {
+                attributes.append(String.format(java.util.Locale.ROOT, " stroke-opacity=\"%.3f\"", color.getAlpha() / 255.0));
+            }
+            if (stroke instanceof BasicStroke) {
+                BasicStroke basicStroke = (BasicStroke) stroke;
+                attributes.append(String.format(java.util.Locale.ROOT, " stroke-width=\"%s\"", number(basicStroke.getLineWidth())));
+                float[] dashes = basicStroke.getDashArray();
+                if (dashes != null) {
+                    StringBuilder dashArray = new StringBuilder();
+                    for (float dash : dashes) {
+                        dashArray.append(dashArray.length() == 0 ? "" : " ").append(number(dash));
+                    }
+                    attributes.append(String.format(" stroke-dasharray=\"%s\"", dashArray));
+                }
+            }
+            style = attributes.toString();
+        }
+        return style;
+    }
+
+    private static String number(float value) {
+        return value == (int) value ? String.valueOf((int) value) : String.valueOf(value);
+    }
+}
@@ -3,10 +3,14 @@ package net.itarray.automotion.internal;
 import java.awt.*;
 
 public class TransformedGraphics {
-    private final Graphics2D g;
+    private final Canvas g;
     private final SimpleTransform transform;
 
     public TransformedGraphics(Graphics2D g, SimpleTransform transform) {
+        this(Canvas.of(g), transform);
+    }
+
+    public TransformedGraphics(Canvas g, SimpleTransform transform) {
         this.g = g;
         this.transform = transform;
     }
@@ -7,7 +7,10 @@ import net.itarray.automotion.internal.geometry.Interval;
 import net.itarray.automotion.internal.geometry.Rectangle;
 import net.itarray.automotion.internal.geometry.Scalar;
 import net.itarray.automotion.internal.geometry.Vector;
+import net.itarray.automotion.internal.Violation.Type;
 import net.itarray.automotion.internal.properties.Context;
+import net.itarray.automotion.internal.properties.ContextBiFunction;
+import net.itarray.automotion.internal.properties.FrozenContext;
 import net.itarray.automotion.internal.properties.SuccessorConditionedExpressionDescription;
 import net.itarray.automotion.tools.general.SystemHelper;
 import net.itarray.automotion.tools.helpers.TextFinder;
@@ -19,13 +22,13 @@ import org.openqa.selenium.Point;
 import org.openqa.selenium.WebElement;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static net.itarray.automotion.internal.geometry.Direction.*;
 import static net.itarray.automotion.internal.geometry.Rectangle.ORIGIN_CORNER;
 import static net.itarray.automotion.internal.geometry.Scalar.scalar;
-import static net.itarray.automotion.validation.properties.Expression.equalTo;
 import static org.apache.commons.lang3.text.WordUtils.capitalize;
 
 public class UIElement {
@@ -48,6 +51,13 @@ public class UIElement {
         return rectangle;
     }
 
+    /**
+     * @return the rectangle of the element, for the geometry of the validations and the drawings
+     */
+    public Rectangle getBounds() {
+        return rectangle;
+    }
+
     public static UIElement asElement(WebElement webElement) {
         return new UIElement(defaultName(webElement), Rectangle.rectangle(webElement), new SeleniumCSSSource(webElement), true);
     }
@@ -56,14 +66,78 @@ public class UIElement {
         return new UIElement(name, Rectangle.rectangle(webElement), new SeleniumCSSSource(webElement), true);
     }
 
+    public static UIElement asElement(WebElement webElement, String name, CSSSource cssSource) {
+        return new UIElement(name, Rectangle.rectangle(webElement), cssSource, true);
+    }
+
     public static UIElement asElement(Rectangle rectangle, String name) {
         return new UIElement(name, rectangle, new NoCSSSource(), true);
     }
 
+    /**
+     * @param name the name of the element, null for a name made of its properties
+     */
+    public static UIElement asCapturedElement(String name, Rectangle rectangle, String tagName, String text, CSSSource cssSource) {
+        if (name == null) {
+            Vector origin = rectangle.getOrigin();
+            Vector extend = rectangle.getCorner().minus(origin);
+            name = defaultName(tagName, text, origin.getX().intValue(), origin.getY().intValue(), extend.getX().intValue(), extend.getY().intValue());
+        }
+        return new UIElement(name, rectangle, cssSource, true);
+    }
+
     public static List<UIElement> asElements(List<WebElement> webElements) {
         return webElements.stream().map(UIElement::asElement).collect(Collectors.toList());
     }
 
+    public static List<UIElement> asElements(List<WebElement> webElements, DriverFacade driver) {
+        return asElements(webElements, driver, null);
+    }
+
+    /**
+     * @param cssCache the css values of the elements are retrieved together from the cache, or per element if null
+     */
+    public static List<UIElement> asElements(List<WebElement> webElements, DriverFacade driver, CSSCache cssCache) {
+        if (webElements.size() > 1 && driver.canCaptureElements()) {
+            try {
+                return asCapturedElements(webElements, driver.captureElements(webElements), cssCache);
+            } catch (RuntimeException e) {
+                // fall back to querying every element on its own
+            }
+        }
+        if (cssCache == null) {
+            return asElements(webElements);
+        }
+        List<UIElement> elements = new ArrayList<>(webElements.size());
+        for (WebElement webElement : webElements) {
+            elements.add(new UIElement(defaultName(webElement), Rectangle.rectangle(webElement), cssCache.sourceFor(webElement, webElements), true));
+        }
+        return elements;
+    }
+
+    private static List<UIElement> asCapturedElements(List<WebElement> webElements, List<Object> captured, CSSCache cssCache) {
+        int stride = DriverFacade.CAPTURED_VALUES_PER_ELEMENT;
+        if (captured == null || captured.size() != webElements.size() * stride) {
+            throw new IllegalStateException("unexpected result of element capture: " + captured);
+        }
+        List<UIElement> elements = new ArrayList<>(webElements.size());
+        for (int i = 0; i < webElements.size(); i++) {
+            int offset = i * stride;
+            int x = ((Number) captured.get(offset)).intValue();
+            int y = ((Number) captured.get(offset + 1)).intValue();
+            int width = ((Number) captured.get(offset + 2)).intValue();
+            int height = ((Number) captured.get(offset + 3)).intValue();
+            String tagName = (String) captured.get(offset + 4);
+            String text = (String) captured.get(offset + 5);
+            elements.add(new UIElement(
+                    defaultName(tagName, text, x, y, width, height),
+                    new Rectangle(x, y, x + width, y + height),
+                    cssCache == null ? new SeleniumCSSSource(webElements.get(i)) : cssCache.sourceFor(webElements.get(i), webElements),
+                    true));
+        }
+        return elements;
+    }
+
     public static List<UIElement> asNumberedList(List<UIElement> elements) {
         ArrayList<UIElement> numbered = new ArrayList<>(elements.size());
         for (int i = 0; i < elements.size(); i++) {
@@ -76,13 +150,18 @@ public class UIElement {
     private static String defaultName(WebElement webElement) {
         Point location = webElement.getLocation();
         Dimension size = webElement.getSize();
+        return defaultName(webElement.getTagName(), webElement.getText(),
+                location.getX(), location.getY(), size.getWidth(), size.getHeight());
+    }
+
+    private static String defaultName(String tagName, String text, int x, int y, int width, int height) {
         return String.format("with properties: tag=[%s], text=[%s], coord=[%s,%s], size=[%s,%s]",
-                webElement.getTagName(),
-                getShortenedText(webElement.getText()),
-                String.valueOf(location.getX()),
-                String.valueOf(location.getY()),
-                String.valueOf(size.getWidth()),
-                String.valueOf(size.getHeight()));
+                tagName,
+                getShortenedText(text),
+                String.valueOf(x),
+                String.valueOf(y),
+                String.valueOf(width),
+                String.valueOf(height));
     }
 
     public <V extends MetricSpace<V>> V  getBegin(ExtendGiving<V>  direction) {
@@ -126,9 +205,14 @@ public class UIElement {
     }
 
     private <V extends MetricSpace<V>> boolean hasEqualExtendAs(UIElement other, ExtendGiving<V> direction, Context context) {
-        return equalTo(
-                extend(direction),
-                other.extend(direction)).evaluateIn(context, direction);
+        return isEqualWithTolerance(getExtend(direction), other.getExtend(direction), context);
+    }
+
+    /**
+     * Evaluates like {@link Expression#equalTo(Expression, Expression)}, but on values instead of expressions.
+     */
+    private static <V extends MetricSpace<V>> boolean isEqualWithTolerance(V value, V other, Context context) {
+        return value.minus(other).norm().isLessOrEqualTo(context.getTolerance());
     }
 
     public <V extends MetricSpace<V>> Expression<V> extend(ExtendGiving<V> direction) {
@@ -174,6 +258,20 @@ public class UIElement {
         );
     }
 
+    private boolean isOverlapping(UIElement other, Context context) {
+        return ContextBiFunction.lessThan.apply(getEnd(LEFT), other.getEnd(RIGHT), context) &&
+                ContextBiFunction.lessThan.apply(other.getEnd(LEFT), getEnd(RIGHT), context) &&
+                ContextBiFunction.lessThan.apply(getEnd(UP), other.getEnd(DOWN), context) &&
+                ContextBiFunction.lessThan.apply(other.getEnd(UP), getEnd(DOWN), context);
+    }
+
+    private boolean isNotOverlapping(UIElement other, Context context) {
+        return ContextBiFunction.greaterOrEqualTo.apply(getEnd(LEFT), other.getEnd(RIGHT), context) ||
+                ContextBiFunction.greaterOrEqualTo.apply(other.getEnd(LEFT), getEnd(RIGHT), context) ||
+                ContextBiFunction.greaterOrEqualTo.apply(getEnd(UP), other.getEnd(DOWN), context) ||
+                ContextBiFunction.greaterOrEqualTo.apply(other.getEnd(UP), getEnd(DOWN), context);
+    }
+
     public Expression<Boolean> notOverlaps(UIElement other) {
         return Expression.or(
                 Expression.or(
@@ -189,6 +287,10 @@ public class UIElement {
         return Expression.signedDistance(end(direction), page.end(direction), direction);
     }
 
+    private <V extends MetricSpace<V>> V getOffset(UIElement page, ExtendGiving<V> direction) {
+        return direction.signedDistance(getEnd(direction), page.getEnd(direction));
+    }
+
     @Deprecated
     private boolean hasSuccessor(Direction direction, UIElement possibleSuccessor) {
         return signedDistanceToSuccessor(direction, possibleSuccessor).isGreaterOrEqualTo(scalar(0));
@@ -234,11 +336,11 @@ public class UIElement {
 
     public boolean contains(UIElement other, Context context) {
         return
-                Condition.lessOrEqualTo(other.end(LEFT)).applyTo(end(LEFT)).evaluateIn(context, RIGHT) &&
-                Condition.lessOrEqualTo(end(RIGHT)).applyTo(other.end(RIGHT)).evaluateIn(context, RIGHT) &&
-                Condition.lessOrEqualTo(other.end(UP)).applyTo(end(UP)).evaluateIn(context, DOWN) &&
-                Condition.lessOrEqualTo(end(DOWN)).applyTo(other.end(DOWN)).evaluateIn(context, DOWN);
-}
+                ContextBiFunction.lessOrEqualTo.apply(getEnd(LEFT), other.getEnd(LEFT), context) &&
+                ContextBiFunction.lessOrEqualTo.apply(other.getEnd(RIGHT), getEnd(RIGHT), context) &&
+                ContextBiFunction.lessOrEqualTo.apply(getEnd(UP), other.getEnd(UP), context) &&
+                ContextBiFunction.lessOrEqualTo.apply(other.getEnd(DOWN), getEnd(DOWN), context);
+    }
 
     public void validateLeftAlignedWith(UIElement element, Context context) {
         validateEqualEnd(LEFT, element, context);
@@ -257,15 +359,13 @@ public class UIElement {
     }
 
     private <V extends MetricSpace<V>> void validateEqualEnd(ExtendGiving<V> direction, UIElement element, Context context) {
-        boolean valid = equalTo(
-                end(direction),
-                element.end(direction)
-        ).evaluateIn(context, direction);
-        if (!valid) {
-            context.add(String.format("Element %s has not the same %s offset as element %s",
+        V end = getEnd(direction);
+        V otherEnd = element.getEnd(direction);
+        if (!isEqualWithTolerance(end, otherEnd, context)) {
+            context.add(new Violation(Type.ALIGNMENT, this, element, end, otherEnd, () -> String.format("Element %s has not the same %s offset as element %s",
                                 getQuotedName(),
                                 direction.endName(),
-                                element.getQuotedName()));
+                                element.getQuotedName())));
             context.draw(element);
         }
     }
@@ -292,7 +392,7 @@ public class UIElement {
 
     public <V extends MetricSpace<V>> void validateSameExtend(ExtendGiving<V> direction, UIElement element, Context context) {
         if (!hasEqualExtendAs(element, direction, context)) {
-            context.add(String.format("Element %s has not the same %s as element %s. %s of %s is %s. %s of element is %s",
+            context.add(new Violation(Type.EQUAL_EXTENDS, this, element, getExtend(direction), element.getExtend(direction), () -> String.format("Element %s has not the same %s as element %s. %s of %s is %s. %s of element is %s",
                                 getQuotedName(),
                                 direction.extendName(),
                                 element.getQuotedName(),
@@ -300,14 +400,14 @@ public class UIElement {
                                 getQuotedName(),
                                 direction.extend(rectangle).toStringWithUnits(PIXELS),
                                 capitalize(direction.extendName()),
-                                direction.extend(element.rectangle).toStringWithUnits(PIXELS)));
+                                direction.extend(element.rectangle).toStringWithUnits(PIXELS))));
             context.draw(element);
         }
     }
 
     public <V extends MetricSpace<V>> void validateNotSameExtend(ExtendGiving<V> direction, UIElement element, Context context) {
         if (hasEqualExtendAs(element, direction, context)) {
-            context.add(String.format("Element %s has the same %s as element %s. %s of %s is %s. %s of element is %s",
+            context.add(new Violation(Type.DIFFERENT_EXTENDS, this, element, getExtend(direction), element.getExtend(direction), () -> String.format("Element %s has the same %s as element %s. %s of %s is %s. %s of element is %s",
                                 getQuotedName(),
                                 direction.extendName(),
                                 element.getQuotedName(),
@@ -315,7 +415,7 @@ public class UIElement {
                                 getQuotedName(),
                                 direction.extend(rectangle).toStringWithUnits(PIXELS),
                                 capitalize(direction.extendName()),
-                                direction.extend(element.rectangle).toStringWithUnits(PIXELS)));
+                                direction.extend(element.rectangle).toStringWithUnits(PIXELS))));
             context.draw(element);
         }
     }
@@ -342,29 +442,33 @@ public class UIElement {
     }
 
     public <V extends MetricSpace<V>> void validateSuccessor(ExtendGiving<V> direction, UIElement toBeValidatedSuccessor, Condition<V> condition, Context context) {
-        Expression<V> signedDistance = Expression.signedDistance(end(direction), toBeValidatedSuccessor.begin(direction), direction);
-        Expression<Boolean> assertion = condition.applyTo(signedDistance, new SuccessorConditionedExpressionDescription<>(signedDistance, condition, direction));
-        if (!assertion.evaluateIn(context, direction)) {
-            context.add(assertion.getDescription(context, direction));
+        V distance = direction.signedDistance(getEnd(direction), toBeValidatedSuccessor.getBegin(direction));
+        if (!condition.isSatisfiedBy(distance, context, direction)) {
+            Context frozen = FrozenContext.of(context);
+            context.add(new Violation(Type.SUCCESSOR, this, toBeValidatedSuccessor, distance, condition, () -> {
+                Expression<V> signedDistance = Expression.signedDistance(end(direction), toBeValidatedSuccessor.begin(direction), direction);
+                Expression<Boolean> assertion = condition.applyTo(signedDistance, new SuccessorConditionedExpressionDescription<>(signedDistance, condition, direction));
+                return assertion.getDescription(frozen, direction);
+            }));
             context.draw(toBeValidatedSuccessor);
         }
     }
 
 
     public void validateOverlappingWithElement(UIElement element, Context context) {
-        if (!overlaps(element).evaluateIn(context, DOWN)) {
-            context.add(String.format("Element %s is not overlapped with element %s but should be",
+        if (!isOverlapping(element, context)) {
+            context.add(new Violation(Type.OVERLAPPING, this, element, null, true, () -> String.format("Element %s is not overlapped with element %s but should be",
                                 getQuotedName(),
-                                element.getQuotedName()));
+                                element.getQuotedName())));
             context.draw(element);
         }
     }
 
     public boolean validateNotOverlappingWithElement(UIElement element, Context context) {
-        if (!notOverlaps(element).evaluateIn(context, DOWN)) {
-            context.add(String.format("Element %s is overlapped with element %s but should not",
+        if (!isNotOverlapping(element, context)) {
+            context.add(new Violation(Type.OVERLAPPING, this, element, null, false, () -> String.format("Element %s is overlapped with element %s but should not",
                                 getQuotedName(),
-                                element.getQuotedName()));
+                                element.getQuotedName())));
             context.draw(element);
             return false;
         }
@@ -388,15 +492,16 @@ public class UIElement {
     }
 
     public void validateOffset(Direction direction, Condition condition, UIElement page, Context context) {
-        Expression<Scalar> offset = offset(page, direction);
-        if (!condition.isSatisfiedOn(offset, context, direction)) {
-            context.add(
+        Scalar offset = getOffset(page, direction);
+        if (!condition.isSatisfiedBy(offset, context, direction)) {
+            Context frozen = FrozenContext.of(context);
+            context.add(new Violation(Type.OFFSET, this, page, offset, condition, () ->
                     String.format("Expected %s offset of element %s to be %s. Actual %s offset is: %s",
                             direction.endName(),
                             getQuotedName(),
-                            condition.getDescription(context, direction),
+                            condition.getDescription(frozen, direction),
                             direction.endName(),
-                            offset.evaluateIn(context, direction).toStringWithUnits(PIXELS)));
+                            offset.toStringWithUnits(PIXELS))));
         }
     }
 
@@ -410,18 +515,17 @@ public class UIElement {
 
     private void validateCentered(Direction direction, UIElement page, Context context) {
         Direction opposite = direction.opposite();
-        Expression<Scalar> offset = offset(page, direction);
-        Expression<Scalar> oppositeOffset = offset(page, opposite);
-        Expression<Boolean> expression = equalTo(offset, oppositeOffset);
-        if (!expression.evaluateIn(context, direction)) {
-            context.add(String.format("Element %s has not equal %s and %s offset. %s offset is %s, %s is %s",
+        Scalar offset = getOffset(page, direction);
+        Scalar oppositeOffset = getOffset(page, opposite);
+        if (!isEqualWithTolerance(offset, oppositeOffset, context)) {
+            context.add(new Violation(Type.CENTERING, this, page, offset, oppositeOffset, () -> String.format("Element %s has not equal %s and %s offset. %s offset is %s, %s is %s",
                                 getQuotedName(),
                                 opposite.endName(),
                                 direction.endName(),
                                 capitalize(opposite.endName()),
-                                oppositeOffset.evaluateIn(context, opposite).toStringWithUnits(PIXELS),
+                                oppositeOffset.toStringWithUnits(PIXELS),
                                 direction.endName(),
-                                offset.evaluateIn(context, direction).toStringWithUnits(PIXELS)));
+                                offset.toStringWithUnits(PIXELS))));
             context.draw(this);
         }
     }
@@ -435,10 +539,11 @@ public class UIElement {
     }
 
     private void validateExtend(Direction direction, Condition<Scalar> condition, Context context) {
-        Expression<Boolean> assertion = condition.applyTo(extend(direction));
-        if (!assertion.evaluateIn(context, direction)) {
-            context.add(
-                    assertion.getDescription(context, direction));
+        Scalar extend = getExtend(direction);
+        if (!condition.isSatisfiedBy(extend, context, direction)) {
+            Context frozen = FrozenContext.of(context);
+            context.add(new Violation(Type.EXTEND, this, null, extend, condition, () ->
+                    condition.applyTo(extend(direction)).getDescription(frozen, direction)));
         }
     }
 
@@ -447,16 +552,16 @@ public class UIElement {
 
         if (!cssValue.equals("")) {
             for (String val : args) {
-                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
-                if (TextFinder.textIsFound(val, cssValue)) {
-                    context.add(String.format("CSS property '%s' should not contain value '%s'. Actual value is '%s'", cssProperty, val, cssValue));
+                String value = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
+                if (TextFinder.textIsFound(value, cssValue)) {
+                    context.add(new Violation(Type.CSS, this, null, cssValue, value, () -> String.format("CSS property '%s' should not contain value '%s'. Actual value is '%s'", cssProperty, value, cssValue)));
                 }
             }
         } else {
-            context.add(
+            context.add(new Violation(Type.CSS, this, null, null, cssProperty, () ->
                     String.format("Element %s does not have css property '%s'",
                             getQuotedName(),
-                            cssProperty));
+                            cssProperty)));
         }
     }
 
@@ -465,24 +570,24 @@ public class UIElement {
 
         if (!cssValue.equals("")) {
             for (String val : args) {
-                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
-                if (!TextFinder.textIsFound(val, cssValue)) {
-                    context.add(String.format("Expected value of '%s' is '%s'. Actual value is '%s'", cssProperty, val, cssValue));
+                String value = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
+                if (!TextFinder.textIsFound(value, cssValue)) {
+                    context.add(new Violation(Type.CSS, this, null, cssValue, value, () -> String.format("Expected value of '%s' is '%s'. Actual value is '%s'", cssProperty, value, cssValue)));
                 }
             }
         } else {
-            context.add(
+            context.add(new Violation(Type.CSS, this, null, null, cssProperty, () ->
                     String.format("Element %s does not have css property '%s'",
                             getQuotedName(),
-                            cssProperty));
+                            cssProperty)));
         }
     }
 
     public void validateInsideOfContainer(UIElement containerElement, Context context) {
         if (!containerElement.contains(this, context)) {
-            context.add(String.format("Element '%s' is not inside of '%s'",
+            context.add(new Violation(Type.INSIDE, this, containerElement, null, null, () -> String.format("Element '%s' is not inside of '%s'",
                                 getName(),
-                                containerElement.getName()));
+                                containerElement.getName())));
             context.draw(containerElement);
         }
     }
@@ -496,11 +601,11 @@ public class UIElement {
                 getCorner().plus(cornerPadding)),
                 "padded root");
 
-        Vector originOffset = getOrigin().minus(element.getOrigin());
-        Vector cornerOffset = getCorner().minus(element.getCorner());
-
         if (!element.contains(paddedRoot, context)) {
-            context.add(String.format("Padding of element %s is incorrect. Expected padding: top[%s], right[%s], bottom[%s], left[%s]. Actual padding: top[%s], right[%s], bottom[%s], left[%s]",
+            Vector originOffset = getOrigin().minus(element.getOrigin());
+            Vector cornerOffset = getCorner().minus(element.getCorner());
+            context.add(new Violation(Type.PADDING, this, element,
+                    Arrays.asList(originOffset, cornerOffset), Arrays.asList(originPadding, cornerPadding), () -> String.format("Padding of element %s is incorrect. Expected padding: top[%s], right[%s], bottom[%s], left[%s]. Actual padding: top[%s], right[%s], bottom[%s], left[%s]",
                                 getQuotedName(),
                                 originPadding.getY(),
                                 cornerPadding.getX(),
@@ -509,7 +614,7 @@ public class UIElement {
                                 originOffset.getY(),
                                 cornerOffset.getX(),
                                 cornerOffset.getY(),
-                                originOffset.getX()));
+                                originOffset.getX())));
             context.draw(element);
         }
     }
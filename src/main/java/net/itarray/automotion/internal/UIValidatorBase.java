@@ -11,7 +11,6 @@ import net.itarray.automotion.validation.properties.Condition;
 import net.itarray.automotion.validation.properties.Expression;
 import net.itarray.automotion.validation.properties.Padding;
 import org.json.simple.JSONObject;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
@@ -19,8 +18,6 @@ import java.util.List;
 import static net.itarray.automotion.internal.geometry.Scalar.scalar;
 import static net.itarray.automotion.validation.properties.Expression.percentOrPixels;
 import static net.itarray.automotion.validation.Constants.*;
-import static net.itarray.automotion.internal.UIElement.asElement;
-import static net.itarray.automotion.internal.UIElement.asElements;
 import static net.itarray.automotion.internal.properties.PercentReference.PAGE;
 import static net.itarray.automotion.validation.properties.Condition.greaterOrEqualTo;
 import static net.itarray.automotion.validation.properties.Condition.lessOrEqualTo;
@@ -34,15 +31,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
 
 
     public UIValidatorBase(UISnapshot snapshot, WebElement webElement, String readableNameOfElement) {
-        super(snapshot);
-        if (!getDriver().isAppiumContext()) {
-            try {
-                //((JavascriptExecutor) getDriver().getDriver()).executeScript("arguments[0].scrollIntoView();", webElement);
-                //((JavascriptExecutor) getDriver().getDriver()).executeScript("javascript:window.scrollBy(0,250);");
-                ((JavascriptExecutor) getDriver().getDriver()).executeScript("document.documentElement.style.overflow = 'hidden'");
-            } catch (Exception e) {}
-        }
-        this.rootElement = asElement(webElement, readableNameOfElement);
+        super(snapshot); // retrieving the page metrics also hides the scrollbars
+        this.rootElement = snapshot.asElement(webElement, readableNameOfElement);
         doSnapshot();
     }
 
@@ -86,7 +76,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     }
 
     public UIValidatorBase isRightOf(WebElement element, Condition<Scalar> distanceCondition) {
-        rootElement.validateIsRightOf(asElement(element), distanceCondition, getContext());
+        rootElement.validateIsRightOf(snapshot.asElement(element), distanceCondition, getContext());
         return this;
     }
 
@@ -102,7 +92,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     }
 
     public UIValidatorBase isLeftOf(WebElement element, Condition<Scalar> distanceCondition) {
-        rootElement.validateIsLeftOf(asElement(element), distanceCondition, getContext());
+        rootElement.validateIsLeftOf(snapshot.asElement(element), distanceCondition, getContext());
         return this;
     }
 
@@ -126,7 +116,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     }
 
     public UIValidatorBase isBelow(WebElement element, Condition<Scalar> distanceCondition) {
-        rootElement.validateIsBelow(asElement(element), distanceCondition, getContext());
+        rootElement.validateIsBelow(snapshot.asElement(element), distanceCondition, getContext());
         return this;
     }
 
@@ -142,7 +132,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     }
 
     public UIValidatorBase isAbove(WebElement element, Condition<Scalar> distanceCondition) {
-        rootElement.validateIsAbove(asElement(element), distanceCondition, getContext());
+        rootElement.validateIsAbove(snapshot.asElement(element), distanceCondition, getContext());
         return this;
     }
 
@@ -155,7 +145,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase isNotOverlapping(WebElement element, String readableName) {
-        rootElement.validateNotOverlappingWithElement(asElement(element, readableName), getContext());
+        rootElement.validateNotOverlappingWithElement(snapshot.asElement(element, readableName), getContext());
         return this;
     }
 
@@ -168,7 +158,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase isOverlapping(WebElement element, String readableName) {
-        rootElement.validateOverlappingWithElement(asElement(element, readableName), getContext());
+        rootElement.validateOverlappingWithElement(snapshot.asElement(element, readableName), getContext());
         return this;
     }
 
@@ -180,8 +170,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase isNotOverlapping(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            rootElement.validateNotOverlappingWithElement(asElement(element), getContext());
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateNotOverlappingWithElement(element, getContext());
         }
         return this;
     }
@@ -196,7 +186,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isLeftAlignedWith(WebElement element, String readableName) {
         Context context = getContext();
-        rootElement.validateLeftAlignedWith(asElement(element, readableName), context);
+        rootElement.validateLeftAlignedWith(snapshot.asElement(element, readableName), context);
         context.drawVerticalLine(rootElement.getOrigin());
         return this;
     }
@@ -210,7 +200,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isLeftAlignedWith(List<WebElement> webElements) {
         Context context = getContext();
-        for (UIElement element : asElements(webElements)) {
+        for (UIElement element : snapshot.asElements(webElements)) {
             rootElement.validateLeftAlignedWith(element, context);
         }
         context.drawVerticalLine(rootElement.getOrigin());
@@ -227,7 +217,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isRightAlignedWith(WebElement element, String readableName) {
         Context context = getContext();
-        rootElement.validateRightAlignedWith(asElement(element, readableName), context);
+        rootElement.validateRightAlignedWith(snapshot.asElement(element, readableName), context);
         context.drawVerticalLine(rootElement.getCorner());
         return this;
     }
@@ -241,8 +231,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isRightAlignedWith(List<WebElement> elements) {
         Context context = getContext();
-        for (WebElement element : elements) {
-            rootElement.validateRightAlignedWith(asElement(element), context);
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateRightAlignedWith(element, context);
         }
         context.drawVerticalLine(rootElement.getCorner());
         return this;
@@ -258,7 +248,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isTopAlignedWith(WebElement element, String readableName) {
         Context context = getContext();
-        rootElement.validateTopAlignedWith(asElement(element, readableName), context);
+        rootElement.validateTopAlignedWith(snapshot.asElement(element, readableName), context);
         context.drawHorizontalLine(rootElement.getOrigin());
         return this;
     }
@@ -272,8 +262,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isTopAlignedWith(List<WebElement> elements) {
         Context context = getContext();
-        for (WebElement element : elements) {
-            rootElement.validateTopAlignedWith(asElement(element), context);
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateTopAlignedWith(element, context);
         }
         context.drawHorizontalLine(rootElement.getOrigin());
         return this;
@@ -289,7 +279,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isBottomAlignedWith(WebElement element, String readableName) {
         Context context = getContext();
-        rootElement.validateBottomAlignedWith(asElement(element, readableName), context);
+        rootElement.validateBottomAlignedWith(snapshot.asElement(element, readableName), context);
         context.drawHorizontalLine(rootElement.getCorner());
         return this;
     }
@@ -303,8 +293,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
     @Override
     public UIValidatorBase isBottomAlignedWith(List<WebElement> elements) {
         Context context = getContext();
-        for (WebElement element : elements) {
-            rootElement.validateBottomAlignedWith(asElement(element), context);
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateBottomAlignedWith(element, context);
         }
         context.drawHorizontalLine(rootElement.getCorner());
         return this;
@@ -319,7 +309,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualWidthAs(WebElement element, String readableName) {
-        rootElement.validateSameWidth(asElement(element, readableName), getContext());
+        rootElement.validateSameWidth(snapshot.asElement(element, readableName), getContext());
         return this;
     }
 
@@ -331,8 +321,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualWidthAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            rootElement.validateSameWidth(asElement(element), getContext());
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateSameWidth(element, getContext());
         }
         return this;
     }
@@ -351,7 +341,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualHeightAs(WebElement element, String readableName) {
-        rootElement.validateSameHeight(asElement(element, readableName), getContext());
+        rootElement.validateSameHeight(snapshot.asElement(element, readableName), getContext());
         return this;
     }
 
@@ -363,8 +353,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualHeightAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            rootElement.validateSameHeight(asElement(element), getContext());
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateSameHeight(element, getContext());
         }
         return this;
     }
@@ -383,7 +373,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualSizeAs(WebElement element, String readableName) {
-        rootElement.validateSameSize(asElement(element, readableName), getContext());
+        rootElement.validateSameSize(snapshot.asElement(element, readableName), getContext());
         return this;
     }
 
@@ -395,8 +385,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasEqualSizeAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            rootElement.validateSameSize(asElement(element), getContext());
+        for (UIElement element : snapshot.asElements(elements)) {
+            rootElement.validateSameSize(element, getContext());
         }
         return this;
     }
@@ -410,7 +400,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasDifferentSizeAs(WebElement element, String readableName) {
-        validateNotSameSize(asElement(element, readableName));
+        validateNotSameSize(snapshot.asElement(element, readableName));
         return this;
     }
 
@@ -422,8 +412,8 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase hasDifferentSizeAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateNotSameSize(asElement(element));
+        for (UIElement element : snapshot.asElements(elements)) {
+            validateNotSameSize(element);
         }
         return this;
     }
@@ -564,7 +554,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
      */
     @Override
     public UIValidatorBase isInsideOf(WebElement containerElement, String readableContainerName) {
-        rootElement.validateInsideOfContainer(asElement(containerElement, readableContainerName), getContext());
+        rootElement.validateInsideOfContainer(snapshot.asElement(containerElement, readableContainerName), getContext());
         return this;
     }
 
@@ -575,7 +565,7 @@ public class UIValidatorBase extends ResponsiveUIValidatorBase implements UIElem
         Scalar right = percentOrPixels(padding.getRight()).evaluateIn(getContext(), Direction.RIGHT);
         Scalar bottom = percentOrPixels(padding.getBottom()).evaluateIn(getContext(), Direction.DOWN);
 
-        rootElement.validateInsideOfContainer(asElement(containerElement, readableContainerName), getContext(), top, left, right, bottom);
+        rootElement.validateInsideOfContainer(snapshot.asElement(containerElement, readableContainerName), getContext(), top, left, right, bottom);
         return this;
     }
 
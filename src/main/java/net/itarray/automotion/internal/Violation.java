@@ -0,0 +1,92 @@
+package net.itarray.automotion.internal;
+
+import java.util.function.Supplier;
+
+/**
+ * A failed check: what was checked, the elements involved, the measured and the expected value.
+ * <p>
+ * The message of a violation is rendered only when it is asked for (by {@link Errors#getLastMessage()} or
+ * when the report is written), so checks on broken pages do not spend their time formatting messages.
+ */
+public class Violation {
+
+    public enum Type {
+        ALIGNMENT,
+        CENTERING,
+        CSS,
+        DIFFERENT_EXTENDS,
+        EQUAL_EXTENDS,
+        EXTEND,
+        GRID,
+        INSIDE,
+        OFFSET,
+        OVERLAPPING,
+        PADDING,
+        SUCCESSOR,
+        VISUAL,
+        MESSAGE
+    }
+
+    private final Type type;
+    private final UIElement element;
+    private final UIElement other;
+    private final Object measured;
+    private final Object expected;
+    private Supplier<String> renderer;
+    private String message;
+
+    /**
+     * @param element  the validated element, or null
+     * @param other    the element the validated element was compared with, or null
+     * @param measured the measured value, or null
+     * @param expected the expected value or condition, or null
+     * @param renderer renders the message, called at most once
+     */
+    public Violation(Type type, UIElement element, UIElement other, Object measured, Object expected, Supplier<String> renderer) {
+        this.type = type;
+        this.element = element;
+        this.other = other;
+        this.measured = measured;
+        this.expected = expected;
+        this.renderer = renderer;
+    }
+
+    public static Violation message(String message) {
+        Violation violation = new Violation(Type.MESSAGE, null, null, null, null, null);
+        violation.message = message;
+        return violation;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UIElement getElement() {
+        return element;
+    }
+
+    public UIElement getOther() {
+        return other;
+    }
+
+    public Object getMeasured() {
+        return measured;
+    }
+
+    public Object getExpected() {
+        return expected;
+    }
+
+    public synchronized String getMessage() {
+        if (message == null) {
+            message = renderer.get();
+            renderer = null;
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -24,6 +24,13 @@ public class ZoomImpl implements Zoom {
         return new ZoomImpl(percentage);
     }
 
+    /**
+     * @param zoom the zoom of the page, e.g. "150%"
+     */
+    public static Zoom of(String zoom) {
+        return of(Integer.parseInt(zoom.replace("%", "")));
+    }
+
     @Override
     public int hashCode() {
         return Integer.hashCode(percentage);
@@ -29,7 +29,6 @@ public class ZoomUnknown implements Zoom {
     }
 
     public Zoom queryIfUnknown(DriverFacade driver) {
-        int percentage = Integer.parseInt(driver.getZoom().replace("%", ""));
-        return ZoomImpl.of(percentage);
+        return ZoomImpl.of(driver.getZoom());
     }
 }
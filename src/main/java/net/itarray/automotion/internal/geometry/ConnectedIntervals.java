@@ -38,10 +38,20 @@ public class ConnectedIntervals {
     }
 
     public int indexOf(Interval interval) {
-        for (int i = 0; i < components.size(); i++) {
-            Interval component = components.get(i);
+        // components are sorted and disjoint
+        Comparator<Interval> comparator = Interval.comparator();
+        int low = 0;
+        int high = components.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Interval component = components.get(middle);
             if (!component.intersect(interval).isEmpty()) {
-                return i;
+                return middle;
+            }
+            if (comparator.compare(component, interval) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
             }
         }
         throw new RuntimeException(format("interval %s is not in connected intervals", interval));
@@ -0,0 +1,101 @@
+package net.itarray.automotion.internal.geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Groups objects whose vectors are equal within a tolerance, without comparing every pair.
+ * <p>
+ * The groups are the connected components of the objects: an object joins the group of every object it equals,
+ * so a group can span more than the tolerance (with a tolerance of 2, the extends 10, 12 and 14 form one group).
+ * Distinct vectors are hashed into square buckets with an edge of {@code tolerance + 1}, so an object is only compared
+ * with the distinct vectors in the same and in the neighbouring buckets; objects with the same vector are joined directly.
+ */
+public class EqualityGroups<T> {
+
+    private final List<List<T>> groups;
+
+    public EqualityGroups(List<T> objects, Function<T, Vector> property, Scalar tolerance) {
+        int bucketSize = tolerance.intValue() + 1;
+        int[] parents = new int[objects.size()];
+        Map<Vector, Integer> distinct = new HashMap<>();
+        List<Vector> values = new ArrayList<>();
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+
+        for (int index = 0; index < objects.size(); index++) {
+            parents[index] = index;
+            Vector value = property.apply(objects.get(index));
+            values.add(value);
+            Integer same = distinct.putIfAbsent(value, index);
+            if (same != null) {
+                union(parents, same, index);
+                continue;
+            }
+            int bucketX = Math.floorDiv(floor(value.getX()), bucketSize);
+            int bucketY = Math.floorDiv(floor(value.getY()), bucketSize);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    List<Integer> neighbours = buckets.get(key(bucketX + dx, bucketY + dy));
+                    if (neighbours == null) {
+                        continue;
+                    }
+                    for (int neighbour : neighbours) {
+                        if (value.minus(values.get(neighbour)).norm().isLessOrEqualTo(tolerance)) {
+                            union(parents, neighbour, index);
+                        }
+                    }
+                }
+            }
+            buckets.computeIfAbsent(key(bucketX, bucketY), k -> new ArrayList<>()).add(index);
+        }
+
+        Map<Integer, List<T>> components = new LinkedHashMap<>();
+        for (int index = 0; index < objects.size(); index++) {
+            components.computeIfAbsent(find(parents, index), root -> new ArrayList<>()).add(objects.get(index));
+        }
+        groups = new ArrayList<>();
+        for (List<T> group : components.values()) {
+            if (group.size() > 1) {
+                groups.add(group);
+            }
+        }
+    }
+
+    /**
+     * @return the groups with more than one object, in order of their first object
+     */
+    public List<List<T>> getGroups() {
+        return groups;
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * Joins the groups of both objects, the root is always the first object of the group.
+     */
+    private static void union(int[] parents, int first, int second) {
+        int firstRoot = find(parents, first);
+        int secondRoot = find(parents, second);
+        if (firstRoot != secondRoot) {
+            parents[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+
+    private static int floor(Scalar scalar) {
+        return scalar.isIntegral() ? scalar.intValue() : (int) Math.floor(scalar.fractionValue().doubleValue());
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) ^ (y & 0xffffffffL);
+    }
+}
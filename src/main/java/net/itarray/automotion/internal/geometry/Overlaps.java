@@ -0,0 +1,195 @@
+package net.itarray.automotion.internal.geometry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static net.itarray.automotion.internal.geometry.Direction.DOWN;
+import static net.itarray.automotion.internal.geometry.Direction.RIGHT;
+import static net.itarray.automotion.internal.geometry.Interval.interval;
+
+/**
+ * Finds all pairs of overlapping objects without comparing every pair.
+ * <p>
+ * Two rectangles overlap if they share more than {@code tolerance} in both directions.
+ * The objects are split into the connected components of their horizontal extends first
+ * (objects of different components cannot overlap), then every component is swept from top to bottom
+ * keeping only the objects that are still vertically intersected by the sweep line, ordered by their vertical end
+ * so that the objects the sweep line leaves behind come off the front, and by their left edge
+ * so that every object is compared only with the objects near it horizontally.
+ * Objects that are not wider or higher than the tolerance are looked up in a {@link SpatialIndex}
+ * and compared only with the objects they touch.
+ */
+public class Overlaps<T> {
+
+    private final List<T> objects;
+    private final Function<T, Rectangle> rectangle;
+    private final Scalar tolerance;
+
+    public Overlaps(List<T> objects, Function<T, Rectangle> rectangle, Scalar tolerance) {
+        this.objects = objects;
+        this.rectangle = rectangle;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Reports every overlapping pair exactly once. The object that comes first in the list is passed first.
+     */
+    public void forEachOverlappingPair(BiConsumer<T, T> consumer) {
+        List<Entry> regular = new ArrayList<>();
+        List<Entry> degenerated = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            Entry entry = new Entry(i, rectangle.apply(objects.get(i)));
+            if (entry.isDegenerated()) {
+                degenerated.add(entry);
+            } else {
+                regular.add(entry);
+            }
+        }
+
+        for (List<Entry> component : horizontalComponents(regular)) {
+            sweepDown(component, consumer);
+        }
+
+        if (degenerated.isEmpty()) {
+            return;
+        }
+        List<Entry> all = new ArrayList<>(regular);
+        all.addAll(degenerated);
+        SpatialIndex<Entry> index = new SpatialIndex<>(all, entry -> entry.rectangle);
+        for (Entry entry : degenerated) {
+            for (Entry other : index.touching(entry.rectangle)) {
+                if (other != entry && !(other.isDegenerated() && other.index < entry.index)) {
+                    report(entry, other, consumer);
+                }
+            }
+        }
+    }
+
+    private List<List<Entry>> horizontalComponents(List<Entry> entries) {
+        List<Interval> xIntervals = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            xIntervals.add(entry.xInterval);
+        }
+        ConnectedIntervals columns = new ConnectedIntervals(xIntervals);
+        List<List<Entry>> components = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            components.add(new ArrayList<>());
+        }
+        for (Entry entry : entries) {
+            components.get(columns.indexOf(entry.xInterval)).add(entry);
+        }
+        return components;
+    }
+
+    private void sweepDown(List<Entry> component, BiConsumer<T, T> consumer) {
+        component.sort(Comparator.comparing(entry -> entry.top));
+        PriorityQueue<Entry> active = new PriorityQueue<>(Comparator.comparing(entry -> entry.yEnd));
+        ActiveEntries byLeft = new ActiveEntries();
+        for (Entry entry : component) {
+            while (!active.isEmpty() && active.peek().yEnd.isLessOrEqualTo(entry.top)) {
+                byLeft.remove(active.poll());
+            }
+            byLeft.forEachIntersecting(entry, candidate -> report(candidate, entry, consumer));
+            active.add(entry);
+            byLeft.add(entry);
+        }
+    }
+
+    private void report(Entry entry, Entry other, BiConsumer<T, T> consumer) {
+        if (!entry.overlaps(other)) {
+            return;
+        }
+        if (entry.index < other.index) {
+            consumer.accept(objects.get(entry.index), objects.get(other.index));
+        } else {
+            consumer.accept(objects.get(other.index), objects.get(entry.index));
+        }
+    }
+
+    /**
+     * The entries the sweep line intersects, ordered by their left edge and grouped by the power of two
+     * above their width. An entry can only intersect the entries of a group whose left edge lies within that power of two
+     * to its left, so neither a row of entries nor a single wide entry makes every entry of the row a candidate.
+     */
+    private class ActiveEntries {
+        private final List<TreeMap<Scalar, List<Entry>>> byWidth = new ArrayList<>();
+
+        private void add(Entry entry) {
+            int widthClass = widthClass(entry);
+            while (byWidth.size() <= widthClass) {
+                byWidth.add(new TreeMap<>());
+            }
+            byWidth.get(widthClass).computeIfAbsent(entry.left, left -> new ArrayList<>()).add(entry);
+        }
+
+        private void remove(Entry entry) {
+            TreeMap<Scalar, List<Entry>> byLeft = byWidth.get(widthClass(entry));
+            List<Entry> entries = byLeft.get(entry.left);
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                byLeft.remove(entry.left);
+            }
+        }
+
+        private void forEachIntersecting(Entry entry, Consumer<Entry> consumer) {
+            for (int widthClass = 0; widthClass < byWidth.size(); widthClass++) {
+                TreeMap<Scalar, List<Entry>> byLeft = byWidth.get(widthClass);
+                if (byLeft.isEmpty()) {
+                    continue;
+                }
+                Scalar from = entry.left.minus(1 << widthClass);
+                for (List<Entry> entries : byLeft.subMap(from, false, entry.xEnd, false).values()) {
+                    for (Entry candidate : entries) {
+                        if (entry.left.isLessThan(candidate.xEnd)) {
+                            consumer.accept(candidate);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the exponent of the smallest power of two that is larger than the width of the entry
+         */
+        private int widthClass(Entry entry) {
+            return Integer.SIZE - Integer.numberOfLeadingZeros(entry.xEnd.minus(entry.left).intValue());
+        }
+    }
+
+    private class Entry {
+        private final int index;
+        private final Rectangle rectangle;
+        private final Scalar left;
+        private final Scalar top;
+        private final Scalar xEnd;
+        private final Scalar yEnd;
+        private final Interval xInterval;
+        private final Interval yInterval;
+
+        private Entry(int index, Rectangle rectangle) {
+            this.index = index;
+            this.rectangle = rectangle;
+            this.left = RIGHT.begin(rectangle);
+            this.top = DOWN.begin(rectangle);
+            this.xEnd = RIGHT.end(rectangle).minus(tolerance);
+            this.yEnd = DOWN.end(rectangle).minus(tolerance);
+            this.xInterval = interval(left, xEnd);
+            this.yInterval = interval(top, yEnd);
+        }
+
+        private boolean isDegenerated() {
+            return xInterval.isEmpty() || yInterval.isEmpty();
+        }
+
+        private boolean overlaps(Entry other) {
+            return left.isLessThan(other.xEnd) && other.left.isLessThan(xEnd)
+                    && top.isLessThan(other.yEnd) && other.top.isLessThan(yEnd);
+        }
+    }
+}
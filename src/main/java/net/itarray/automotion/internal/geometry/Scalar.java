@@ -4,54 +4,93 @@ import net.itarray.automotion.internal.properties.Context;
 import net.itarray.automotion.validation.properties.Condition;
 import org.apache.commons.math3.fraction.Fraction;
 
+/**
+ * A scalar value in pixels.
+ * <p>
+ * Page coordinates are integers almost always, so integral values are kept in a plain {@code int}.
+ * A {@link Fraction} is only used for values that are not integral (e.g. results of percentage calculations).
+ */
 public class Scalar implements MetricSpace<Scalar>, Comparable<Scalar> {
-    private final Fraction fraction;
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 2048;
+    private static final Scalar[] CACHE = new Scalar[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Scalar(i + CACHE_LOW);
+        }
+    }
+
+    private final int value;
+    private final Fraction fraction; // null for integral values
 
     private Scalar(int value) {
-        fraction = new Fraction(value);
+        this.value = value;
+        this.fraction = null;
     }
 
     private Scalar(Fraction fraction) {
+        this.value = 0;
         this.fraction = fraction;
     }
 
     public static Scalar scalar(int value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[value - CACHE_LOW];
+        }
         return new Scalar(value);
     }
 
     public static Scalar scalar(Fraction fraction) {
+        if (fraction.getDenominator() == 1) {
+            return scalar(fraction.getNumerator());
+        }
         return new Scalar(fraction);
     }
 
+    private static Scalar scalar(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ArithmeticException("scalar overflow: " + value);
+        }
+        return scalar((int) value);
+    }
+
+    public boolean isIntegral() {
+        return fraction == null;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (!(object instanceof Scalar)) {
             return false;
         }
         Scalar other = (Scalar) object;
+        if (isIntegral() || other.isIntegral()) {
+            return isIntegral() && other.isIntegral() && value == other.value;
+        }
         return fraction.equals(other.fraction);
     }
 
     @Override
     public int hashCode() {
-        return fraction.hashCode();
+        return isIntegral() ? Integer.hashCode(value) : fraction.hashCode();
     }
 
     @Override
     public String toString() {
-        return String.format("%s", fraction);
+        return isIntegral() ? Integer.toString(value) : fraction.toString();
     }
 
     public String toStringWithUnits(String units) {
-        return String.format("%s%s", fraction, units);
+        return toString() + units;
     }
 
     public int intValue() { // todo: remove usages, this is introspection
-        return fraction.intValue();
+        return isIntegral() ? value : fraction.intValue();
     }
 
     public Fraction fractionValue() {
-        return fraction;
+        return isIntegral() ? new Fraction(value) : fraction;
     }
 
     public Scalar plus(int addend) {
@@ -59,7 +98,10 @@ public class Scalar implements MetricSpace<Scalar>, Comparable<Scalar> {
     }
 
     public Scalar plus(Scalar addend) {
-        return scalar(fraction.add(addend.fraction));
+        if (isIntegral() && addend.isIntegral()) {
+            return addend.value == 0 ? this : scalar((long) value + addend.value);
+        }
+        return scalar(fractionValue().add(addend.fractionValue()));
     }
 
     public Scalar minus(int subtrahend) {
@@ -67,7 +109,10 @@ public class Scalar implements MetricSpace<Scalar>, Comparable<Scalar> {
     }
 
     public Scalar minus(Scalar subtrahend) {
-        return scalar(fraction.subtract(subtrahend.fraction));
+        if (isIntegral() && subtrahend.isIntegral()) {
+            return subtrahend.value == 0 ? this : scalar((long) value - subtrahend.value);
+        }
+        return scalar(fractionValue().subtract(subtrahend.fractionValue()));
     }
 
     public boolean isLessThan(Scalar other) {
@@ -88,23 +133,38 @@ public class Scalar implements MetricSpace<Scalar>, Comparable<Scalar> {
 
     @Override
     public int compareTo(Scalar other) {
-        return fraction.compareTo(other.fraction);
+        if (isIntegral() && other.isIntegral()) {
+            return Integer.compare(value, other.value);
+        }
+        return fractionValue().compareTo(other.fractionValue());
     }
 
     public Scalar negated() {
+        if (isIntegral()) {
+            return scalar(-(long) value);
+        }
         return scalar(fraction.negate());
     }
 
     public Scalar abs() {
+        if (isIntegral()) {
+            return value >= 0 ? this : negated();
+        }
         return scalar(fraction.abs());
     }
 
     public Scalar times(Scalar multiplicator) {
-        return scalar(fraction.multiply(multiplicator.fraction));
+        if (isIntegral() && multiplicator.isIntegral()) {
+            return scalar((long) value * multiplicator.value);
+        }
+        return scalar(fractionValue().multiply(multiplicator.fractionValue()));
     }
 
     public Scalar by(Scalar divisor) {
-        return scalar(fraction.divide(divisor.fraction));
+        if (isIntegral() && divisor.isIntegral() && divisor.value != 0 && value % divisor.value == 0) {
+            return scalar((long) value / divisor.value);
+        }
+        return scalar(fractionValue().divide(divisor.fractionValue()));
     }
 
     public Scalar min(Scalar other) {
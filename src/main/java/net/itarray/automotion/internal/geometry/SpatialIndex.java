@@ -0,0 +1,293 @@
+package net.itarray.automotion.internal.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import static net.itarray.automotion.internal.geometry.Direction.DOWN;
+import static net.itarray.automotion.internal.geometry.Direction.LEFT;
+import static net.itarray.automotion.internal.geometry.Direction.RIGHT;
+
+/**
+ * An R-tree over the rectangles of objects, built once and queried any number of times.
+ * <p>
+ * The tree is packed bottom-up (sort-tile-recursive): the rectangles are sorted into vertical slices by their horizontal
+ * center and every slice into nodes by the vertical center, so nodes overlap little and the tree has
+ * {@code log(n) / log(NODE_CAPACITY)} levels. Queries descend only into nodes whose bounds can hold a result and
+ * compare the rectangles of the leaves exactly.
+ * Results are in the order of the objects.
+ */
+public class SpatialIndex<T> {
+
+    private static final int NODE_CAPACITY = 16;
+
+    private final List<T> objects;
+    private final Rectangle[] rectangles;
+    private final Node root;
+
+    public SpatialIndex(List<T> objects, Function<T, Rectangle> rectangle) {
+        this.objects = new ArrayList<>(objects);
+        this.rectangles = new Rectangle[objects.size()];
+        List<Node> leaves = new ArrayList<>(objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            rectangles[i] = rectangle.apply(objects.get(i));
+            leaves.add(new Node(i, rectangles[i]));
+        }
+        this.root = leaves.isEmpty() ? null : pack(leaves);
+    }
+
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * @return the objects whose rectangles lie inside of the area, borders included
+     */
+    public List<T> insideOf(Rectangle area) {
+        Bounds bounds = new Bounds(area);
+        return collect(node -> node.intersectsClosed(bounds), index -> area.contains(rectangles[index]));
+    }
+
+    /**
+     * @return the objects whose rectangles contain the area, borders included
+     */
+    public List<T> containing(Rectangle area) {
+        Bounds bounds = new Bounds(area);
+        return collect(node -> node.contains(bounds), index -> rectangles[index].contains(area));
+    }
+
+    /**
+     * @return the objects whose rectangles share more than a border with the area
+     */
+    public List<T> overlapping(Rectangle area) {
+        Bounds bounds = new Bounds(area);
+        return collect(node -> node.intersectsOpen(bounds), index -> rectangles[index].intersects(area));
+    }
+
+    /**
+     * @return the objects whose rectangles share at least a border with the area
+     */
+    public List<T> touching(Rectangle area) {
+        Bounds bounds = new Bounds(area);
+        return collect(node -> node.intersectsClosed(bounds), index -> touches(rectangles[index], area));
+    }
+
+    /**
+     * Finds the closest object that lies completely behind the end of the area in the direction
+     * and shares more than a border with the area in the other direction, e.g. the closest object to the right in the same row.
+     *
+     * @return the closest object, the first one of equally close objects, or null if there is none
+     */
+    public T nearest(Rectangle area, Direction direction) {
+        if (root == null) {
+            return null;
+        }
+        Direction across = direction == LEFT || direction == RIGHT ? DOWN : RIGHT;
+        Bounds bounds = new Bounds(area);
+        Scalar end = direction.end(area);
+        double position = toDouble(end);
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingDouble(candidate -> candidate.lowerBound));
+        queue.add(new Candidate(root, 0));
+        int best = -1;
+        Scalar bestDistance = null;
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (bestDistance != null && candidate.lowerBound > toDouble(bestDistance)) {
+                break;
+            }
+            Node node = candidate.node;
+            if (node.isLeaf()) {
+                Rectangle rectangle = rectangles[node.index];
+                Scalar distance = direction.signedDistance(end, direction.begin(rectangle));
+                if (distance.isGreaterOrEqualTo(Scalar.scalar(0)) && area.intersects(across, rectangle)
+                        && (bestDistance == null || distance.isLessThan(bestDistance)
+                        || (distance.equals(bestDistance) && node.index < best))) {
+                    best = node.index;
+                    bestDistance = distance;
+                }
+                continue;
+            }
+            for (Node child : node.children) {
+                if (!child.intersectsOpenAcross(bounds, across)) {
+                    continue;
+                }
+                double lowerBound = child.lowerBoundOfDistance(direction, position);
+                if (lowerBound != Double.POSITIVE_INFINITY) {
+                    queue.add(new Candidate(child, Math.max(0, lowerBound)));
+                }
+            }
+        }
+        return best < 0 ? null : objects.get(best);
+    }
+
+    private static boolean touches(Rectangle rectangle, Rectangle area) {
+        return RIGHT.begin(rectangle).isLessOrEqualTo(RIGHT.end(area))
+                && RIGHT.begin(area).isLessOrEqualTo(RIGHT.end(rectangle))
+                && DOWN.begin(rectangle).isLessOrEqualTo(DOWN.end(area))
+                && DOWN.begin(area).isLessOrEqualTo(DOWN.end(rectangle));
+    }
+
+    private List<T> collect(NodeFilter nodeFilter, LeafFilter leafFilter) {
+        List<Integer> found = new ArrayList<>();
+        if (root != null && nodeFilter.accepts(root)) {
+            collect(root, nodeFilter, leafFilter, found);
+        }
+        found.sort(Comparator.naturalOrder());
+        List<T> result = new ArrayList<>(found.size());
+        for (int index : found) {
+            result.add(objects.get(index));
+        }
+        return result;
+    }
+
+    private void collect(Node node, NodeFilter nodeFilter, LeafFilter leafFilter, List<Integer> found) {
+        if (node.isLeaf()) {
+            if (leafFilter.accepts(node.index)) {
+                found.add(node.index);
+            }
+            return;
+        }
+        for (Node child : node.children) {
+            if (nodeFilter.accepts(child)) {
+                collect(child, nodeFilter, leafFilter, found);
+            }
+        }
+    }
+
+    private static Node pack(List<Node> nodes) {
+        while (nodes.size() > 1) {
+            int parents = (nodes.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            int slices = (int) Math.ceil(Math.sqrt(parents));
+            int sliceSize = slices * NODE_CAPACITY;
+            nodes.sort(Comparator.comparingDouble(node -> node.minX + node.maxX));
+            List<Node> packed = new ArrayList<>(parents);
+            for (int start = 0; start < nodes.size(); start += sliceSize) {
+                List<Node> slice = new ArrayList<>(nodes.subList(start, Math.min(start + sliceSize, nodes.size())));
+                slice.sort(Comparator.comparingDouble(node -> node.minY + node.maxY));
+                for (int first = 0; first < slice.size(); first += NODE_CAPACITY) {
+                    packed.add(new Node(slice.subList(first, Math.min(first + NODE_CAPACITY, slice.size()))));
+                }
+            }
+            nodes = packed;
+        }
+        return nodes.get(0);
+    }
+
+    /**
+     * Scalars that are not integral are rounded outwards by the bounds, the leaves are compared exactly.
+     */
+    private static double toDouble(Scalar scalar) {
+        return scalar.isIntegral() ? scalar.intValue() : scalar.fractionValue().doubleValue();
+    }
+
+    @FunctionalInterface
+    private interface NodeFilter {
+        boolean accepts(Node node);
+    }
+
+    @FunctionalInterface
+    private interface LeafFilter {
+        boolean accepts(int index);
+    }
+
+    private static class Bounds {
+        final double minX;
+        final double minY;
+        final double maxX;
+        final double maxY;
+
+        Bounds(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        Bounds(Rectangle rectangle) {
+            this(Math.nextDown(toDouble(RIGHT.begin(rectangle))),
+                    Math.nextDown(toDouble(DOWN.begin(rectangle))),
+                    Math.nextUp(toDouble(RIGHT.end(rectangle))),
+                    Math.nextUp(toDouble(DOWN.end(rectangle))));
+        }
+
+        boolean intersectsClosed(Bounds other) {
+            return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+        }
+
+        boolean intersectsOpen(Bounds other) {
+            return minX < other.maxX && other.minX < maxX && minY < other.maxY && other.minY < maxY;
+        }
+
+        boolean intersectsOpenAcross(Bounds other, Direction across) {
+            return across == RIGHT
+                    ? minX < other.maxX && other.minX < maxX
+                    : minY < other.maxY && other.minY < maxY;
+        }
+
+        boolean contains(Bounds other) {
+            return minX <= other.minX && other.maxX <= maxX && minY <= other.minY && other.maxY <= maxY;
+        }
+
+        /**
+         * @return a lower bound of the distance of the contained rectangles behind the position in the direction,
+         * or infinity if none of them can lie behind the position
+         */
+        double lowerBoundOfDistance(Direction direction, double position) {
+            switch (direction) {
+                case RIGHT:
+                    return maxX < position ? Double.POSITIVE_INFINITY : minX - position;
+                case LEFT:
+                    return minX > position ? Double.POSITIVE_INFINITY : position - maxX;
+                case DOWN:
+                    return maxY < position ? Double.POSITIVE_INFINITY : minY - position;
+                case UP:
+                    return minY > position ? Double.POSITIVE_INFINITY : position - maxY;
+                default:
+                    throw new IllegalArgumentException("unknown direction " + direction);
+            }
+        }
+    }
+
+    private static class Node extends Bounds {
+        private final int index;
+        private final Node[] children;
+
+        private Node(int index, Rectangle rectangle) {
+            super(rectangle);
+            this.index = index;
+            this.children = null;
+        }
+
+        private Node(List<Node> children) {
+            super(children.stream().mapToDouble(child -> child.minX).min().getAsDouble(),
+                    children.stream().mapToDouble(child -> child.minY).min().getAsDouble(),
+                    children.stream().mapToDouble(child -> child.maxX).max().getAsDouble(),
+                    children.stream().mapToDouble(child -> child.maxY).max().getAsDouble());
+            this.index = -1;
+            this.children = children.toArray(new Node[0]);
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        @Override
+        public String toString() {
+            return isLeaf() ? "leaf " + index : "node " + Arrays.toString(children);
+        }
+    }
+
+    private static class Candidate {
+        private final Node node;
+        private final double lowerBound;
+
+        private Candidate(Node node, double lowerBound) {
+            this.node = node;
+            this.lowerBound = lowerBound;
+        }
+    }
+}
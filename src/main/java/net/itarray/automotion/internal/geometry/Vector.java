@@ -60,6 +60,12 @@ public class Vector implements MetricSpace<Vector> {
     }
 
     public Scalar norm() {
+        if (x.equals(scalar(0))) {
+            return y.abs();
+        }
+        if (y.equals(scalar(0))) {
+            return x.abs();
+        }
         Fraction sumOfCoordinateSquares = x.times(x).plus(y.times(y)).fractionValue();
         double distance = Math.sqrt(sumOfCoordinateSquares.doubleValue());
         return scalar(new Fraction(distance));
@@ -29,6 +29,11 @@ public class Between implements Condition<Scalar> {
         return lowerLimit.isSatisfiedOn(toBeConditioned, context, direction) && upperLimit.isSatisfiedOn(toBeConditioned, context, direction);
     }
 
+    @Override
+    public <V extends MetricSpace<V>> boolean isSatisfiedBy(Scalar value, Context context, ExtendGiving<V> direction) {
+        return lowerLimit.isSatisfiedBy(value, context, direction) && upperLimit.isSatisfiedBy(value, context, direction);
+    }
+
     @Override
     public <V extends MetricSpace<V>> String getDescription(Context context, ExtendGiving<V> direction) {
         return format(
@@ -31,6 +31,11 @@ public class BinaryScalarConditionWithFixedOperand implements Condition<Scalar>
                 "Expected %1$s to be " + toStringFormat + ". Actual %3$s is: %4$s");
     }
 
+    @Override
+    public <V extends MetricSpace<V>> boolean isSatisfiedBy(Scalar value, Context context, ExtendGiving<V> direction) {
+        return contextPredicate.apply(value, fixedOperand.evaluateIn(context, direction), context);
+    }
+
     @Override
     public <V extends MetricSpace<V>> String getDescription(Context context, ExtendGiving<V> direction) {
         String tolerance = context.getTolerance().equals(scalar(0)) ? "" : format("(~%s)", context.getTolerance());
@@ -1,6 +1,7 @@
 package net.itarray.automotion.internal.properties;
 
 import net.itarray.automotion.internal.UIElement;
+import net.itarray.automotion.internal.Violation;
 import net.itarray.automotion.internal.geometry.Rectangle;
 import net.itarray.automotion.internal.geometry.Scalar;
 import net.itarray.automotion.internal.geometry.Vector;
@@ -10,6 +11,7 @@ public interface Context {
     default boolean isPixels() { return false; }
     Scalar getTolerance();
     default void add(String message) {}
+    default void add(Violation violation) { add(violation.getMessage()); }
     default void draw(UIElement element) {}
     default void drawRoot(UIElement element) { draw(element);}
     default void drawHorizontalLine(Vector onLine) {}
@@ -0,0 +1,47 @@
+package net.itarray.automotion.internal.properties;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.internal.geometry.Scalar;
+
+/**
+ * The units, tolerance and page of a context at the time a violation was found, so that the violation is rendered
+ * as it was found even if the validator is changed before its message is needed.
+ */
+public class FrozenContext implements Context {
+
+    private final Rectangle pageRectangle;
+    private final boolean pixels;
+    private final Scalar tolerance;
+    private final int errorCount;
+
+    private FrozenContext(Context context) {
+        this.pageRectangle = context.getPageRectangle();
+        this.pixels = context.isPixels();
+        this.tolerance = context.getTolerance();
+        this.errorCount = context.errorCount();
+    }
+
+    public static Context of(Context context) {
+        return context instanceof FrozenContext ? context : new FrozenContext(context);
+    }
+
+    @Override
+    public Rectangle getPageRectangle() {
+        return pageRectangle;
+    }
+
+    @Override
+    public boolean isPixels() {
+        return pixels;
+    }
+
+    @Override
+    public Scalar getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public int errorCount() {
+        return errorCount;
+    }
+}
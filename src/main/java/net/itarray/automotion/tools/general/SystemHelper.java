@@ -5,6 +5,7 @@ import java.io.File;
 import java.lang.reflect.Field;
 import java.util.Locale;
 
+import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_JOURNAL;
 import static net.itarray.automotion.validation.Constants.TARGET_AUTOMOTION_JSON;
 
 public class SystemHelper {
@@ -77,8 +78,10 @@ public class SystemHelper {
     }
 
     public static boolean isAutomotionFolderExists() {
-        File file = new File(TARGET_AUTOMOTION_JSON);
+        return isNonEmptyDirectory(new File(TARGET_AUTOMOTION_JSON)) || isNonEmptyDirectory(new File(TARGET_AUTOMOTION_JOURNAL));
+    }
 
+    private static boolean isNonEmptyDirectory(File file) {
         return file.exists() && file.isDirectory() && file.list() != null && file.list().length > 0;
     }
 }
@@ -11,36 +11,131 @@ import com.optimaize.langdetect.profiles.LanguageProfileReader;
 import com.optimaize.langdetect.text.CommonTextObjectFactories;
 import com.optimaize.langdetect.text.TextObject;
 import com.optimaize.langdetect.text.TextObjectFactory;
+import net.itarray.automotion.internal.DrawableScreenshot;
+import net.itarray.automotion.internal.DrawingConfiguration;
+import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.internal.SimpleTransform;
+import net.itarray.automotion.internal.UIElement;
+import net.itarray.automotion.internal.ZoomQuery;
+import net.itarray.automotion.tools.general.SystemHelper;
 import org.apache.log4j.Logger;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LanguageChecker {
 
     private static final Logger LOG = Logger.getLogger(LanguageChecker.class);
+    private static final int MIN_DETECTABLE_LENGTH = 30;
+
+    private static final String TEXT_BLOCKS_SCRIPT =
+            "var skipped = {SCRIPT: true, NOSCRIPT: true, STYLE: true, PRE: true, TEMPLATE: true};" +
+            "var blocks = [];" +
+            "function path(element) {" +
+            "  var segments = [];" +
+            "  for (; element && element.nodeType === 1; element = element.parentNode) {" +
+            "    var index = 1;" +
+            "    for (var sibling = element.previousElementSibling; sibling; sibling = sibling.previousElementSibling) {" +
+            "      if (sibling.tagName === element.tagName) { index++; }" +
+            "    }" +
+            "    segments.unshift(element.tagName.toLowerCase() + '[' + index + ']');" +
+            "  }" +
+            "  return '/' + segments.join('/');" +
+            "}" +
+            "function isShown(style) { return style.display !== 'none' && style.visibility !== 'hidden'; }" +
+            "function collect(element, block) {" +
+            "  for (var child = element.firstChild; child; child = child.nextSibling) {" +
+            "    if (child.nodeType === 3) {" +
+            "      block.text += child.nodeValue;" +
+            "    } else if (child.nodeType === 1 && !skipped[child.tagName]) {" +
+            "      var style = window.getComputedStyle(child);" +
+            "      if (!isShown(style)) { continue; }" +
+            "      if (style.display === 'inline') { block.text += ' '; collect(child, block); block.text += ' '; }" +
+            "      else { visit(child); }" +
+            "    }" +
+            "  }" +
+            "}" +
+            "function visit(element) {" +
+            "  var index = blocks.length;" +
+            "  var block = {text: ''};" +
+            "  blocks.push(null);" +
+            "  collect(element, block);" +
+            "  var text = block.text.replace(/\\s+/g, ' ').trim();" +
+            "  if (text) {" +
+            "    var rect = element.getBoundingClientRect();" +
+            "    blocks[index] = {path: path(element), text: text," +
+            "      x: Math.round(rect.left + window.pageXOffset), y: Math.round(rect.top + window.pageYOffset)," +
+            "      width: Math.round(rect.width), height: Math.round(rect.height)};" +
+            "  }" +
+            "}" +
+            "if (document.body) { visit(document.body); }" +
+            "return blocks.filter(function (block) { return block !== null; });";
+    private static final int MAX_CACHED_DETECTIONS = 10000;
+
+    private static final TextObjectFactory textObjectFactory = CommonTextObjectFactories.forDetectingOnLargeText();
+    private static final AtomicLong detectionCount = new AtomicLong();
+    private static final Map<String, Optional<LdLocale>> detections = Collections.synchronizedMap(
+            new LinkedHashMap<String, Optional<LdLocale>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Optional<LdLocale>> eldest) {
+                    return size() > MAX_CACHED_DETECTIONS;
+                }
+            });
+    private static volatile LanguageDetector languageDetector;
+
+    /**
+     * Loads the built-in language profiles, which otherwise happens on the first detection.
+     *
+     * @throws java.io.IOException
+     */
+    public static void warmUp() throws IOException {
+        getLanguageDetector();
+    }
+
+    /**
+     * Forgets the languages detected so far.
+     */
+    public static void clearCache() {
+        detections.clear();
+    }
+
+    /**
+     * @return the number of texts the language detector was run for, texts whose language was cached are not counted
+     */
+    public static long getDetectionCount() {
+        return detectionCount.get();
+    }
 
     /**
      * Return recognized language on the page. E.g: 'en', 'es', ...
+     * Detections are cached by the digest of the text, so repeated text (e.g. headers and footers) is detected only once
+     * and the cache does not hold on to long texts.
      *
      * @param text
      * @return
      * @throws java.io.IOException
      */
     public static Optional<LdLocale> getRecognisedLanguage(String text) throws IOException {
-        List<LanguageProfile> languageProfiles = new LanguageProfileReader().readAllBuiltIn();
-
-        LanguageDetector languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
-                .withProfiles(languageProfiles)
-                .build();
-
-        TextObjectFactory textObjectFactory = CommonTextObjectFactories.forDetectingOnLargeText();
-
-        TextObject textObject = textObjectFactory.forText(text);
-
-        return languageDetector.detect(textObject);
+        String digest = digest(text);
+        Optional<LdLocale> language = detections.get(digest);
+        if (language == null) {
+            TextObject textObject = textObjectFactory.forText(text);
+            language = getLanguageDetector().detect(textObject);
+            detectionCount.incrementAndGet();
+            detections.put(digest, language);
+        }
+        return language;
     }
 
     /**
@@ -51,21 +146,14 @@ public class LanguageChecker {
      * @throws java.io.IOException
      */
     public static Optional<LdLocale> getRecognisedLanguage(WebDriver driver) throws IOException {
-        List<LanguageProfile> languageProfiles = new LanguageProfileReader().readAllBuiltIn();
-
-        LanguageDetector languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
-                .withProfiles(languageProfiles)
-                .build();
-
-        TextObjectFactory textObjectFactory = CommonTextObjectFactories.forDetectingOnLargeText();
-
         TextObject textObject = textObjectFactory.forText(getTextFromPage(driver));
 
-        return languageDetector.detect(textObject);
+        return getLanguageDetector().detect(textObject);
     }
 
     /**
-     * Verify if correct language on the web/mobile page
+     * Verify if correct language on the web/mobile page.
+     * Every block of text on the page is checked, untranslated blocks are logged with their XPath and rectangle.
      *
      * @param driver
      * @param lang
@@ -73,41 +161,177 @@ public class LanguageChecker {
      * @throws java.io.IOException
      */
     public static boolean isCorrectLanguageOnThePage(WebDriver driver, String lang) throws IOException {
-        boolean isCorrectLang = true;
-        String bodyText = getTextFromPage(driver);
+        List<TextBlock> textBlocks = getTextBlocks(driver);
 
-        int textBlockLength = 300;
-        int bodyTextLength = bodyText.length();
-
-        if (bodyTextLength == 0) {
+        if (textBlocks.isEmpty()) {
             LOG.info("\n!!! - Text on the page is absent\n");
-            isCorrectLang = false;
+            return false;
+        }
+        List<TextBlock> untranslated = getUntranslatedBlocks(driver, textBlocks, lang);
+        return untranslated.isEmpty();
+    }
+
+    /**
+     * Return the blocks of text on the page whose recognised language is not the expected one
+     *
+     * @param driver
+     * @param lang
+     * @return
+     * @throws java.io.IOException
+     */
+    public static List<TextBlock> getUntranslatedBlocks(WebDriver driver, String lang) throws IOException {
+        return getUntranslatedBlocks(driver, getTextBlocks(driver), lang);
+    }
+
+    /**
+     * Return the text of every visible block element on the page, retrieved with a single script call.
+     * The text of inline elements belongs to the enclosing block.
+     *
+     * @param driver
+     * @return
+     */
+    public static List<TextBlock> getTextBlocks(WebDriver driver) {
+        Object result = ((JavascriptExecutor) driver).executeScript(TEXT_BLOCKS_SCRIPT);
+        List<TextBlock> blocks = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object item : (List<?>) result) {
+                Map<?, ?> block = (Map<?, ?>) item;
+                blocks.add(new TextBlock(
+                        (String) block.get("path"),
+                        (String) block.get("text"),
+                        ((Number) block.get("x")).intValue(),
+                        ((Number) block.get("y")).intValue(),
+                        ((Number) block.get("width")).intValue(),
+                        ((Number) block.get("height")).intValue()));
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Highlights the blocks on a screenshot of the page
+     *
+     * @param driver
+     * @param blocks
+     * @param name
+     * @return the drawing, see {@link DrawableScreenshot#getScreenshotName()} and {@link DrawableScreenshot#getDrawingsOutput()}
+     */
+    public static DrawableScreenshot drawBlocks(WebDriver driver, List<TextBlock> blocks, String name) {
+        return drawBlocks(new DriverFacade(driver), blocks, name);
+    }
+
+    /**
+     * Highlights the blocks on a screenshot of the page, scaled into the screenshot like the drawings of a validation
+     *
+     * @param driver
+     * @param blocks
+     * @param name
+     * @return the drawing, see {@link DrawableScreenshot#getScreenshotName()} and {@link DrawableScreenshot#getDrawingsOutput()}
+     */
+    public static DrawableScreenshot drawBlocks(DriverFacade driver, List<TextBlock> blocks, String name) {
+        File screenshotName = DrawableScreenshot.takeScreenshot(driver, name);
+        DrawableScreenshot drawableScreenshot = new DrawableScreenshot(driver.getExtend(screenshotName),
+                new SimpleTransform(0, getScaleFactor(driver)), new DrawingConfiguration(), name, screenshotName);
+        for (TextBlock block : blocks) {
+            drawableScreenshot.draw(UIElement.asElement(block.getRectangle(), block.getPath()));
+        }
+        drawableScreenshot.saveDrawing();
+        return drawableScreenshot;
+    }
+
+    private static double getScaleFactor(DriverFacade driver) {
+        double retinaScaleFactor = SystemHelper.isRetinaDisplay() ? 2 : 1;
+        double factor;
+        if (driver.isAppiumContext()) {
+            factor = retinaScaleFactor;
         } else {
-            for (int i = 0; i < bodyTextLength; i += textBlockLength) {
-                String tempString;
-                if (bodyTextLength >= (i + textBlockLength)) {
-                    tempString = bodyText.substring(i, i + textBlockLength);
-                    try {
-                        if (getRecognisedLanguage(tempString).isPresent()) {
-                            String detectedLanguage = getRecognisedLanguage(tempString).get().getLanguage();
-
-                            if (!detectedLanguage.toLowerCase().equals(lang.toLowerCase())) {
-                                LOG.info("\n!!! - Piece of text without translation: \n" + tempString + "\nExpected language is \"" + lang + "\"\n");
-                                LOG.info("\n!!! Current URL is " + driver.getCurrentUrl() + "\n-  !!!");
-                                LOG.info(String.format("\n!!! Characters are between %s and %s from %s full amount of characters \n", i, i + textBlockLength, bodyTextLength));
-                                isCorrectLang = false;
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.info("\n!!! - Impossible to recognise the language of this piece of text: \n" + tempString + "\nExpected language is \"" + lang + "\"\n");
-                        LOG.info("\n!!! Current URL is " + driver.getCurrentUrl() + "\n-  !!!");
-                        LOG.info(String.format("\n!!! Characters are between %s and %s from %s full amount of characters \n", i, i + textBlockLength, bodyTextLength));
-                    }
+            factor = new ZoomQuery(driver).getFactor();
+            if (driver.isChromeDriver()) {
+                factor = factor * retinaScaleFactor;
+            }
+        }
+
+        return factor;
+    }
+
+    private static List<TextBlock> getUntranslatedBlocks(WebDriver driver, List<TextBlock> textBlocks, String lang) throws IOException {
+        warmUp();
+        List<BlockDetection> detections = new ArrayList<>();
+        for (TextBlock block : textBlocks) {
+            if (block.getText().length() >= MIN_DETECTABLE_LENGTH) {
+                detections.add(new BlockDetection(block));
+            }
+        }
+        detections.parallelStream().forEach(BlockDetection::detect);
+
+        List<TextBlock> untranslated = new ArrayList<>();
+        for (BlockDetection detection : detections) {
+            TextBlock block = detection.block;
+            if (detection.failure != null) {
+                LOG.info("\n!!! - Impossible to recognise the language of this piece of text: \n" + block.getText() + "\nExpected language is \"" + lang + "\"\n");
+                LOG.info("\n!!! Current URL is " + driver.getCurrentUrl() + "\n-  !!!");
+                LOG.info("\n!!! Element is " + block + "\n");
+            } else if (detection.language.isPresent()) {
+                String detectedLanguage = detection.language.get().getLanguage();
+
+                if (!detectedLanguage.toLowerCase().equals(lang.toLowerCase())) {
+                    LOG.info("\n!!! - Piece of text without translation: \n" + block.getText() + "\nExpected language is \"" + lang + "\"\n");
+                    LOG.info("\n!!! Current URL is " + driver.getCurrentUrl() + "\n-  !!!");
+                    LOG.info("\n!!! Element is " + block + "\n");
+                    untranslated.add(block);
                 }
             }
         }
-        return isCorrectLang;
+        return untranslated;
+    }
+
+    private static String digest(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LanguageDetector getLanguageDetector() throws IOException {
+        LanguageDetector detector = languageDetector;
+        if (detector == null) {
+            synchronized (LanguageChecker.class) {
+                detector = languageDetector;
+                if (detector == null) {
+                    List<LanguageProfile> languageProfiles = new LanguageProfileReader().readAllBuiltIn();
+                    detector = LanguageDetectorBuilder.create(NgramExtractors.standard())
+                            .withProfiles(languageProfiles)
+                            .build();
+                    languageDetector = detector;
+                }
+            }
+        }
+        return detector;
+    }
+
+    private static class BlockDetection {
+        private final TextBlock block;
+        private Optional<LdLocale> language;
+        private Exception failure;
+
+        private BlockDetection(TextBlock block) {
+            this.block = block;
+        }
+
+        private void detect() {
+            try {
+                // lowercased like the text of the whole page, see getTextFromPage, so a block is recognised as it is on the page
+                language = getRecognisedLanguage(block.getText().toLowerCase());
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
     }
 
     private static String getTextFromPage(WebDriver driver) {
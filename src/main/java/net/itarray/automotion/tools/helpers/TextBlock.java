@@ -0,0 +1,59 @@
+package net.itarray.automotion.tools.helpers;
+
+import net.itarray.automotion.internal.geometry.Rectangle;
+
+/**
+ * The text of a block element of a page, without the text of nested blocks, together with the XPath and the
+ * rectangle (in page coordinates) of the element.
+ */
+public class TextBlock {
+
+    private final String path;
+    private final String text;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    public TextBlock(String path, String text, int x, int y, int width, int height) {
+        this.path = path;
+        this.text = text;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Rectangle getRectangle() {
+        return new Rectangle(x, y, x + width, y + height);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s at (%s, %s) [%s x %s]", path, x, y, width, height);
+    }
+}
@@ -0,0 +1,130 @@
+package net.itarray.automotion.tools.helpers;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.join;
+
+/**
+ * A pattern of {@link TextFinder}, prepared once and matched against any number of texts in time linear in the length of the text.
+ * <p>
+ * A text matches if
+ * <ul>
+ * <li>it contains the pattern, ignoring case and spaces, or</li>
+ * <li>every word of the pattern is a word of the text (in increasing order of first occurrence) or part of a longer word of the text, or</li>
+ * <li>ignoring non-word characters, the text contains a run of characters of the pattern at least
+ * {@code (1 - derivation)} times as long as the pattern.</li>
+ * </ul>
+ */
+public class TextPattern {
+
+    private static final String WORD_SEPARATOR = "\\W|\\s";
+    private static final char JOINED_WORD_SEPARATOR = '\u0000';
+
+    private final String pattern;
+    private final String patternWithoutSpaces;
+    private final String[] patternWords;
+    private final BitSet patternCharacters = new BitSet();
+    private final double minimalRunLength;
+
+    TextPattern(String pattern, double derivation) {
+        this.pattern = pattern.toLowerCase();
+        this.patternWithoutSpaces = this.pattern.replace(" ", "");
+        this.patternWords = this.pattern.split(WORD_SEPARATOR);
+        String patternJoined = join("", patternWords);
+        for (int i = 0; i < patternJoined.length(); i++) {
+            patternCharacters.set(patternJoined.charAt(i));
+        }
+        this.minimalRunLength = patternJoined.length() * (1 - derivation);
+    }
+
+    public boolean isFoundIn(String text) {
+        text = text.toLowerCase();
+
+        if (text.contains(pattern)) {
+            return true;
+        }
+        if (text.replace(" ", "").contains(patternWithoutSpaces)) {
+            return true;
+        }
+        String[] textWords = text.split(WORD_SEPARATOR);
+        if (allWordsFound(textWords)) {
+            return true;
+        }
+        int longestRun = longestRunOfPatternCharacters(join("", textWords));
+        return longestRun > 0 && longestRun >= minimalRunLength;
+    }
+
+    /**
+     * For each word of the pattern, takes the first word of the text that either equals it and occurs first
+     * after the previously equal word, or contains it as part of a longer word.
+     */
+    private boolean allWordsFound(String[] textWords) {
+        Map<String, Integer> firstOccurrences = new HashMap<>();
+        int[] wordStarts = new int[textWords.length];
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < textWords.length; i++) {
+            firstOccurrences.putIfAbsent(textWords[i], i);
+            wordStarts[i] = joined.length();
+            joined.append(textWords[i]).append(JOINED_WORD_SEPARATOR);
+        }
+        String joinedWords = joined.toString();
+
+        int positionPrev = 0;
+        for (String patternWord : patternWords) {
+            Integer equal = firstOccurrences.get(patternWord);
+            if (equal != null && equal <= positionPrev) {
+                equal = null;
+            }
+            int containing = firstWordContaining(patternWord, textWords, wordStarts, joinedWords);
+            if (equal != null && (containing < 0 || equal < containing)) {
+                positionPrev = equal;
+            } else if (containing < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int firstWordContaining(String patternWord, String[] textWords, int[] wordStarts, String joinedWords) {
+        if (patternWord.isEmpty()) {
+            for (int i = 0; i < textWords.length; i++) {
+                if (!textWords[i].isEmpty()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int position = joinedWords.indexOf(patternWord);
+        while (position >= 0) {
+            int word = Arrays.binarySearch(wordStarts, position);
+            if (word < 0) {
+                word = -word - 2;
+            }
+            if (!textWords[word].equals(patternWord)) {
+                return word;
+            }
+            position = joinedWords.indexOf(patternWord, wordStarts[word] + textWords[word].length() + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Runs start after the first character of the text, which the search has always ignored.
+     */
+    private int longestRunOfPatternCharacters(String textJoined) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 1; i < textJoined.length(); i++) {
+            if (patternCharacters.get(textJoined.charAt(i))) {
+                run++;
+                longest = Math.max(longest, run);
+            } else {
+                run = 0;
+            }
+        }
+        return longest;
+    }
+}
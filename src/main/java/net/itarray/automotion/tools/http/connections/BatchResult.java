@@ -0,0 +1,68 @@
+package net.itarray.automotion.tools.http.connections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of {@link RestClient#batch(List, int, long, java.util.concurrent.TimeUnit)}:
+ * the responses in the order of the requests, and the failures of the requests that did not get a response.
+ */
+public class BatchResult {
+
+    private final List<RestRequest> requests;
+    private final List<HttpResponse> responses;
+    private final Map<Integer, Throwable> failures;
+
+    BatchResult(List<RestRequest> requests, List<HttpResponse> responses, Map<Integer, Throwable> failures) {
+        this.requests = requests;
+        this.responses = Collections.unmodifiableList(responses);
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    }
+
+    /**
+     * @return the response of every request, null for the requests that failed
+     */
+    public List<HttpResponse> getResponses() {
+        return responses;
+    }
+
+    /**
+     * @return the cause of every failed request by its index in the batch
+     */
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    public List<RestRequest> getFailedRequests() {
+        List<RestRequest> failed = new ArrayList<>();
+        for (Integer index : failures.keySet()) {
+            failed.add(requests.get(index));
+        }
+        return failed;
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * @return one line per failed request, empty if all requests got a response
+     */
+    public String getFailureReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<Integer, Throwable> failure : failures.entrySet()) {
+            report.append("#").append(failure.getKey()).append(" ").append(requests.get(failure.getKey()))
+                    .append(": ").append(failure.getValue()).append("\n");
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return (responses.size() - failures.size()) + " of " + responses.size() + " requests succeeded"
+                + (failures.isEmpty() ? "" : "\n" + getFailureReport());
+    }
+}
@@ -1,35 +1,25 @@
 package net.itarray.automotion.tools.http.connections;
 
 import net.itarray.automotion.tools.helpers.Helper;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.*;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLContexts;
-import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 import org.json.simple.JSONObject;
 
-import javax.net.ssl.SSLContext;
 import java.awt.*;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -39,12 +29,21 @@ class ConnectionBuilder {
         this.url = url;
     }
 
+    private static volatile boolean bodyLogging = true;
+    private static volatile int maxLoggedBodyLength = 2000;
+
     private String url;
 
-    public CloseableHttpResponse sendPOST(Map<Object, Object> map, String endpoint, String token, boolean withMediaFile) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
+    static void setBodyLogging(boolean enabled) {
+        bodyLogging = enabled;
+    }
+
+    static void setMaxLoggedBodyLength(int length) {
+        maxLoggedBodyLength = length;
+    }
 
-        HttpClient httpClient = httpClientBuilder.build();
+    public CloseableHttpResponse sendPOST(Map<Object, Object> map, String endpoint, String token, boolean withMediaFile) throws IOException {
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("\n\n------------------------------------------------------------");
         System.out.println("POST request to: " + url + endpoint);
@@ -53,54 +52,19 @@ class ConnectionBuilder {
 //        request.addHeader("Authorization", token);
 //        request.addHeader("authorization", token);
         request.addHeader("Cookie", "AuthCookie=" + token);
-        String fileName = null;
-        File file = null;
-        if (withMediaFile) {
-            String boundary = "-------------" + System.currentTimeMillis();
-            fileName = (String) map.get("file");
-
-            try {
-                file = Helper.createFile(fileName);
+        File file = setPostEntity(request, map, withMediaFile);
 
-            } catch (AWTException e) {
-                e.printStackTrace();
-            }
-
-            MultipartEntityBuilder entity = MultipartEntityBuilder.create()
-                    .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
-                    .setBoundary(boundary);
-
-            if (fileName != null) {
-                entity.addPart("file", new ByteArrayBody(Files.readAllBytes(file.toPath()), fileName));
-            }
-
-            for (Map.Entry entry : map.entrySet()) {
-                entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
+        try {
+            return (CloseableHttpResponse) httpClient.execute(request);
+        } finally {
+            if (file != null) {
+                file.delete();
             }
-
-
-            request.setEntity(entity.build());
-            request.setHeader("Content-type", "multipart/form-data; boundary=" + boundary);
-        } else {
-            StringEntity params = new StringEntity(JSONObject.toJSONString(map));
-            System.out.println("with data: " + JSONObject.toJSONString(map));
-            request.addHeader("Content-Type", "application/json;charset=UTF-8");
-            request.setEntity(params);
-        }
-
-        CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
-
-        if (file != null) {
-            file.delete();
         }
-
-        return httpResponse;
     }
 
     public CloseableHttpResponse sendPOST(Map<Object, Object> map, Map<String, String> headers, String endpoint, String token, boolean withMediaFile) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("\n\n------------------------------------------------------------");
         System.out.println("POST request to: " + url + endpoint);
@@ -109,78 +73,84 @@ class ConnectionBuilder {
         for (Map.Entry<String, String> entry : headers.entrySet()) {
             request.addHeader(entry.getKey(), entry.getValue());
         }
-        String fileName = null;
+        File file = setPostEntity(request, map, withMediaFile);
+
+        try {
+            return (CloseableHttpResponse) httpClient.execute(request);
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Sets the multipart or json entity of a POST request. The media file is streamed from disk while the request is sent.
+     *
+     * @return the temporary media file to delete after the request, or null
+     */
+    private File setPostEntity(HttpPost request, Map<Object, Object> map, boolean withMediaFile) throws IOException {
         File file = null;
         if (withMediaFile) {
             String boundary = "-------------" + System.currentTimeMillis();
-            fileName = (String) map.get("file");
-
-            try {
-                file = Helper.createFile(fileName);
-
-            } catch (AWTException e) {
-                e.printStackTrace();
-            }
+            Object media = map.get("file");
 
             MultipartEntityBuilder entity = MultipartEntityBuilder.create()
                     .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
                     .setBoundary(boundary);
 
-            if (fileName != null) {
-                entity.addPart("file", new ByteArrayBody(Files.readAllBytes(file.toPath()), fileName));
+            if (media instanceof File) {
+                entity.addPart("file", new FileBody((File) media, ContentType.DEFAULT_BINARY, ((File) media).getName()));
+            } else if (media instanceof Path) {
+                File mediaFile = ((Path) media).toFile();
+                entity.addPart("file", new FileBody(mediaFile, ContentType.DEFAULT_BINARY, mediaFile.getName()));
+            } else if (media instanceof InputStream) {
+                entity.addPart("file", new InputStreamBody((InputStream) media, ContentType.DEFAULT_BINARY, "file"));
+            } else if (media != null) {
+                String fileName = (String) media;
+                try {
+                    file = Helper.createFile(fileName);
+                } catch (AWTException e) {
+                    e.printStackTrace();
+                }
+                if (file != null) {
+                    entity.addPart("file", new FileBody(file, ContentType.DEFAULT_BINARY, fileName));
+                }
             }
 
             for (Map.Entry entry : map.entrySet()) {
-                entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
+                if (entry.getValue() instanceof String) {
+                    entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
+                }
             }
 
 
             request.setEntity(entity.build());
             request.setHeader("Content-type", "multipart/form-data; boundary=" + boundary);
         } else {
-            StringEntity params = new StringEntity(JSONObject.toJSONString(map));
-            System.out.println("with data: " + JSONObject.toJSONString(map));
+            String json = JSONObject.toJSONString(map);
+            StringEntity params = new StringEntity(json);
+            logBody("with data: ", json);
             request.addHeader("Content-Type", "application/json;charset=UTF-8");
             request.setEntity(params);
         }
-
-        CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
-
-        if (file != null) {
-            file.delete();
-        }
-
-        return httpResponse;
+        return file;
     }
 
-    private HttpClientBuilder getHttpClientBuilder() {
-        SSLContext sslContext = null;
-        try {
-            sslContext = SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).useTLS().build();
-        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-            e.printStackTrace();
+    private static void logBody(String prefix, String body) {
+        if (!bodyLogging) {
+            return;
+        }
+        int max = maxLoggedBodyLength;
+        if (body.length() > max) {
+            System.out.println(prefix + body.substring(0, max) + "... (" + body.length() + " characters)");
+        } else {
+            System.out.println(prefix + body);
         }
-
-        SSLConnectionSocketFactory sslConnectionFactory = new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
-
-
-        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-
-        httpClientBuilder.setSSLSocketFactory(sslConnectionFactory);
-        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("https", sslConnectionFactory)
-                .register("http", new PlainConnectionSocketFactory())
-                .build();
-
-        HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager(registry);
-        httpClientBuilder.setConnectionManager(ccm);
-        return httpClientBuilder;
     }
 
     private CloseableHttpResponse sendGET(String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("GET request to: " + url + endpoint);
         HttpGet request = new HttpGet(url + endpoint);
@@ -192,9 +162,7 @@ class ConnectionBuilder {
     }
 
     private CloseableHttpResponse sendGET(String endpoint, Map<String, String> headers) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("GET request to: " + url + endpoint);
         HttpGet request = new HttpGet(url + endpoint);
@@ -206,9 +174,7 @@ class ConnectionBuilder {
     }
 
     private CloseableHttpResponse sendDELETE(String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("DELETE request to: " + url + endpoint);
         HttpDelete request = new HttpDelete(url + endpoint);
@@ -220,17 +186,16 @@ class ConnectionBuilder {
     }
 
     private CloseableHttpResponse sendPUT(Map<String, String> map, String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+        HttpClient httpClient = PooledHttpClients.getClient(url);
 
         System.out.println("PUT request to: " + url + endpoint);
         HttpPut request = new HttpPut(url + endpoint);
         request.addHeader("Content-Type", "application/json;charset=UTF-8");
         request.addHeader("Authorization", "Bearer " + token);
 
-        StringEntity params = new StringEntity(JSONObject.toJSONString(map));
-        System.out.println("with data: " + JSONObject.toJSONString(map));
+        String json = JSONObject.toJSONString(map);
+        StringEntity params = new StringEntity(json);
+        logBody("with data: ", json);
 
         request.setEntity(params);
 
@@ -240,15 +205,15 @@ class ConnectionBuilder {
     protected Map<Integer, String> getPOST(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendPOST(map, endpoint, token, withMediaFile);
-
-        StringBuffer body = getBodyResponse(response);
+        try (CloseableHttpResponse response = sendPOST(map, endpoint, token, withMediaFile)) {
+            StringBuffer body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
 
-        System.out.println("\n\nResponse:");
-        System.out.println(response.getStatusLine());
-        System.out.println(body.toString());
+            System.out.println("\n\nResponse:");
+            System.out.println(response.getStatusLine());
+            logBody("", body.toString());
+        }
 
         return mapResult;
     }
@@ -256,15 +221,15 @@ class ConnectionBuilder {
     protected Map<Integer, String> getPOST(Map map, Map headers, String endpoint, String token, boolean withMediaFile) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendPOST(map, headers, endpoint, token, withMediaFile);
-
-        StringBuffer body = getBodyResponse(response);
+        try (CloseableHttpResponse response = sendPOST(map, headers, endpoint, token, withMediaFile)) {
+            StringBuffer body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
 
-        System.out.println("\n\nResponse:");
-        System.out.println(response.getStatusLine());
-        System.out.println(body.toString());
+            System.out.println("\n\nResponse:");
+            System.out.println(response.getStatusLine());
+            logBody("", body.toString());
+        }
 
         return mapResult;
     }
@@ -272,11 +237,11 @@ class ConnectionBuilder {
     protected Map<Integer, String> getGET(String endpoint, String token) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendGET(endpoint, token);
-
-        StringBuffer body = getBodyResponse(response);
+        try (CloseableHttpResponse response = sendGET(endpoint, token)) {
+            StringBuffer body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        }
 
         return mapResult;
     }
@@ -284,11 +249,11 @@ class ConnectionBuilder {
     protected Map<Integer, String> getGET(String endpoint, Map headers) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendGET(endpoint, headers);
+        try (CloseableHttpResponse response = sendGET(endpoint, headers)) {
+            StringBuffer body = getBodyResponse(response);
 
-        StringBuffer body = getBodyResponse(response);
-
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        }
 
         return mapResult;
     }
@@ -296,11 +261,11 @@ class ConnectionBuilder {
     protected Map<Integer, String> getPUT(Map map, String endpoint, String token) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendPUT(map, endpoint, token);
+        try (CloseableHttpResponse response = sendPUT(map, endpoint, token)) {
+            StringBuffer body = getBodyResponse(response);
 
-        StringBuffer body = getBodyResponse(response);
-
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        }
 
         return mapResult;
     }
@@ -308,29 +273,39 @@ class ConnectionBuilder {
     protected Map<Integer, String> getDELETE(String endpoint, String token) throws IOException {
         Map<Integer, String> mapResult = new HashMap<Integer, String>();
 
-        CloseableHttpResponse response = sendDELETE(endpoint, token);
-
-        StringBuffer body = getBodyResponse(response);
+        try (CloseableHttpResponse response = sendDELETE(endpoint, token)) {
+            StringBuffer body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+            mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        }
 
         return mapResult;
     }
 
-    private StringBuffer getBodyResponse(CloseableHttpResponse response) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(
-                response.getEntity().getContent()));
+    protected StreamingResponse getPOSTStreaming(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
+        return new StreamingResponse(sendPOST(map, endpoint, token, withMediaFile));
+    }
 
-        String inputLine;
+    protected StreamingResponse getGETStreaming(String endpoint, String token) throws IOException {
+        return new StreamingResponse(sendGET(endpoint, token));
+    }
 
-        StringBuffer body = new StringBuffer();
+    protected StreamingResponse getGETStreaming(String endpoint, Map headers) throws IOException {
+        return new StreamingResponse(sendGET(endpoint, headers));
+    }
 
-        while ((inputLine = reader.readLine()) != null) {
-            body.append(inputLine);
+    private StringBuffer getBodyResponse(CloseableHttpResponse response) throws IOException {
+        StringBuffer body = new StringBuffer();
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return body;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent()))) {
+            String inputLine;
+            while ((inputLine = reader.readLine()) != null) {
+                body.append(inputLine);
+            }
         }
-        reader.close();
-
-        response.close();
         return body;
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import http.connections.*;
 import org.apache.http.client.methods.CloseableHttpResponse;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class ConnectionFactory extends ConnectionBuilder {
@@ -15,10 +16,51 @@ public class ConnectionFactory extends ConnectionBuilder {
         this.url = url;
     }
 
+    /**
+     * The response holds a pooled connection until it is closed.
+     */
     public CloseableHttpResponse sendPostWithFullResponse(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
         return new ConnectionBuilder(url).sendPOST(map, endpoint, token, withMediaFile);
     }
 
+    /**
+     * Disables or enables printing request and response bodies.
+     */
+    public static void setBodyLogging(boolean enabled) {
+        ConnectionBuilder.setBodyLogging(enabled);
+    }
+
+    /**
+     * Sets the number of characters of a body that are printed at most.
+     */
+    public static void setMaxLoggedBodyLength(int length) {
+        ConnectionBuilder.setMaxLoggedBodyLength(length);
+    }
+
+    public StreamingResponse sendPostStreaming(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
+        return new ConnectionBuilder(url).getPOSTStreaming(map, endpoint, token, withMediaFile);
+    }
+
+    public StreamingResponse sendGetStreaming(String endpoint, String token) throws IOException {
+        return new ConnectionBuilder(url).getGETStreaming(endpoint, token);
+    }
+
+    public StreamingResponse sendGetStreaming(String endpoint, Map headers) throws IOException {
+        return new ConnectionBuilder(url).getGETStreaming(endpoint, headers);
+    }
+
+    /**
+     * Writes the response body of a GET request to a file without holding it in memory.
+     *
+     * @return the response code
+     */
+    public int download(String endpoint, String token, Path target) throws IOException {
+        try (StreamingResponse response = sendGetStreaming(endpoint, token)) {
+            response.writeTo(target);
+            return response.getResponseCode();
+        }
+    }
+
     public Map<Integer, String> sendPost(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
         return new ConnectionBuilder(url).getPOST(map, endpoint, token, withMediaFile);
     }
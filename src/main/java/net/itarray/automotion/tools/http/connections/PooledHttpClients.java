@@ -0,0 +1,174 @@
+package net.itarray.automotion.tools.http.connections;
+
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.URI;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares one keep-alive http client per base url (scheme, host and port) between all {@link RestClient}s and
+ * {@link ConnectionFactory}s, so that repeated calls reuse pooled connections instead of opening a socket
+ * and doing a TLS handshake for every request.
+ * <p>
+ * The pool sizes and the idle timeout apply to the clients created after they are set.
+ * The shared clients keep no cookies, so cookies set for one client are not sent by another one.
+ */
+public class PooledHttpClients {
+
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+    public static final int DEFAULT_MAX_TOTAL = 100;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+
+    private static final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    private static volatile int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+    private static volatile int maxTotal = DEFAULT_MAX_TOTAL;
+    private static volatile long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private static Registry<ConnectionSocketFactory> registry;
+
+    private PooledHttpClients() {
+    }
+
+    public static void setMaxPerRoute(int maxPerRoute) {
+        PooledHttpClients.maxPerRoute = maxPerRoute;
+    }
+
+    public static void setMaxTotal(int maxTotal) {
+        PooledHttpClients.maxTotal = maxTotal;
+    }
+
+    /**
+     * Sets how long a pooled connection may stay unused before it is closed.
+     */
+    public static void setIdleTimeout(long timeout, TimeUnit unit) {
+        idleTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * @return the shared client for the scheme, host and port of the url
+     */
+    public static CloseableHttpClient getClient(String url) {
+        return pools.computeIfAbsent(key(url), key -> new Pool()).client;
+    }
+
+    /**
+     * Raises the connections per route of the pool of the url to at least {@code maxPerRoute}, e.g. for a batch of concurrent requests.
+     */
+    static void ensureMaxPerRoute(String url, int maxPerRoute) {
+        PoolingHttpClientConnectionManager connectionManager = pools.computeIfAbsent(key(url), key -> new Pool()).connectionManager;
+        synchronized (connectionManager) {
+            if (connectionManager.getDefaultMaxPerRoute() < maxPerRoute) {
+                connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            }
+            if (connectionManager.getMaxTotal() < maxPerRoute) {
+                connectionManager.setMaxTotal(maxPerRoute);
+            }
+        }
+    }
+
+    /**
+     * @return the connections leased, available and pending in the pool of the url, all zero if there is no pool yet
+     */
+    public static PoolStats getStats(String url) {
+        Pool pool = pools.get(key(url));
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, maxTotal);
+        }
+        return pool.connectionManager.getTotalStats();
+    }
+
+    /**
+     * @return the connections leased, available and pending in all pools
+     */
+    public static PoolStats getTotalStats() {
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        int max = 0;
+        for (Pool pool : pools.values()) {
+            PoolStats stats = pool.connectionManager.getTotalStats();
+            leased += stats.getLeased();
+            pending += stats.getPending();
+            available += stats.getAvailable();
+            max += stats.getMax();
+        }
+        return new PoolStats(leased, pending, available, max);
+    }
+
+    /**
+     * Closes all shared clients and their connections. Clients requested afterwards get new pools.
+     */
+    public static void closeAll() {
+        for (String key : pools.keySet()) {
+            Pool pool = pools.remove(key);
+            if (pool != null) {
+                try {
+                    pool.client.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static String key(String url) {
+        URI uri = URI.create(url.trim());
+        if (uri.getHost() == null) {
+            return url;
+        }
+        return new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()).toURI();
+    }
+
+    private static synchronized Registry<ConnectionSocketFactory> getRegistry() {
+        if (registry == null) {
+            SSLContext sslContext = null;
+            try {
+                sslContext = SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
+            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+                e.printStackTrace();
+            }
+            SSLConnectionSocketFactory sslConnectionFactory = new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE);
+            registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("https", sslConnectionFactory)
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .build();
+        }
+        return registry;
+    }
+
+    private static class Pool {
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final CloseableHttpClient client;
+
+        private Pool() {
+            connectionManager = new PoolingHttpClientConnectionManager(getRegistry());
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setValidateAfterInactivity(2000);
+            client = HttpClientBuilder.create()
+                    .setConnectionManager(connectionManager)
+                    .disableCookieManagement()
+                    .evictExpiredConnections()
+                    .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .build();
+        }
+    }
+}
@@ -1,35 +1,62 @@
 package net.itarray.automotion.tools.http.connections;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLContexts;
-import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 
-import javax.net.ssl.SSLContext;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public class RestClient {
 
     private static final Logger LOG = Logger.getLogger(RestClient.class.getName());
+    private static final ThreadFactory DAEMON_THREADS = runnable -> {
+        Thread thread = new Thread(runnable, "automotion-rest-client");
+        thread.setDaemon(true);
+        return thread;
+    };
+    /**
+     * Runs the async requests, as many at a time as the pool has connections per route. The queue is unbounded,
+     * requests that are sent faster than they are answered wait in it; a timeout of a request includes that wait.
+     */
+    private static final ThreadPoolExecutor ASYNC_EXECUTOR = new ThreadPoolExecutor(
+            PooledHttpClients.DEFAULT_MAX_PER_ROUTE, PooledHttpClients.DEFAULT_MAX_PER_ROUTE,
+            60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), DAEMON_THREADS);
+    private static final ScheduledThreadPoolExecutor DEADLINES = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "automotion-rest-client-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        ASYNC_EXECUTOR.allowCoreThreadTimeOut(true);
+        DEADLINES.setRemoveOnCancelPolicy(true);
+    }
+
     private Map<String, String> headers;
     private String body;
     private String baseUrl;
@@ -50,115 +77,182 @@ public class RestClient {
     }
 
     public HttpResponse post(String endpointUrl) {
-        try {
-            HttpClient httpClient = getHttpClientBuilder().build();
-            String uri = buildUrl(endpointUrl);
-            HttpPost request = new HttpPost(uri);
-            for (Map.Entry<String, String> map : headers.entrySet()) {
-                request.addHeader(map.getKey(), map.getValue());
-            }
-            StringEntity params = new StringEntity(body, "UTF-8");
-            request.setEntity(params);
-
-            CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
-
-
-            Map<Integer, String> mapResult = new HashMap<>();
+        return sendOrNull(RestRequest.post(endpointUrl, body));
+    }
 
-            int statusCode = httpResponse.getStatusLine().getStatusCode();
-            String value = String.valueOf(getBodyResponse(httpResponse));
-            mapResult.put(statusCode, value);
+    public HttpResponse get(String endpointUrl) {
+        return sendOrNull(RestRequest.get(endpointUrl));
+    }
 
-            log("POST", uri, body, statusCode, value);
-            return new HttpResponse(statusCode, value);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+    public HttpResponse delete(String endpointUrl) {
+        return sendOrNull(RestRequest.delete(endpointUrl));
     }
 
-    public HttpResponse get(String endpointUrl) {
-        try {
-            HttpClient httpClient = getHttpClientBuilder().build();
-            String uri = buildUrl(endpointUrl);
-            HttpGet request = new HttpGet(uri);
+    public HttpResponse update(String endpointUrl) {
+        return sendOrNull(RestRequest.update(endpointUrl, body));
+    }
 
-            for (Map.Entry<String, String> map : headers.entrySet()) {
-                request.addHeader(map.getKey(), map.getValue());
-            }
+    public CompletableFuture<HttpResponse> postAsync(String endpointUrl) {
+        return sendAsync(RestRequest.post(endpointUrl, body));
+    }
 
-            CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
+    public CompletableFuture<HttpResponse> getAsync(String endpointUrl) {
+        return sendAsync(RestRequest.get(endpointUrl));
+    }
 
-            Map<Integer, String> mapResult = new HashMap<>();
+    public CompletableFuture<HttpResponse> deleteAsync(String endpointUrl) {
+        return sendAsync(RestRequest.delete(endpointUrl));
+    }
 
-            int statusCode = httpResponse.getStatusLine().getStatusCode();
-            String value = String.valueOf(getBodyResponse(httpResponse));
-            mapResult.put(statusCode, value);
+    public CompletableFuture<HttpResponse> updateAsync(String endpointUrl) {
+        return sendAsync(RestRequest.update(endpointUrl, body));
+    }
 
-            log("GET", uri, "", statusCode, value);
+    /**
+     * Sends the request in the background. Unlike the blocking methods, a failed request completes the future exceptionally.
+     */
+    public CompletableFuture<HttpResponse> sendAsync(RestRequest request) {
+        return sendAsync(request, 0, TimeUnit.MILLISECONDS);
+    }
 
-            return new HttpResponse(statusCode, value);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * Sends the request in the background.
+     *
+     * @param timeout the deadline of the request from now on, 0 means no timeout. A request without a response by then
+     *                is aborted and the future completes with a {@link TimeoutException}
+     */
+    public CompletableFuture<HttpResponse> sendAsync(RestRequest request, long timeout, TimeUnit unit) {
+        Map<String, String> clientHeaders = new LinkedHashMap<>(headers);
+        return supply(request, clientHeaders, unit.toMillis(timeout), ASYNC_EXECUTOR);
     }
 
-    public HttpResponse delete(String endpointUrl) {
+    /**
+     * Sends many independent requests over the shared connection pool, at most {@code concurrency} at a time,
+     * and waits until all of them got a response or failed.
+     *
+     * @param timeout the deadline of each request from the start of the batch, 0 means no timeout
+     * @return the responses in the order of the requests and the failures of the requests without a response
+     */
+    public BatchResult batch(List<RestRequest> requests, int concurrency, long timeout, TimeUnit unit) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency needs to be at least one, concurrency supplied was " + concurrency);
+        }
+        PooledHttpClients.ensureMaxPerRoute(baseUrl, concurrency);
+        Map<String, String> clientHeaders = new LinkedHashMap<>(headers);
+        long timeoutMillis = unit.toMillis(timeout);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, requests.size())), DAEMON_THREADS);
         try {
-            HttpClient httpClient = getHttpClientBuilder().build();
-            String uri = buildUrl(endpointUrl);
-            HttpDelete request = new HttpDelete(uri);
-
-            for (Map.Entry<String, String> map : headers.entrySet()) {
-                request.addHeader(map.getKey(), map.getValue());
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (RestRequest request : requests) {
+                futures.add(supply(request, clientHeaders, timeoutMillis, executor));
             }
+            List<HttpResponse> responses = new ArrayList<>();
+            Map<Integer, Throwable> failures = new HashMap<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    responses.add(futures.get(i).join());
+                } catch (CompletionException e) {
+                    responses.add(null);
+                    failures.put(i, e.getCause());
+                }
+            }
+            return new BatchResult(new ArrayList<>(requests), responses, failures);
+        } finally {
+            executor.shutdown();
+        }
+    }
 
-            CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
-
-            Map<Integer, String> mapResult = new HashMap<>();
-
-            int statusCode = httpResponse.getStatusLine().getStatusCode();
-            String value = String.valueOf(getBodyResponse(httpResponse));
-            mapResult.put(statusCode, value);
-
-            log("DELETE", uri, "", statusCode, value);
-
-            return new HttpResponse(statusCode, value);
+    private HttpResponse sendOrNull(RestRequest request) {
+        try {
+            return send(request, headers, sending -> {
+            });
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    public HttpResponse update(String endpointUrl) {
-        try {
-            HttpClient httpClient = getHttpClientBuilder().build();
-            String uri = buildUrl(endpointUrl);
-            HttpPatch request = new HttpPatch(uri);
-
-            for (Map.Entry<String, String> map : headers.entrySet()) {
-                request.addHeader(map.getKey(), map.getValue());
-            }
-
-            StringEntity params = new StringEntity(body, "UTF-8");
-            request.setEntity(params);
-
-            CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
+    private HttpResponse send(RestRequest restRequest, Map<String, String> clientHeaders, Consumer<HttpRequestBase> sending) throws IOException, URISyntaxException {
+        HttpClient httpClient = PooledHttpClients.getClient(baseUrl);
+        String uri = buildUrl(restRequest.getEndpointUrl());
+        HttpRequestBase request = createRequest(restRequest.getMethod(), uri, restRequest.getBody());
+        for (Map.Entry<String, String> map : clientHeaders.entrySet()) {
+            request.addHeader(map.getKey(), map.getValue());
+        }
+        for (Map.Entry<String, String> map : restRequest.getHeaders().entrySet()) {
+            request.addHeader(map.getKey(), map.getValue());
+        }
+        sending.accept(request);
 
-            Map<Integer, String> mapResult = new HashMap<>();
+        int statusCode;
+        String value;
+        try (CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request)) {
+            statusCode = httpResponse.getStatusLine().getStatusCode();
+            value = String.valueOf(getBodyResponse(httpResponse));
+        }
 
-            int statusCode = httpResponse.getStatusLine().getStatusCode();
-            String value = String.valueOf(getBodyResponse(httpResponse));
-            mapResult.put(statusCode, value);
+        log(restRequest.getMethod(), uri, restRequest.getBody() == null ? "" : restRequest.getBody(), statusCode, value);
+        return new HttpResponse(statusCode, value);
+    }
 
-            log("PATCH", uri, body, statusCode, value);
+    private static HttpRequestBase createRequest(String method, String uri, String body) {
+        HttpEntityEnclosingRequestBase request;
+        switch (method) {
+            case "GET":
+                return new HttpGet(uri);
+            case "DELETE":
+                return new HttpDelete(uri);
+            case "POST":
+                request = new HttpPost(uri);
+                break;
+            case "PATCH":
+                request = new HttpPatch(uri);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported method: " + method);
+        }
+        if (body != null) {
+            request.setEntity(new StringEntity(body, "UTF-8"));
+        }
+        return request;
+    }
 
-            return new HttpResponse(statusCode, value);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Sends the request with the executor. If there is no response within the timeout, the future completes with a
+     * {@link TimeoutException} and the request is aborted, whether it is still waiting for the executor,
+     * for a pooled connection or for data.
+     */
+    private CompletableFuture<HttpResponse> supply(RestRequest restRequest, Map<String, String> clientHeaders, long timeoutMillis, Executor executor) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        AtomicReference<HttpRequestBase> sent = new AtomicReference<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(send(restRequest, clientHeaders, request -> {
+                    sent.set(request);
+                    if (future.isDone()) {
+                        request.abort();
+                    }
+                }));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        if (timeoutMillis > 0) {
+            ScheduledFuture<?> deadline = DEADLINES.schedule(() -> {
+                if (future.completeExceptionally(new TimeoutException(String.format("No response within %d ms: %s %s",
+                        timeoutMillis, restRequest.getMethod(), restRequest.getEndpointUrl())))) {
+                    HttpRequestBase request = sent.get();
+                    if (request != null) {
+                        request.abort();
+                    }
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            future.whenComplete((response, failure) -> deadline.cancel(false));
         }
+        return future;
     }
 
     private String buildUrl(String endpointUrl) throws URISyntaxException {
@@ -186,43 +280,17 @@ public class RestClient {
 
 
     private StringBuffer getBodyResponse(CloseableHttpResponse response) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(
-                response.getEntity().getContent()));
-
-        String inputLine;
-
         StringBuffer body = new StringBuffer();
-
-        while ((inputLine = reader.readLine()) != null) {
-            body.append(inputLine);
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return body;
         }
-        reader.close();
-
-        response.close();
-        return body;
-    }
-
-    private HttpClientBuilder getHttpClientBuilder() {
-        SSLContext sslContext = null;
-        try {
-            sslContext = SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).useTLS().build();
-        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-            e.printStackTrace();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent()))) {
+            String inputLine;
+            while ((inputLine = reader.readLine()) != null) {
+                body.append(inputLine);
+            }
         }
-
-        SSLConnectionSocketFactory sslConnectionFactory = new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
-
-
-        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-
-        httpClientBuilder.setSSLSocketFactory(sslConnectionFactory);
-        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("https", sslConnectionFactory)
-                .register("http", new PlainConnectionSocketFactory())
-                .build();
-
-        HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager(registry);
-        httpClientBuilder.setConnectionManager(ccm);
-        return httpClientBuilder;
+        return body;
     }
-}
\ No newline at end of file
+}
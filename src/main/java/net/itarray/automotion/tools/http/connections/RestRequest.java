@@ -0,0 +1,64 @@
+package net.itarray.automotion.tools.http.connections;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request for {@link RestClient#sendAsync(RestRequest)} and {@link RestClient#batch(java.util.List, int, long, java.util.concurrent.TimeUnit)}.
+ * The headers of the request are sent in addition to the headers of the client.
+ */
+public class RestRequest {
+
+    private final String method;
+    private final String endpointUrl;
+    private final String body;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    private RestRequest(String method, String endpointUrl, String body) {
+        this.method = method;
+        this.endpointUrl = endpointUrl;
+        this.body = body;
+    }
+
+    public static RestRequest post(String endpointUrl, String body) {
+        return new RestRequest("POST", endpointUrl, body);
+    }
+
+    public static RestRequest get(String endpointUrl) {
+        return new RestRequest("GET", endpointUrl, null);
+    }
+
+    public static RestRequest delete(String endpointUrl) {
+        return new RestRequest("DELETE", endpointUrl, null);
+    }
+
+    public static RestRequest update(String endpointUrl, String body) {
+        return new RestRequest("PATCH", endpointUrl, body);
+    }
+
+    public RestRequest withHeader(String header, String value) {
+        headers.put(header, value);
+        return this;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpointUrl() {
+        return endpointUrl;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpointUrl;
+    }
+}
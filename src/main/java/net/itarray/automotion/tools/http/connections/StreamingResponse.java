@@ -0,0 +1,104 @@
+package net.itarray.automotion.tools.http.connections;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A response whose body is read from the connection on demand instead of being buffered in memory.
+ * <p>
+ * The connection goes back to the pool once the body is read completely. Closing the response reads up to
+ * {@value #DRAIN_LIMIT} bytes of a body that is not read yet; if more is left, the connection is closed instead of
+ * reading a large body nobody needs.
+ */
+public class StreamingResponse implements Closeable {
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+
+    private final CloseableHttpResponse response;
+    private InputStream body;
+
+    StreamingResponse(CloseableHttpResponse response) {
+        this.response = response;
+    }
+
+    public int getResponseCode() {
+        return response.getStatusLine().getStatusCode();
+    }
+
+    /**
+     * @return the first value of the header, or null if the response has no such header
+     */
+    public String getHeader(String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * @return the length of the body, or -1 if it is not known in advance
+     */
+    public long getContentLength() {
+        HttpEntity entity = response.getEntity();
+        return entity == null ? 0 : entity.getContentLength();
+    }
+
+    /**
+     * @return the body, which can be read only once
+     */
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            HttpEntity entity = response.getEntity();
+            body = entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent();
+        }
+        return body;
+    }
+
+    /**
+     * Writes the body to a file, replacing it if it exists.
+     *
+     * @return the number of bytes written
+     */
+    public long writeTo(Path target) throws IOException {
+        try (InputStream body = getBody()) {
+            return Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Reads the rest of a short body, reaching its end releases the connection to the pool.
+     */
+    private void drain() {
+        HttpEntity entity = response.getEntity();
+        if (entity == null || entity.getContentLength() > DRAIN_LIMIT) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        long drained = 0;
+        try {
+            InputStream rest = getBody();
+            int read;
+            while (drained <= DRAIN_LIMIT && (read = rest.read(buffer)) >= 0) {
+                drained += read;
+            }
+        } catch (IOException ignored) {
+            // the body was closed already or the connection broke, closing the response discards the connection
+        }
+    }
+}
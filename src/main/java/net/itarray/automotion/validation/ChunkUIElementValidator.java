@@ -2,6 +2,8 @@ package net.itarray.automotion.validation;
 
 import org.openqa.selenium.WebElement;
 
+import java.util.List;
+
 @Chunks({
         @Chunk(id = "empty",
                 description = "empty", elements ={
@@ -109,6 +111,16 @@ public interface ChunkUIElementValidator {
 
     ChunkUIElementValidator areInsideOf(WebElement containerElement, String readableContainerName);
 
+    ChunkUIElementValidator areInsideOfAnyOf(List<WebElement> containerElements);
+
+    ChunkUIElementValidator doNotOverlapWith(List<WebElement> otherElements);
+
+    // css
+
+    ChunkUIElementValidator haveCssValue(String cssProperty, String... args);
+
+    ChunkUIElementValidator doNotHaveCssValue(String cssProperty, String... args);
+
     // size
 
     @Valid({
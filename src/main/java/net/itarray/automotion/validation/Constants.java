@@ -22,4 +22,6 @@ public class Constants {
     public static final String TARGET_AUTOMOTION_JSON = TARGET_AUTOMOTION + "json" + File.separator;
     public static final String TARGET_AUTOMOTION_IMG = TARGET_AUTOMOTION + "img" + File.separator;
     public static final String TARGET_AUTOMOTION_HTML = TARGET_AUTOMOTION + "html" + File.separator;
+    public static final String TARGET_AUTOMOTION_JOURNAL = TARGET_AUTOMOTION + "journal" + File.separator;
+    public static final String AUTOMOTION_BASELINE = "src" + File.separator + "test" + File.separator + "resources" + File.separator + "automotion" + File.separator + "baseline" + File.separator;
 }
@@ -0,0 +1,342 @@
+package net.itarray.automotion.validation;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A specification of a layout, built once from the usual chains of {@link UIElementValidator} and
+ * {@link ChunkUIElementValidator} calls and validated on any number of snapshots.
+ * <p>
+ * The chains are recorded instead of being validated, with their conditions and arguments created only once.
+ * Elements are given by locators and are looked up in each validated page:
+ * <pre>
+ * LayoutSpec.Builder builder = LayoutSpec.builder();
+ * WebElement menu = builder.find(By.id("menu"));
+ * builder.element(By.id("logo"), "Logo")
+ *         .isLeftOf(menu, between(10).and(40))
+ *         .hasWidth(between(100).and(200));
+ * builder.elements(By.cssSelector(".card"))
+ *         .haveEqualSize()
+ *         .areInsideOf(builder.find(By.id("content")), "Content");
+ * LayoutSpec spec = builder.build();
+ *
+ * spec.validate(validator.snapshot());
+ * </pre>
+ * A spec is immutable and can be validated concurrently, e.g. with {@code snapshotPool.validate(name, resolutions, spec::validate)}.
+ */
+public class LayoutSpec {
+
+    private final List<Chain> chains;
+
+    private LayoutSpec(List<Chain> chains) {
+        List<Chain> copies = new ArrayList<>();
+        for (Chain chain : chains) {
+            copies.add(chain.copy());
+        }
+        this.chains = Collections.unmodifiableList(copies);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Validates the spec on the page of the snapshot's driver.
+     *
+     * @return true if every chain of the spec is valid
+     */
+    public boolean validate(UISnapshot snapshot) {
+        return validate(snapshot, snapshot.getResponsiveUIValidator().getDriver().getDriver());
+    }
+
+    /**
+     * Validates the spec with the elements found in the given context, e.g. a container element of the page.
+     * Each chain is validated (and reported) like a chain of calls on {@link UISnapshot#findElement(WebElement, String)}
+     * or {@link UISnapshot#findElements(List)}.
+     *
+     * @return true if every chain of the spec is valid
+     */
+    public boolean validate(UISnapshot snapshot, SearchContext page) {
+        Map<Placeholder, Object> found = new HashMap<>();
+        boolean valid = true;
+        for (Chain chain : chains) {
+            valid &= chain.validate(snapshot, page, found);
+        }
+        return valid;
+    }
+
+    public static class Builder {
+
+        private final List<Chain> chains = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @return a placeholder for the element, to be used as an argument of the recorded checks only
+         */
+        public WebElement find(By locator) {
+            return (WebElement) Proxy.newProxyInstance(
+                    WebElement.class.getClassLoader(),
+                    new Class<?>[]{WebElement.class},
+                    new ElementPlaceholder(locator));
+        }
+
+        /**
+         * @return a placeholder for the elements, to be used as an argument of the recorded checks only
+         */
+        public List<WebElement> findAll(By locator) {
+            return new ElementsPlaceholder(locator);
+        }
+
+        /**
+         * Records the checks of a single element, see {@link UISnapshot#findElement(WebElement, String)}
+         */
+        public UIElementValidator element(By locator, String readableNameOfElement) {
+            return record(UIElementValidator.class, (snapshot, page) ->
+                    snapshot.findElement(page.findElement(locator), readableNameOfElement));
+        }
+
+        /**
+         * Records the checks of one or more elements, see {@link UISnapshot#findElements(List)}
+         */
+        public ChunkUIElementValidator elements(By locator) {
+            return record(ChunkUIElementValidator.class, (snapshot, page) ->
+                    snapshot.findElements(page.findElements(locator)));
+        }
+
+        /**
+         * Records the checks of zero or more elements, see {@link UISnapshot#findZeroOrMoreElements(List)}
+         */
+        public ChunkUIElementValidator zeroOrMoreElements(By locator) {
+            return record(ChunkUIElementValidator.class, (snapshot, page) ->
+                    snapshot.findZeroOrMoreElements(page.findElements(locator)));
+        }
+
+        public LayoutSpec build() {
+            return new LayoutSpec(chains);
+        }
+
+        private <T> T record(Class<T> validatorType, ValidatorLookup lookup) {
+            Chain chain = new Chain(lookup, new ArrayList<>());
+            chains.add(chain);
+            return validatorType.cast(Proxy.newProxyInstance(
+                    validatorType.getClassLoader(),
+                    new Class<?>[]{validatorType},
+                    new Recorder(chain, validatorType)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValidatorLookup {
+        Object findValidator(UISnapshot snapshot, SearchContext page);
+    }
+
+    private static class Call {
+        private final Method method;
+        private final Object[] arguments;
+
+        private Call(Method method, Object[] arguments) {
+            this.method = method;
+            this.arguments = arguments == null ? new Object[0] : arguments.clone();
+        }
+
+        private Object invokeOn(Object validator, SearchContext page, Map<Placeholder, Object> found) {
+            Object[] resolved = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                resolved[i] = resolve(arguments[i], page, found);
+            }
+            try {
+                return method.invoke(validator, resolved);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        private static Object resolve(Object argument, SearchContext page, Map<Placeholder, Object> found) {
+            Placeholder placeholder = Placeholder.of(argument);
+            if (placeholder != null) {
+                return found.computeIfAbsent(placeholder, p -> p.findIn(page));
+            }
+            if (argument instanceof List) {
+                List<Object> resolved = new ArrayList<>();
+                for (Object element : (List<?>) argument) {
+                    resolved.add(resolve(element, page, found));
+                }
+                return resolved;
+            }
+            return argument;
+        }
+
+        @Override
+        public String toString() {
+            return method.getName();
+        }
+    }
+
+    private static class Chain {
+        private final ValidatorLookup lookup;
+        private final List<Call> calls;
+
+        private Chain(ValidatorLookup lookup, List<Call> calls) {
+            this.lookup = lookup;
+            this.calls = calls;
+        }
+
+        private Chain copy() {
+            return new Chain(lookup, Collections.unmodifiableList(new ArrayList<>(calls)));
+        }
+
+        private boolean validate(UISnapshot snapshot, SearchContext page, Map<Placeholder, Object> found) {
+            Object validator = lookup.findValidator(snapshot, page);
+            for (Call call : calls) {
+                validator = call.invokeOn(validator, page, found);
+            }
+            return validator instanceof UIElementValidator
+                    ? ((UIElementValidator) validator).validate()
+                    : ((ChunkUIElementValidator) validator).validate();
+        }
+    }
+
+    private static class Recorder implements InvocationHandler {
+        private final Chain chain;
+        private final Class<?> validatorType;
+
+        private Recorder(Chain chain, Class<?> validatorType) {
+            this.chain = chain;
+            this.validatorType = validatorType;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments) {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, arguments, "recorded " + validatorType.getSimpleName());
+            }
+            if (!validatorType.isAssignableFrom(method.getReturnType())) {
+                throw new UnsupportedOperationException(String.format(
+                        "%s cannot be recorded, build the spec and validate it instead", method.getName()));
+            }
+            chain.calls.add(new Call(method, arguments));
+            return proxy;
+        }
+    }
+
+    private abstract static class Placeholder {
+        protected final By locator;
+
+        private Placeholder(By locator) {
+            this.locator = locator;
+        }
+
+        protected abstract Object findIn(SearchContext page);
+
+        private static Placeholder of(Object argument) {
+            if (argument instanceof ElementsPlaceholder) {
+                return ((ElementsPlaceholder) argument).placeholder;
+            }
+            if (argument != null && Proxy.isProxyClass(argument.getClass())) {
+                InvocationHandler handler = Proxy.getInvocationHandler(argument);
+                if (handler instanceof ElementPlaceholder) {
+                    return (ElementPlaceholder) handler;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class ElementPlaceholder extends Placeholder implements InvocationHandler {
+
+        private ElementPlaceholder(By locator) {
+            super(locator);
+        }
+
+        @Override
+        protected Object findIn(SearchContext page) {
+            return page.findElement(locator);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] arguments) {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, arguments, "placeholder of element " + locator);
+            }
+            throw new UnsupportedOperationException(String.format(
+                    "the placeholder of element %s can only be used as an argument of the checks of a spec", locator));
+        }
+    }
+
+    private static class ElementsPlaceholder extends AbstractList<WebElement> {
+        private final Placeholder placeholder;
+
+        private ElementsPlaceholder(By locator) {
+            this.placeholder = new Placeholder(locator) {
+                @Override
+                protected Object findIn(SearchContext page) {
+                    return page.findElements(locator);
+                }
+            };
+        }
+
+        @Override
+        public WebElement get(int index) {
+            throw unsupported();
+        }
+
+        @Override
+        public int size() {
+            throw unsupported();
+        }
+
+        private UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException(String.format(
+                    "the placeholder of elements %s can only be used as an argument of the checks of a spec", placeholder.locator));
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return this == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return "placeholder of elements " + placeholder.locator;
+        }
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] arguments, String description) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == arguments[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return description;
+        }
+    }
+}
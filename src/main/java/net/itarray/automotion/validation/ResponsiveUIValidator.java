@@ -4,27 +4,46 @@ import net.itarray.automotion.internal.*;
 import net.itarray.automotion.internal.geometry.Scalar;
 import net.itarray.automotion.validation.properties.Resolution;
 import net.itarray.automotion.validation.properties.Zoom;
+import org.json.simple.JSONObject;
 import org.openqa.selenium.WebDriver;
 
 import java.awt.*;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static net.itarray.automotion.internal.geometry.Scalar.scalar;
 
 public class ResponsiveUIValidator {
 
+    private static final int RESULTS_IN_MEMORY = 500;
+
     protected final DriverFacade driver;
+    private final ResponsiveUIValidator parent;
 
     private boolean withReport = true;
     private final List<String> jsonFiles = new ArrayList<>();
+    private final Map<String, JSONObject> results = new LinkedHashMap<String, JSONObject>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JSONObject> eldest) {
+            return size() > RESULTS_IN_MEMORY;
+        }
+    };
     private net.itarray.automotion.validation.Units units = net.itarray.automotion.validation.Units.PX;
 
     private boolean mobileTopBarOffsetState = false;
     private double mobileTopBarOffset = 20;
-    private final DrawingConfiguration drawingConfiguration = new DrawingConfiguration();
+    private final DrawingConfiguration drawingConfiguration;
     private double scaleFactor = 1;
     private Scalar tolerance = scalar(0);
+    private int maxStoredViolations = Integer.MAX_VALUE;
+    private ScreenshotPipeline screenshotPipeline;
+    private ImageStore imageStore = ImageStore.getInstance();
+    private int regionScreenshotMargin = -1;
+    private ElementTracker elementTracker;
+    private BaselineStore baselines = new BaselineStore(new File(Constants.AUTOMOTION_BASELINE));
 
     public ResponsiveUIValidator(WebDriver driver) {
         this(new DriverFacade(driver));
@@ -33,6 +52,29 @@ public class ResponsiveUIValidator {
 
     public ResponsiveUIValidator(DriverFacade driver) {
         this.driver = driver;
+        this.parent = null;
+        this.drawingConfiguration = new DrawingConfiguration();
+    }
+
+    /**
+     * A validator for another browser session, with the settings of the parent and reporting to the parent.
+     */
+    ResponsiveUIValidator(ResponsiveUIValidator parent, DriverFacade driver) {
+        this.driver = driver;
+        this.parent = parent;
+        this.drawingConfiguration = parent.drawingConfiguration;
+        this.withReport = parent.withReport;
+        this.units = parent.units;
+        this.mobileTopBarOffsetState = parent.mobileTopBarOffsetState;
+        this.mobileTopBarOffset = parent.mobileTopBarOffset;
+        this.scaleFactor = parent.scaleFactor;
+        this.tolerance = parent.tolerance;
+        this.maxStoredViolations = parent.maxStoredViolations;
+        this.screenshotPipeline = parent.screenshotPipeline;
+        this.baselines = parent.baselines;
+        this.imageStore = parent.imageStore;
+        this.regionScreenshotMargin = parent.regionScreenshotMargin;
+        this.elementTracker = parent.elementTracker != null ? new ElementTracker(driver) : null;
     }
 
     public UISnapshot snapshot(String name) {
@@ -91,9 +133,56 @@ public class ResponsiveUIValidator {
         withReport = false;
     }
 
-    public void addJsonFile(String jsonFileName) {
+    /**
+     * Call method to write screenshots and drawings in the background.
+     * Validations only take the screenshot from the browser and record what to draw,
+     * the report generation waits until all images are written.
+     */
+    public ResponsiveUIValidator deferScreenshots() {
+        if (screenshotPipeline == null) {
+            screenshotPipeline = new ScreenshotPipeline(2, 32);
+        }
+        return this;
+    }
+
+    public boolean isDeferringScreenshots() {
+        return screenshotPipeline != null;
+    }
+
+    public ScreenshotPipeline getScreenshotPipeline() {
+        return screenshotPipeline;
+    }
+
+    /**
+     * Call method to wait until all deferred screenshots and drawings are written
+     */
+    public void awaitScreenshots() {
+        if (screenshotPipeline != null) {
+            screenshotPipeline.awaitPending();
+        }
+    }
+
+    public synchronized void addJsonFile(String jsonFileName) {
+        if (parent != null) {
+            parent.addJsonFile(jsonFileName);
+            return;
+        }
         jsonFiles.add(jsonFileName);
     }
+
+    /**
+     * Adds a result that is also written to the results journal, so the report does not need to read it again.
+     * Only the latest results are kept, the report reads older ones from the journal.
+     */
+    public synchronized void addResult(String jsonFileName, JSONObject result) {
+        if (parent != null) {
+            parent.addResult(jsonFileName, result);
+            return;
+        }
+        results.put(jsonFileName, result);
+        addJsonFile(jsonFileName);
+    }
+
     /**
      * Call method to generate HTML report
      */
@@ -106,9 +195,11 @@ public class ResponsiveUIValidator {
      *
      * @param name
      */
-    public void generateReport(String name) {
+    public synchronized void generateReport(String name) {
+        awaitScreenshots();
         if (isWithReport() && !jsonFiles.isEmpty()) {
-            new HtmlReportBuilder().buildReport(name, jsonFiles);
+            new HtmlReportBuilder().buildReport(name, jsonFiles, results);
+            results.clear();
         }
     }
 
@@ -223,6 +314,17 @@ public class ResponsiveUIValidator {
         drawingConfiguration.setLinesColor(color);
     }
 
+    /**
+     * Set whether the drawings of the results are saved as svg (the default) or as transparent png of the screenshot's size
+     *
+     * @param vectorDrawings
+     * @return
+     */
+    public ResponsiveUIValidator withVectorDrawings(boolean vectorDrawings) {
+        drawingConfiguration.setVectorDrawings(vectorDrawings);
+        return this;
+    }
+
     /**
      * Set the tolerance (in pixels) to be used in all verifications.
      *
@@ -241,6 +343,102 @@ public class ResponsiveUIValidator {
         return tolerance;
     }
 
+    /**
+     * Limit the number of violations each validation keeps for its report, e.g. for grids where every cell may be misaligned.
+     * Further violations are only counted.
+     *
+     * @param maxStoredViolations the number of violations to keep
+     * @return
+     */
+    public ResponsiveUIValidator withMaxStoredViolations(int maxStoredViolations) {
+        if (maxStoredViolations < 0) {
+            throw new IllegalArgumentException("maxStoredViolations needs to be greater or equal to zero, maxStoredViolations supplied was " + maxStoredViolations);
+        }
+        this.maxStoredViolations = maxStoredViolations;
+        return this;
+    }
+
+    public int getMaxStoredViolations() {
+        return maxStoredViolations;
+    }
+
+    /**
+     * Set the directory of the reference screenshots, see {@link UISnapshot#compareWithBaseline()}
+     *
+     * @param directory
+     * @return
+     */
+    public ResponsiveUIValidator withBaselineDirectory(File directory) {
+        this.baselines = new BaselineStore(directory);
+        return this;
+    }
+
+    public BaselineStore getBaselines() {
+        return baselines;
+    }
+
+    /**
+     * Call method to reuse the image of a screenshot that looks nearly the same, e.g. apart from a blinking cursor.
+     * Identical screenshots are always written only once.
+     *
+     * @param maxDistance the number of bits (0 - 64) the perceptual hashes of the screenshots may differ in
+     * @return
+     */
+    public ResponsiveUIValidator withNearDuplicateScreenshots(int maxDistance) {
+        this.imageStore = ImageStore.getInstance().withNearDuplicateDistance(maxDistance);
+        return this;
+    }
+
+    public ImageStore getImageStore() {
+        return imageStore;
+    }
+
+    /**
+     * Call method to take the screenshot of a failing validation only of the region around the drawn elements.
+     * Viewport screenshots only scroll through the viewports covering the region, other screenshots are cropped.
+     * The whole screenshot is taken if the region is not on it.
+     *
+     * @param margin the margin (in pixels) around the drawn elements
+     * @return
+     */
+    public ResponsiveUIValidator withRegionScreenshots(int margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException("margin must not be negative: " + margin);
+        }
+        this.regionScreenshotMargin = margin;
+        return this;
+    }
+
+    public boolean isTakingRegionScreenshots() {
+        return regionScreenshotMargin >= 0;
+    }
+
+    public int getRegionScreenshotMargin() {
+        return regionScreenshotMargin;
+    }
+
+    /**
+     * Call method to validate the snapshots of a page incrementally, e.g. after small interactions like opening a menu.
+     * A snapshot only retrieves the elements that changed since the previous snapshot, and validations run with
+     * {@link UISnapshot#check(String, java.util.function.Predicate)} are only run again if one of their elements changed.
+     *
+     * @return
+     */
+    public ResponsiveUIValidator withIncrementalSnapshots() {
+        if (elementTracker == null) {
+            elementTracker = new ElementTracker(driver);
+        }
+        return this;
+    }
+
+    public boolean isValidatingIncrementally() {
+        return elementTracker != null;
+    }
+
+    public ElementTracker getElementTracker() {
+        return elementTracker;
+    }
+
     public DrawingConfiguration getDrawingConfiguration() {
         return drawingConfiguration;
     }
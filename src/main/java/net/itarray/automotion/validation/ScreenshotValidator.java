@@ -0,0 +1,30 @@
+package net.itarray.automotion.validation;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Compares the screenshot of a snapshot with the reference screenshot of the same scenario, resolution and zoom.
+ * A missing reference screenshot is recorded from the snapshot.
+ */
+public interface ScreenshotValidator {
+
+    boolean validate();
+
+    ScreenshotValidator drawMap();
+
+    ScreenshotValidator dontDrawMap();
+
+    /**
+     * @param colorTolerance the difference of a color channel (0 - 255) that is still considered equal
+     */
+    ScreenshotValidator withColorTolerance(int colorTolerance);
+
+    /**
+     * Excludes the area of the element from the comparison, e.g. for changing content like dates or ads
+     */
+    ScreenshotValidator ignoring(WebElement element);
+
+    ScreenshotValidator ignoring(List<WebElement> elements);
+}
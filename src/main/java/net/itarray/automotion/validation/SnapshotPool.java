@@ -0,0 +1,138 @@
+package net.itarray.automotion.validation;
+
+import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.internal.ZoomUnknown;
+import net.itarray.automotion.tools.driver.WebDriverFactory;
+import net.itarray.automotion.validation.properties.Resolution;
+import net.itarray.automotion.validation.properties.Zoom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Validates the same specification in several resolutions and zooms at once, using a pool of browser sessions.
+ * <p>
+ * Every combination of resolution and zoom is validated in a snapshot of its own session.
+ * The results of all sessions go to the report of the validator the pool was created for.
+ * Sessions are created on demand, at most {@code size} of them, and are reused until the pool is closed.
+ */
+public class SnapshotPool implements AutoCloseable {
+
+    private final ResponsiveUIValidator validator;
+    private final Supplier<DriverFacade> sessionFactory;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<DriverFacade> idleSessions = new ConcurrentLinkedQueue<>();
+    private final List<DriverFacade> sessions = new ArrayList<>();
+
+    public SnapshotPool(ResponsiveUIValidator validator, Supplier<DriverFacade> sessionFactory, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size needs to be at least one, size supplied was " + size);
+        }
+        this.validator = validator;
+        this.sessionFactory = sessionFactory;
+        this.executor = Executors.newFixedThreadPool(size);
+    }
+
+    /**
+     * Creates a pool whose sessions are created with a {@link WebDriverFactory}.
+     */
+    public static SnapshotPool withWebDriverFactory(ResponsiveUIValidator validator, WebDriverFactory webDriverFactory, int size) {
+        return new SnapshotPool(validator, () -> new DriverFacade(webDriverFactory.getDriver()), size);
+    }
+
+    /**
+     * Validates the specification in each of the resolutions.
+     *
+     * @param specification loads the page if needed and validates it, e.g. {@code snapshot -> snapshot.findElement(...).isInsideOf(...).validate()}
+     * @return true if the specification holds in all resolutions
+     */
+    public boolean validate(String name, List<Resolution> resolutions, Predicate<UISnapshot> specification) {
+        return validate(name, resolutions, Collections.singletonList(new ZoomUnknown()), specification);
+    }
+
+    /**
+     * Validates the specification in each combination of resolution and zoom.
+     *
+     * @return true if the specification holds in all combinations
+     */
+    public boolean validate(String name, List<Resolution> resolutions, List<Zoom> zooms, Predicate<UISnapshot> specification) {
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (Resolution resolution : resolutions) {
+            for (Zoom zoom : zooms) {
+                futures.add(executor.submit(() -> validateInSession(name, resolution, zoom, specification)));
+            }
+        }
+
+        boolean valid = true;
+        RuntimeException failure = null;
+        for (Future<Boolean> future : futures) {
+            try {
+                valid &= future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return valid;
+    }
+
+    private boolean validateInSession(String name, Resolution resolution, Zoom zoom, Predicate<UISnapshot> specification) {
+        DriverFacade session = borrowSession();
+        try {
+            ResponsiveUIValidator sessionValidator = new ResponsiveUIValidator(validator, session);
+            return specification.test(sessionValidator.snapshot(name, resolution, zoom));
+        } finally {
+            idleSessions.add(session);
+        }
+    }
+
+    private DriverFacade borrowSession() {
+        DriverFacade session = idleSessions.poll();
+        if (session != null) {
+            return session;
+        }
+        session = sessionFactory.get();
+        synchronized (sessions) {
+            sessions.add(session);
+        }
+        return session;
+    }
+
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * Quits all sessions of the pool.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        synchronized (sessions) {
+            for (DriverFacade session : sessions) {
+                if (session.getDriver() != null) {
+                    session.getDriver().quit();
+                }
+            }
+            sessions.clear();
+        }
+        idleSessions.clear();
+    }
+}
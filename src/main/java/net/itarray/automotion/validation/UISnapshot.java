@@ -1,14 +1,37 @@
 package net.itarray.automotion.validation;
 
+import net.itarray.automotion.internal.CSSCache;
 import net.itarray.automotion.internal.DrawableScreenshot;
+import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.internal.ElementTracker.CapturedElement;
+import net.itarray.automotion.internal.ImageStore;
+import net.itarray.automotion.internal.PageMetrics;
 import net.itarray.automotion.internal.ResponsiveUIChunkValidatorBase;
+import net.itarray.automotion.internal.ResponsiveUIValidatorBase;
+import net.itarray.automotion.internal.ScreenshotValidatorBase;
+import net.itarray.automotion.internal.UIElement;
 import net.itarray.automotion.internal.UIValidatorBase;
+import net.itarray.automotion.internal.ZoomImpl;
+import net.itarray.automotion.internal.ZoomUnknown;
+import net.itarray.automotion.internal.geometry.SpatialIndex;
+import net.itarray.automotion.internal.geometry.Vector;
 import net.itarray.automotion.validation.properties.Resolution;
 import net.itarray.automotion.validation.properties.Zoom;
 import org.openqa.selenium.WebElement;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class UISnapshot {
 
@@ -16,29 +39,148 @@ public class UISnapshot {
     private final String name;
     private final Resolution resolution;
     private final Zoom zoom;
-    private File screenshotName;
+    private volatile File screenshotName;
+    private boolean screenshotTaken;
+    private CompletableFuture<BufferedImage> deferredScreenshot;
+    private BufferedImage screenshotImage;
+    private CompletableFuture<Vector> screenshotExtend;
+    private PageMetrics pageMetrics;
+    private int pageMetricsLayoutVersion;
+    private CSSCache cssCache;
+    private final Map<List<WebElement>, SpatialIndex<UIElement>> spatialIndexes = new HashMap<>();
+    private int spatialIndexesLayoutVersion;
 
     public UISnapshot(ResponsiveUIValidator responsiveUIValidator, String name, Resolution resolution, Zoom zoom) {
         this.responsiveUIValidator = responsiveUIValidator;
         this.name = name;
         this.resolution = resolution.queryIfUnknown(responsiveUIValidator.driver);
-        this.zoom = zoom.queryIfUnknown(responsiveUIValidator.driver);
+        this.zoom = zoom;
         if (!responsiveUIValidator.getDriver().isAppiumContext()) {
             resolution.applyTo(responsiveUIValidator.driver);
             zoom.applyTo(responsiveUIValidator.driver);
         }
+        if (responsiveUIValidator.isValidatingIncrementally()) {
+            responsiveUIValidator.getElementTracker().startSnapshot(String.format("%s - %s", this.resolution, getZoom()));
+        }
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * @return the zoom of the snapshot, an unknown zoom is taken from the page metrics
+     */
+    public Zoom getZoom() {
+        return zoom instanceof ZoomUnknown ? ZoomImpl.of(getPageMetrics().getZoom()) : zoom;
+    }
+
     public double getZoomFactor() {
-        return zoom.getFactor(responsiveUIValidator.getDriver());
+        return getZoom().getFactor(responsiveUIValidator.getDriver());
     }
 
     public String getDescription() {
-        return String.format("%s - resolution: %s - zoom: %s", name, resolution, zoom);
+        return String.format("%s - resolution: %s - zoom: %s", name, resolution, getZoom());
+    }
+
+    /**
+     * @return the page metrics, retrieved once for all validations of this snapshot unless resolution or zoom change
+     */
+    public synchronized PageMetrics getPageMetrics() {
+        DriverFacade driver = responsiveUIValidator.getDriver();
+        if (pageMetrics == null || pageMetricsLayoutVersion != driver.getLayoutVersion()) {
+            pageMetricsLayoutVersion = driver.getLayoutVersion();
+            pageMetrics = driver.retrievePageMetrics();
+        }
+        return pageMetrics;
+    }
+
+    /**
+     * @return the css values of the elements of this snapshot, retrieved once unless resolution or zoom change
+     */
+    public synchronized CSSCache getCssCache() {
+        if (cssCache == null) {
+            cssCache = new CSSCache(responsiveUIValidator.getDriver());
+        }
+        return cssCache;
+    }
+
+    /**
+     * Retrieves the css values of the elements with a single script execution,
+     * e.g. before validating several css properties of many elements.
+     */
+    public void prefetchCssValues(List<WebElement> webElements, String... cssProperties) {
+        getCssCache().prefetch(webElements, Arrays.asList(cssProperties));
+    }
+
+    /**
+     * @return the spatial index over the elements, built once for all validations of this snapshot unless resolution or zoom change
+     */
+    public synchronized SpatialIndex<UIElement> getSpatialIndex(List<WebElement> webElements) {
+        DriverFacade driver = responsiveUIValidator.getDriver();
+        if (spatialIndexesLayoutVersion != driver.getLayoutVersion()) {
+            spatialIndexesLayoutVersion = driver.getLayoutVersion();
+            spatialIndexes.clear();
+        }
+        return spatialIndexes.computeIfAbsent(new ArrayList<>(webElements), elements ->
+                new SpatialIndex<>(asElements(elements), UIElement::getBounds));
+    }
+
+    public UIElement asElement(WebElement webElement) {
+        return asElement(webElement, null);
+    }
+
+    /**
+     * @param name the name of the element, null for a name made of its properties
+     * @return the element, retrieved only if it changed since the previous snapshot when validating incrementally
+     */
+    public UIElement asElement(WebElement webElement, String name) {
+        if (!responsiveUIValidator.isValidatingIncrementally()) {
+            return name == null
+                    ? UIElement.asElement(webElement)
+                    : UIElement.asElement(webElement, name, getCssCache().sourceFor(webElement));
+        }
+        List<WebElement> webElements = Collections.singletonList(webElement);
+        return asTrackedElements(webElements, name).get(0);
+    }
+
+    /**
+     * @return the elements, only the ones that changed since the previous snapshot are retrieved when validating incrementally
+     */
+    public List<UIElement> asElements(List<WebElement> webElements) {
+        if (!responsiveUIValidator.isValidatingIncrementally()) {
+            return UIElement.asElements(webElements, responsiveUIValidator.getDriver(), getCssCache());
+        }
+        return asTrackedElements(webElements, null);
+    }
+
+    private List<UIElement> asTrackedElements(List<WebElement> webElements, String name) {
+        List<CapturedElement> captured = responsiveUIValidator.getElementTracker().capture(webElements);
+        List<UIElement> elements = new ArrayList<>(webElements.size());
+        for (int i = 0; i < webElements.size(); i++) {
+            CapturedElement element = captured.get(i);
+            elements.add(UIElement.asCapturedElement(name, element.getRectangle(), element.getTagName(), element.getText(),
+                    getCssCache().sourceFor(webElements.get(i), webElements)));
+        }
+        return elements;
+    }
+
+    /**
+     * Runs the validation, e.g. {@code snapshot.check("menu", s -> s.findElement(menu, "menu").isInsideOf(header, "header").validate())}.
+     * <p>
+     * When validating incrementally (see {@link ResponsiveUIValidator#withIncrementalSnapshots()}) a validation that ran
+     * for a previous snapshot is only run again if one of the elements it retrieved changed since, otherwise its previous
+     * result is returned and the violations it reported then are reported again for this snapshot.
+     *
+     * @param name identifies the validation across snapshots
+     * @return the result of the validation
+     */
+    public boolean check(String name, Predicate<UISnapshot> validation) {
+        if (!responsiveUIValidator.isValidatingIncrementally()) {
+            return validation.test(this);
+        }
+        return responsiveUIValidator.getElementTracker().check(name, () -> validation.test(this),
+                previous -> ResponsiveUIValidatorBase.reportAgain(this, previous));
     }
 
     public ResponsiveUIValidator getResponsiveUIValidator() {
@@ -61,10 +203,80 @@ public class UISnapshot {
         return new ResponsiveUIChunkValidatorBase(this, webElements, true);
     }
 
-    public File takeScreenshot() {
-        if (screenshotName == null) {
-            screenshotName = DrawableScreenshot.takeScreenshot(responsiveUIValidator.getDriver(), getName());
+    /**
+     * Compares the screenshot of this snapshot with the reference screenshot of the same name, resolution and zoom,
+     * see {@link ResponsiveUIValidator#withBaselineDirectory(File)}
+     */
+    public ScreenshotValidator compareWithBaseline() {
+        return new ScreenshotValidatorBase(this);
+    }
+
+    public File getBaselineFile() {
+        return responsiveUIValidator.getBaselines().baselineFile(name, resolution, getZoom());
+    }
+
+    /**
+     * @return the screenshot of this snapshot, taken once and shared with the drawings of the validations
+     */
+    public synchronized BufferedImage getScreenshotImage() {
+        if (screenshotImage == null) {
+            if (!screenshotTaken && !responsiveUIValidator.isDeferringScreenshots()) {
+                screenshotTaken = true;
+                screenshotImage = responsiveUIValidator.getDriver().captureScreenshot(getPageMetrics()).get();
+                screenshotName = responsiveUIValidator.getImageStore().store(screenshotImage);
+                return screenshotImage;
+            }
+            File file = takeScreenshot();
+            if (deferredScreenshot != null) {
+                screenshotImage = deferredScreenshot.join();
+            } else {
+                try {
+                    screenshotImage = ImageIO.read(file);
+                } catch (IOException e) {
+                    throw new RuntimeException("Cannot read screenshot: " + file, e);
+                }
+            }
         }
+        return screenshotImage;
+    }
+
+    /**
+     * @return the file of the screenshot in the image store, null while a deferred screenshot is not stored yet
+     */
+    public synchronized File takeScreenshot() {
+        if (!screenshotTaken) {
+            screenshotTaken = true;
+            if (responsiveUIValidator.isDeferringScreenshots()) {
+                takeDeferredScreenshot();
+            } else {
+                screenshotName = DrawableScreenshot.takeScreenshot(responsiveUIValidator.getDriver(), getName(), responsiveUIValidator.getImageStore(), getPageMetrics());
+            }
+        }
+        return screenshotName;
+    }
+
+    /**
+     * @return the file of the screenshot in the image store, null if it is not taken or not stored yet
+     */
+    public File getScreenshotName() {
         return screenshotName;
     }
+
+    /**
+     * @return the extend of the screenshot once it is stored, only available for deferred screenshots
+     */
+    public CompletableFuture<Vector> getScreenshotExtend() {
+        return screenshotExtend;
+    }
+
+    private void takeDeferredScreenshot() {
+        Supplier<BufferedImage> image = responsiveUIValidator.getDriver().captureScreenshot(getPageMetrics());
+        ImageStore imageStore = responsiveUIValidator.getImageStore();
+        deferredScreenshot = responsiveUIValidator.getScreenshotPipeline().supply(() -> {
+            BufferedImage screenshot = image.get();
+            screenshotName = imageStore.store(screenshot);
+            return screenshot;
+        });
+        screenshotExtend = deferredScreenshot.thenApply(screenshot -> new Vector(screenshot.getWidth(), screenshot.getHeight()));
+    }
 }
@@ -7,6 +7,7 @@ import net.itarray.automotion.internal.properties.Between;
 import net.itarray.automotion.internal.properties.BinaryScalarConditionWithFixedOperand;
 import net.itarray.automotion.internal.properties.ConditionedExpressionDescription;
 import net.itarray.automotion.internal.properties.ConditionedExpression;
+import net.itarray.automotion.internal.properties.ConstantExpression;
 import net.itarray.automotion.internal.properties.Context;
 import net.itarray.automotion.internal.properties.ContextBiFunction;
 import net.itarray.automotion.internal.properties.PixelConstant;
@@ -120,6 +121,14 @@ public interface Condition<T> {
         return applyTo(toBeConditioned).evaluateIn(context, direction);
     }
 
+    /**
+     * Tests an already evaluated value, without building an expression for it.
+     * Conditions with fixed limits test the value directly, so a check that holds needs no allocation and no description.
+     */
+    default <V extends MetricSpace<V>> boolean isSatisfiedBy(T value, Context context, ExtendGiving<V> direction) {
+        return isSatisfiedOn(new ConstantExpression<>(value), context, direction);
+    }
+
     default Expression<Boolean> applyTo(Expression<T> toBeConditioned) {
         return new ConditionedExpression<>(toBeConditioned, this);
     }
@@ -245,4 +245,54 @@ public class ResponsiveUIChunkValidator extends AbstractValidator implements Chu
         getBase().areInsideOf(containerElement, readableContainerName);
         return this;
     }
+
+    /**
+     * Verify that every element is located inside of one of the specified elements
+     *
+     * @param containerElements
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator areInsideOfAnyOf(List<WebElement> containerElements) {
+        getBase().areInsideOfAnyOf(containerElements);
+        return this;
+    }
+
+    /**
+     * Verify that no element is overlapped with one of the specified elements
+     *
+     * @param otherElements
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator doNotOverlapWith(List<WebElement> otherElements) {
+        getBase().doNotOverlapWith(otherElements);
+        return this;
+    }
+
+    /**
+     * Verify that all elements have correct CSS values
+     *
+     * @param cssProperty
+     * @param args
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator haveCssValue(String cssProperty, String... args) {
+        getBase().haveCssValue(cssProperty, args);
+        return this;
+    }
+
+    /**
+     * Verify that concrete CSS values are absent for all elements
+     *
+     * @param cssProperty
+     * @param args
+     * @return ResponsiveUIValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator doNotHaveCssValue(String cssProperty, String... args) {
+        getBase().doNotHaveCssValue(cssProperty, args);
+        return this;
+    }
 }
\ No newline at end of file
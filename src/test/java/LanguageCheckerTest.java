@@ -1,8 +1,26 @@
+import net.itarray.automotion.internal.DrawableScreenshot;
+import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.tools.general.SystemHelper;
+import net.itarray.automotion.tools.helpers.TextBlock;
 import org.junit.Assert;
 import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import rectangles.DummyDriverFacade;
 import util.validator.LanguageChecker;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class LanguageCheckerTest {
 
@@ -29,4 +47,89 @@ public class LanguageCheckerTest {
         String actualLanguage = languageChecker.getRecognisedLanguage("Busque información sobre temas médicos, síntomas, fármacos, procedimientos, noticias y mucho más, escrita en lenguaje cotidiano.").get().getLanguage();
         Assert.assertEquals(expectedLanguage, actualLanguage);
     }
+
+    private static final String ENGLISH = "Find information on medical topics, symptoms, drugs, procedures, news and more, written in everyday language.";
+    private static final String SPANISH = "Busque información sobre temas médicos, síntomas, fármacos, procedimientos, noticias y mucho más, escrita en lenguaje cotidiano.";
+
+    @Test
+    public void testThatPageInOneLanguageIsCorrect() throws IOException {
+        WebDriver driver = driverWithBlocks(block("/html[1]/body[1]/h1[1]", "Medline", 0, 0), block("/html[1]/body[1]/p[1]", ENGLISH, 0, 40), block("/html[1]/body[1]/p[2]", ENGLISH, 0, 80));
+        Assert.assertTrue(net.itarray.automotion.tools.helpers.LanguageChecker.isCorrectLanguageOnThePage(driver, "en"));
+    }
+
+    @Test
+    public void testThatUntranslatedBlockIsFound() throws IOException {
+        WebDriver driver = driverWithBlocks(block("/html[1]/body[1]/p[1]", ENGLISH, 0, 40), block("/html[1]/body[1]/p[2]", SPANISH, 0, 80));
+        Assert.assertFalse(net.itarray.automotion.tools.helpers.LanguageChecker.isCorrectLanguageOnThePage(driver, "en"));
+    }
+
+    @Test
+    public void testThatUntranslatedBlocksAreReportedWithTheirElements() throws IOException {
+        WebDriver driver = driverWithBlocks(
+                block("/html[1]/body[1]/p[1]", SPANISH, 10, 40),
+                block("/html[1]/body[1]/p[2]", ENGLISH, 10, 80),
+                block("/html[1]/body[1]/div[1]/span[1]", SPANISH, 10, 120));
+
+        List<TextBlock> untranslated = net.itarray.automotion.tools.helpers.LanguageChecker.getUntranslatedBlocks(driver, "en");
+
+        Assert.assertEquals(2, untranslated.size());
+        Assert.assertEquals("/html[1]/body[1]/p[1]", untranslated.get(0).getPath());
+        Assert.assertEquals("/html[1]/body[1]/div[1]/span[1]", untranslated.get(1).getPath());
+        Assert.assertEquals(120, untranslated.get(1).getY());
+        Assert.assertEquals(400, untranslated.get(1).getWidth());
+    }
+
+    @Test
+    public void testThatPageWithoutTextIsNotCorrect() throws IOException {
+        WebDriver driver = driverWithBlocks();
+        Assert.assertFalse(net.itarray.automotion.tools.helpers.LanguageChecker.isCorrectLanguageOnThePage(driver, "en"));
+    }
+
+    @Test
+    public void testThatRepeatedTextIsRecognisedOnce() throws IOException {
+        net.itarray.automotion.tools.helpers.LanguageChecker.clearCache();
+        long detections = net.itarray.automotion.tools.helpers.LanguageChecker.getDetectionCount();
+
+        Assert.assertEquals("en", LanguageChecker.getRecognisedLanguage(ENGLISH).get().getLanguage());
+        Assert.assertEquals("en", LanguageChecker.getRecognisedLanguage(ENGLISH).get().getLanguage());
+        Assert.assertEquals("es", LanguageChecker.getRecognisedLanguage(SPANISH).get().getLanguage());
+
+        Assert.assertEquals(detections + 2, net.itarray.automotion.tools.helpers.LanguageChecker.getDetectionCount());
+    }
+
+    @Test
+    public void testThatBlocksAreDrawnScaledByTheZoomOfThePage() throws IOException {
+        DriverFacade driver = new DummyDriverFacade() {
+            @Override
+            public String getZoom() {
+                return "50%";
+            }
+        };
+        TextBlock block = new TextBlock("/html[1]/body[1]/p[1]", SPANISH, 100, 40, 400, 30);
+
+        DrawableScreenshot drawableScreenshot = net.itarray.automotion.tools.helpers.LanguageChecker.drawBlocks(driver, Arrays.asList(block), "blocks");
+
+        double scaleFactor = 0.5 * (SystemHelper.isRetinaDisplay() ? 2 : 1);
+        String drawings = new String(Files.readAllBytes(drawableScreenshot.getDrawingsOutput().toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(drawings, drawings.contains(String.format("<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\"",
+                (int) (100 * scaleFactor), (int) (40 * scaleFactor), (int) (400 * scaleFactor), (int) (30 * scaleFactor))));
+    }
+
+    private static WebDriver driverWithBlocks(Map<String, Object>... blocks) {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        when(((JavascriptExecutor) driver).executeScript(anyString())).thenReturn(Arrays.asList(blocks));
+        when(driver.getCurrentUrl()).thenReturn("http://localhost/");
+        return driver;
+    }
+
+    private static Map<String, Object> block(String path, String text, long x, long y) {
+        Map<String, Object> block = new HashMap<>();
+        block.put("path", path);
+        block.put("text", text);
+        block.put("x", x);
+        block.put("y", y);
+        block.put("width", 400L);
+        block.put("height", 30L);
+        return block;
+    }
 }
@@ -0,0 +1,139 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.BaselineStore;
+import net.itarray.automotion.internal.PageMetrics;
+import net.itarray.automotion.internal.ResponsiveUIValidatorBase;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.ScreenshotValidator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rectangles.DummyDriverFacade;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static rectangles.DummyWebElement.createElement;
+
+public class BaselineComparisonTest {
+
+    @Rule
+    public TemporaryFolder baselineDirectory = new TemporaryFolder();
+
+    private BufferedImage screen;
+    private ResponsiveUIValidator validator;
+
+    @Before
+    public void setUp() {
+        screen = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        fill(Color.WHITE, 0, 0, 800, 600);
+        validator = new ResponsiveUIValidator(new DummyDriverFacade() {
+            @Override
+            public Supplier<BufferedImage> captureScreenshot(PageMetrics pageMetrics) {
+                BufferedImage copy = new BufferedImage(screen.getWidth(), screen.getHeight(), screen.getType());
+                copy.setData(screen.getData());
+                return () -> copy;
+            }
+        }).deferScreenshots().withBaselineDirectory(baselineDirectory.getRoot());
+        validator.dontDrawMap();
+    }
+
+    @Test
+    public void aMissingBaselineIsRecorded() {
+        assertThat(validator.snapshot("home").compareWithBaseline().validate()).isTrue();
+        assertThat(validator.snapshot("home").getBaselineFile()).exists();
+        assertThat(validator.snapshot("home").compareWithBaseline().validate()).isTrue();
+    }
+
+    @Test
+    public void changesAreReportedAtTheirPositionOnThePage() {
+        validator.snapshot("home").compareWithBaseline().validate();
+        fill(Color.RED, 100, 50, 300, 80);
+
+        ScreenshotValidator comparison = validator.snapshot("home").compareWithBaseline();
+
+        assertThat(comparison.validate()).isFalse();
+        assertThat(((ResponsiveUIValidatorBase) comparison).getErrors().getLastMessage())
+                .endsWith("at [(100,50) - 200x30]");
+    }
+
+    @Test
+    public void changesInIgnoredElementsAndWithinTheToleranceAreAccepted() {
+        validator.snapshot("home").compareWithBaseline().validate();
+        fill(Color.RED, 100, 50, 300, 80);
+        fill(new Color(250, 250, 250), 400, 400, 500, 500);
+
+        assertThat(validator.snapshot("home").compareWithBaseline()
+                .ignoring(createElement(90, 40, 310, 90))
+                .withColorTolerance(5)
+                .validate()).isTrue();
+    }
+
+    @Test
+    public void theBaselineOfASnapshotWithUnknownZoomIsNamedAfterTheZoomOfThePage() {
+        assertThat(validator.snapshot("home").getBaselineFile().getName()).endsWith("-100_.png");
+    }
+
+    @Test
+    public void baselinesAreDecodedOnceUntilTheyAreStoredAgain() {
+        validator.snapshot("home").compareWithBaseline().validate();
+        BaselineStore baselines = validator.getBaselines();
+        File baselineFile = validator.snapshot("home").getBaselineFile();
+
+        BufferedImage baseline = baselines.load(baselineFile);
+
+        assertThat(baselines.load(baselineFile)).isSameAs(baseline);
+        baselines.store(baselineFile, screen);
+        assertThat(baselines.load(baselineFile)).isNotSameAs(baseline);
+    }
+
+    @Test
+    public void baselinesAreKeptWithTheirPixelsStoredAsInts() {
+        BaselineStore baselines = validator.getBaselines();
+        File baselineFile = validator.snapshot("home").getBaselineFile();
+        BufferedImage bytes = new BufferedImage(800, 600, BufferedImage.TYPE_3BYTE_BGR);
+        bytes.setRGB(10, 20, 0x123456);
+        baselines.store(baselineFile, bytes);
+
+        BufferedImage baseline = baselines.load(baselineFile);
+
+        assertThat(baseline.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(baseline.getRGB(10, 20) & 0xFFFFFF).isEqualTo(0x123456);
+    }
+
+    @Test
+    public void colorTolerancesOutsideOfAColorChannelAreRejected() {
+        assertThatThrownBy(() -> validator.snapshot("home").compareWithBaseline().withColorTolerance(256))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.snapshot("home").compareWithBaseline().withColorTolerance(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void baselinesThatAreNoImagesAreRejected() throws IOException {
+        File baselineFile = validator.snapshot("home").getBaselineFile();
+        Files.write(baselineFile.toPath(), "no image".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> validator.getBaselines().load(baselineFile))
+                .hasMessageContaining(baselineFile.getName());
+    }
+
+    private void fill(Color color, int originX, int originY, int cornerX, int cornerY) {
+        Graphics2D graphics = screen.createGraphics();
+        try {
+            graphics.setColor(color);
+            graphics.fillRect(originX, originY, cornerX - originX, cornerY - originY);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.ResponsiveUIValidatorBase;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+import rectangles.DummyWebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class CSSCacheTest {
+
+    private List<WebElement> cells;
+    private int cssCaptures;
+    private boolean captureFails;
+    private ScriptingDriverFacade driver;
+
+    @Before
+    public void setUp() {
+        cells = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            DummyWebElement cell = (DummyWebElement) createElement(i * 10, 0, i * 10 + 10, 10);
+            cell.putCssValue("font-size", "14px");
+            cell.putCssValue("color", "rgba(0, 0, 0, 1)");
+            cell.putCssValue("padding", "4px");
+            cells.add(cell);
+        }
+        ((DummyWebElement) cells.get(7)).putCssValue("font-size", "16px");
+        driver = new ScriptingDriverFacade();
+        driver.setPageSize(new Dimension(2000, 1000));
+    }
+
+    @Test
+    public void valuesOfAChunkAreRetrievedOncePerProperty() {
+        ResponsiveUIValidatorBase chunk = (ResponsiveUIValidatorBase) snapshot().findElements(cells)
+                .haveCssValue("font-size", "14px")
+                .haveCssValue("color", "rgba(0, 0, 0, 1)")
+                .doNotHaveCssValue("padding", "8px")
+                .haveCssValue("font-size", "14px");
+
+        assertThat(cssCaptures).isEqualTo(3);
+        assertThat(chunk.getErrors().getCount()).isEqualTo(2);
+        assertThat(chunk.getErrors().getLastMessage()).isEqualTo("Expected value of 'font-size' is '14px'. Actual value is '16px'");
+    }
+
+    @Test
+    public void prefetchedValuesNeedASingleRetrieval() {
+        UISnapshot snapshot = snapshot();
+        snapshot.prefetchCssValues(cells, "font-size", "color", "padding");
+
+        boolean valid = snapshot.findElements(cells)
+                .haveCssValue("color", "rgba(0, 0, 0, 1)")
+                .doNotHaveCssValue("padding", "8px")
+                .validate();
+        boolean validElement = snapshot.findElement(cells.get(3), "cell").hasCssValue("font-size", "14px").validate();
+
+        assertThat(valid).isTrue();
+        assertThat(validElement).isTrue();
+        assertThat(cssCaptures).isEqualTo(1);
+    }
+
+    @Test
+    public void valuesAreRetrievedAgainAfterTheLayoutChanged() {
+        UISnapshot snapshot = snapshot();
+        snapshot.findElements(cells).haveCssValue("font-size", "14px");
+        driver.setResolution(new Dimension(800, 600));
+        snapshot.findElements(cells).haveCssValue("font-size", "14px");
+
+        assertThat(cssCaptures).isEqualTo(2);
+    }
+
+    @Test
+    public void elementsAreQueriedOnTheirOwnIfTheScriptFails() {
+        captureFails = true;
+
+        boolean valid = snapshot().findElements(cells).haveCssValue("padding", "4px").validate();
+
+        assertThat(valid).isTrue();
+        assertThat(cssCaptures).isEqualTo(1);
+    }
+
+    private UISnapshot snapshot() {
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(driver);
+        validator.dontDrawMap();
+        return validator.snapshot();
+    }
+
+    private class ScriptingDriverFacade extends DummyDriverFacade {
+        @Override
+        public boolean canCaptureElements() {
+            return true;
+        }
+
+        @Override
+        public List<Object> captureElements(List<WebElement> elements) {
+            throw new WebDriverException("geometry is queried per element in this test");
+        }
+
+        @Override
+        public List<Object> captureCssValues(List<WebElement> webElements, List<String> cssProperties) {
+            cssCaptures++;
+            if (captureFails) {
+                throw new WebDriverException("script failed");
+            }
+            List<Object> values = new ArrayList<>();
+            for (WebElement element : webElements) {
+                for (String property : cssProperties) {
+                    values.add(element.getCssValue(property));
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.DrawableScreenshot;
+import net.itarray.automotion.internal.UIValidatorBase;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import rectangles.DummyDriverFacade;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static net.itarray.automotion.validation.properties.Condition.greaterThan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class DeferredScreenshotTest {
+
+    private ResponsiveUIValidator validator;
+    private UISnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        validator = new ResponsiveUIValidator(new DummyDriverFacade()).deferScreenshots();
+        validator.drawMap();
+        snapshot = validator.snapshot("deferred");
+    }
+
+    @Test
+    public void screenshotAndDrawingsAreWrittenInTheBackground() throws IOException {
+        UIValidatorBase element = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "element")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+
+        assertThat(element.validate()).isFalse();
+        validator.awaitScreenshots();
+
+        DrawableScreenshot drawableScreenshot = element.getDrawableScreenshot();
+        BufferedImage screenshot = ImageIO.read(drawableScreenshot.getScreenshotName());
+        String drawings = new String(Files.readAllBytes(drawableScreenshot.getDrawingsOutput().toPath()), StandardCharsets.UTF_8);
+        assertThat(screenshot.getWidth()).isEqualTo(2000);
+        assertThat(drawableScreenshot.getDrawingsOutput().getName()).endsWith(".svg");
+        assertThat(drawings).contains("width=\"2000\" height=\"1000\"");
+        assertThat(drawings).contains("<rect x=\"10\" y=\"20\" width=\"100\" height=\"50\" fill=\"none\" stroke=\"#ff0000\" stroke-width=\"2\"/>");
+    }
+
+    @Test
+    public void drawingsCanBeSavedAsImagesOfTheScreenshotsSize() throws IOException {
+        validator.withVectorDrawings(false);
+        UIValidatorBase element = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "element")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+
+        assertThat(element.validate()).isFalse();
+        validator.awaitScreenshots();
+
+        BufferedImage drawings = ImageIO.read(element.getDrawableScreenshot().getDrawingsOutput());
+        assertThat(drawings.getWidth()).isEqualTo(2000);
+        assertThat(drawings.getHeight()).isEqualTo(1000);
+        assertThat(drawings.getRGB(10, 20) >>> 24).isNotZero();
+    }
+
+    @Test
+    public void validationsOfASnapshotShareTheScreenshot() {
+        UIValidatorBase first = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "first")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+        UIValidatorBase second = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "second")
+                .hasWidth(greaterThan(200));
+
+        first.validate();
+        second.validate();
+        validator.awaitScreenshots();
+
+        assertThat(first.getDrawableScreenshot().getScreenshotName())
+                .isEqualTo(second.getDrawableScreenshot().getScreenshotName())
+                .exists();
+        assertThat(first.getDrawableScreenshot().getDrawingsOutput()).exists();
+        assertThat(second.getDrawableScreenshot().getDrawingsOutput()).exists();
+    }
+
+    @Test
+    public void identicalScreensOfSnapshotsAreStoredOnce() {
+        UIValidatorBase first = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "first")
+                .hasWidth(greaterThan(200));
+        UIValidatorBase second = (UIValidatorBase) validator.snapshot("other").findElement(createElement(10, 20, 110, 70), "second")
+                .hasWidth(greaterThan(200));
+
+        first.validate();
+        second.validate();
+        validator.awaitScreenshots();
+
+        assertThat(first.getDrawableScreenshot().getScreenshotName())
+                .isEqualTo(second.getDrawableScreenshot().getScreenshotName());
+        assertThat(first.getDrawableScreenshot().getDrawingsOutput())
+                .isEqualTo(second.getDrawableScreenshot().getDrawingsOutput())
+                .exists();
+    }
+}
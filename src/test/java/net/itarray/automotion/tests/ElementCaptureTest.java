@@ -0,0 +1,74 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.UIElement;
+import net.itarray.automotion.internal.geometry.Vector;
+import org.junit.Test;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class ElementCaptureTest {
+
+    private final List<WebElement> webElements = Arrays.asList(
+            createElement(10, 20, 110, 70),
+            createElement(200, 20, 300, 70));
+
+    @Test
+    public void elementsAreBuiltFromThePackedCapture() {
+        DummyDriverFacade driver = new DummyDriverFacade() {
+            @Override
+            public boolean canCaptureElements() {
+                return true;
+            }
+
+            @Override
+            public List<Object> captureElements(List<WebElement> elements) {
+                return Arrays.asList(
+                        10L, 20L, 100L, 50L, "div", "first card",
+                        200L, 20L, 100L, 50L, "span", "a rather long text");
+            }
+        };
+
+        List<UIElement> elements = UIElement.asElements(webElements, driver);
+
+        assertThat(elements).hasSize(2);
+        assertThat(elements.get(0).getOrigin()).isEqualTo(new Vector(10, 20));
+        assertThat(elements.get(0).getCorner()).isEqualTo(new Vector(110, 70));
+        assertThat(elements.get(0).getName()).isEqualTo("with properties: tag=[div], text=[first card], coord=[10,20], size=[100,50]");
+        assertThat(elements.get(1).getName()).isEqualTo("with properties: tag=[span], text=[a rather l...], coord=[200,20], size=[100,50]");
+    }
+
+    @Test
+    public void fallsBackToSingleElementQueriesIfTheCaptureFails() {
+        DummyDriverFacade driver = new DummyDriverFacade() {
+            @Override
+            public boolean canCaptureElements() {
+                return true;
+            }
+
+            @Override
+            public List<Object> captureElements(List<WebElement> elements) {
+                throw new WebDriverException("script failed");
+            }
+        };
+
+        List<UIElement> elements = UIElement.asElements(webElements, driver);
+
+        assertThat(elements).extracting(UIElement::getName).containsExactly(
+                "with properties: tag=[null], text=[], coord=[10,20], size=[100,50]",
+                "with properties: tag=[null], text=[], coord=[200,20], size=[100,50]");
+    }
+
+    @Test
+    public void driversWithoutScriptSupportAreQueriedPerElement() {
+        List<UIElement> elements = UIElement.asElements(webElements, new DummyDriverFacade());
+
+        assertThat(elements.get(1).getCorner()).isEqualTo(new Vector(300, 70));
+    }
+}
@@ -0,0 +1,108 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.ImageDiff;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageDiffTest {
+
+    private BufferedImage baseline;
+    private BufferedImage actual;
+
+    @Before
+    public void setUp() {
+        baseline = page(BufferedImage.TYPE_INT_RGB);
+        actual = page(BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    public void equalImagesDoNotDiffer() {
+        assertThat(diff(0).diff(baseline, actual)).isEmpty();
+    }
+
+    @Test
+    public void changedPixelsAreReportedAsOneRegion() {
+        fill(actual, new Color(200, 0, 0), 100, 200, 400, 260);
+
+        assertThat(diff(0).diff(baseline, actual)).usingFieldByFieldElementComparator().containsExactly(new Rectangle(100, 200, 400, 260));
+    }
+
+    @Test
+    public void distantChangesAreReportedSeparately() {
+        fill(actual, Color.RED, 10, 10, 20, 20);
+        fill(actual, Color.RED, 900, 700, 910, 705);
+
+        assertThat(diff(0).diff(baseline, actual)).usingFieldByFieldElementComparator().containsExactly(
+                new Rectangle(10, 10, 20, 20),
+                new Rectangle(900, 700, 910, 705));
+    }
+
+    @Test
+    public void colorsWithinTheToleranceAreEqual() {
+        fill(actual, new Color(252, 250, 255), 0, 100, 50, 150);
+
+        assertThat(diff(5).diff(baseline, actual)).isEmpty();
+        assertThat(diff(4).diff(baseline, actual)).hasSize(1);
+    }
+
+    @Test
+    public void ignoredRegionsAreNotCompared() {
+        fill(actual, Color.BLUE, 100, 100, 200, 150);
+        fill(actual, Color.BLUE, 500, 500, 510, 510);
+
+        ImageDiff diff = new ImageDiff(0, Collections.singletonList(new Rectangle(90, 90, 210, 160)));
+
+        assertThat(diff.diff(baseline, actual)).usingFieldByFieldElementComparator().containsExactly(new Rectangle(500, 500, 510, 510));
+    }
+
+    @Test
+    public void imagesOfOtherTypesAreCompared() {
+        BufferedImage png = page(BufferedImage.TYPE_3BYTE_BGR);
+        fill(png, Color.GREEN, 300, 300, 301, 301);
+
+        assertThat(diff(0).diff(baseline, png)).usingFieldByFieldElementComparator().containsExactly(new Rectangle(300, 300, 301, 301));
+        assertThat(diff(0).diff(page(BufferedImage.TYPE_INT_ARGB), actual)).isEmpty();
+        BufferedImage abgr = page(BufferedImage.TYPE_4BYTE_ABGR);
+        fill(actual, Color.RED, 300, 300, 301, 301);
+        fill(abgr, Color.RED, 300, 300, 301, 301);
+        assertThat(diff(0).diff(abgr, actual)).isEmpty();
+        assertThat(diff(0).diff(page(BufferedImage.TYPE_4BYTE_ABGR), png)).usingFieldByFieldElementComparator().containsExactly(new Rectangle(300, 300, 301, 301));
+    }
+
+    @Test
+    public void imagesOfDifferentSizesDifferEverywhere() {
+        BufferedImage larger = new BufferedImage(1024, 900, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(diff(0).diff(baseline, larger)).usingFieldByFieldElementComparator().containsExactly(new Rectangle(0, 0, 1024, 900));
+    }
+
+    private static ImageDiff diff(int colorTolerance) {
+        return new ImageDiff(colorTolerance, Arrays.asList());
+    }
+
+    private static BufferedImage page(int type) {
+        BufferedImage image = new BufferedImage(1024, 768, type);
+        fill(image, Color.WHITE, 0, 0, 1024, 768);
+        fill(image, Color.DARK_GRAY, 0, 0, 1024, 60);
+        return image;
+    }
+
+    private static void fill(BufferedImage image, Color color, int originX, int originY, int cornerX, int cornerY) {
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(color);
+            graphics.fillRect(originX, originY, cornerX - originX, cornerY - originY);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.ImageStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ImageStore store;
+
+    @Before
+    public void setUp() {
+        store = new ImageStore(folder.getRoot());
+    }
+
+    @Test
+    public void identicalImagesAreStoredOnce() {
+        File first = store.store(screen(Color.WHITE));
+        File second = store.store(screen(Color.WHITE));
+
+        assertThat(second).isEqualTo(first).exists();
+        assertThat(first.getName()).matches("[0-9a-f]{64}\\.png");
+        assertThat(folder.getRoot().listFiles()).containsExactly(first);
+    }
+
+    @Test
+    public void differentImagesAreStoredSeparately() {
+        BufferedImage changed = screen(Color.WHITE);
+        changed.setRGB(10, 10, Color.BLACK.getRGB());
+
+        assertThat(store.store(changed)).isNotEqualTo(store.store(screen(Color.WHITE)));
+    }
+
+    @Test
+    public void nearDuplicatesAreOnlyReusedByANearDuplicateStore() {
+        BufferedImage changed = screen(Color.WHITE);
+        changed.setRGB(10, 10, Color.BLACK.getRGB());
+        ImageStore nearDuplicates = store.withNearDuplicateDistance(2);
+
+        File original = nearDuplicates.store(screen(Color.WHITE));
+
+        assertThat(nearDuplicates.store(changed)).isEqualTo(original);
+        assertThat(store.store(changed)).isNotEqualTo(original);
+        assertThat(nearDuplicates.store(screen(Color.BLUE))).isNotEqualTo(original);
+    }
+
+    @Test
+    public void perceptualHashesOfSimilarScreensAreClose() {
+        BufferedImage changed = screen(Color.WHITE);
+        changed.setRGB(10, 10, Color.BLACK.getRGB());
+        BufferedImage other = screen(Color.WHITE);
+        fill(other, Color.BLACK, 0, 300, 400, 600);
+
+        long hash = ImageStore.perceptualHash(screen(Color.WHITE));
+
+        assertThat(Long.bitCount(hash ^ ImageStore.perceptualHash(changed))).isLessThanOrEqualTo(2);
+        assertThat(Long.bitCount(hash ^ ImageStore.perceptualHash(other))).isGreaterThan(4);
+    }
+
+    @Test
+    public void capturedFilesAreMovedIntoTheStore() throws IOException {
+        File stored = store.store(screen(Color.WHITE));
+        File captured = folder.newFile("capture.png");
+        Files.copy(stored.toPath(), captured.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        assertThat(store.storeFile(captured)).isEqualTo(stored);
+        assertThat(captured).doesNotExist();
+        assertThat(store.storeFile(new File(folder.getRoot(), "missing.png"))).hasName("missing.png");
+    }
+
+    private static BufferedImage screen(Color background) {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        fill(image, background, 0, 0, 800, 600);
+        fill(image, Color.DARK_GRAY, 0, 0, 800, 50);
+        fill(image, Color.LIGHT_GRAY, 600, 50, 800, 600);
+        return image;
+    }
+
+    private static void fill(BufferedImage image, Color color, int originX, int originY, int cornerX, int cornerY) {
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(color);
+            graphics.fillRect(originX, originY, cornerX - originX, cornerY - originY);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.json.simple.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static net.itarray.automotion.validation.Constants.DETAILS;
+import static net.itarray.automotion.validation.Constants.DRAWINGS;
+import static net.itarray.automotion.validation.Constants.ERROR_KEY;
+import static net.itarray.automotion.validation.Constants.SCENARIO;
+import static net.itarray.automotion.validation.Constants.SCREENSHOT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static rectangles.DummyWebElement.createElement;
+
+public class IncrementalSnapshotTest {
+
+    private DummyDriverFacade driver;
+    private ResponsiveUIValidator validator;
+    private WebElement menu;
+    private WebElement header;
+    private int runs;
+
+    @Before
+    public void setUp() {
+        driver = new DummyDriverFacade();
+        validator = new ResponsiveUIValidator(driver).withIncrementalSnapshots();
+        validator.dontDrawMap();
+        header = createElement(0, 0, 1000, 50);
+        menu = mock(WebElement.class);
+        when(menu.getTagName()).thenReturn("ul");
+        when(menu.getText()).thenReturn("Menu");
+        when(menu.getSize()).thenReturn(new Dimension(100, 30));
+        moveMenuTo(10, 10);
+    }
+
+    @Test
+    public void checksOfUnchangedElementsAreNotRunAgain() {
+        assertThat(validator.snapshot("closed").check("menu in header", this::menuIsInsideOfHeader)).isTrue();
+        assertThat(validator.snapshot("opened").check("menu in header", this::menuIsInsideOfHeader)).isTrue();
+
+        assertThat(runs).isEqualTo(1);
+    }
+
+    @Test
+    public void checksOfChangedElementsAreRunAgain() {
+        assertThat(validator.snapshot("closed").check("menu in header", this::menuIsInsideOfHeader)).isTrue();
+        moveMenuTo(10, 100);
+        assertThat(validator.snapshot("opened").check("menu in header", this::menuIsInsideOfHeader)).isFalse();
+
+        assertThat(runs).isEqualTo(2);
+        assertThat(validator.getElementTracker().getChangedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void elementsAreRetrievedOncePerSnapshot() {
+        UISnapshot snapshot = validator.snapshot("closed");
+        snapshot.findElement(menu, "menu").isInsideOf(header, "header");
+        snapshot.findElement(menu, "menu").isLeftAlignedWith(header, "header");
+        snapshot.check("menu in header", this::menuIsInsideOfHeader);
+
+        verify(menu, atMost(1)).getLocation();
+    }
+
+    @Test
+    public void changingTheResolutionRunsAllChecksAgain() {
+        validator.snapshot("closed").check("menu in header", this::menuIsInsideOfHeader);
+        driver.setResolution(new Dimension(800, 600));
+        validator.snapshot("opened").check("menu in header", this::menuIsInsideOfHeader);
+
+        assertThat(runs).isEqualTo(2);
+    }
+
+    @Test
+    public void checksAlwaysRunWithoutIncrementalSnapshots() {
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(driver);
+        validator.dontDrawMap();
+        validator.snapshot("closed").check("menu in header", this::menuIsInsideOfHeader);
+        validator.snapshot("opened").check("menu in header", this::menuIsInsideOfHeader);
+
+        assertThat(runs).isEqualTo(2);
+    }
+
+    @Test
+    public void elementsAddedToTheContainerOfRetrievedElementsRunTheCheckAgain() {
+        WebElement list = mock(WebElement.class);
+        when(list.getTagName()).thenReturn("ul");
+        when(list.getText()).thenReturn("first");
+        when(list.getLocation()).thenReturn(new Point(0, 0));
+        when(list.getSize()).thenReturn(new Dimension(1000, 40));
+        List<WebElement> items = new ArrayList<>();
+        items.add(listItem(list, 10));
+        Predicate<UISnapshot> itemsAreInsideOfHeader = snapshot -> {
+            runs++;
+            return snapshot.findElements(new ArrayList<>(items)).areInsideOf(header, "header").validate();
+        };
+
+        assertThat(validator.snapshot("unfiltered").check("items in header", itemsAreInsideOfHeader)).isTrue();
+        items.add(listItem(list, 100));
+        when(list.getText()).thenReturn("first\nsecond");
+        when(list.getSize()).thenReturn(new Dimension(1000, 130));
+        assertThat(validator.snapshot("filtered").check("items in header", itemsAreInsideOfHeader)).isFalse();
+
+        assertThat(runs).isEqualTo(2);
+    }
+
+    @Test
+    public void violationsOfChecksThatAreNotRunAgainAreReportedForTheSnapshot() {
+        List<JSONObject> reported = new ArrayList<>();
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(driver) {
+            @Override
+            public synchronized void addResult(String jsonFileName, JSONObject result) {
+                reported.add(result);
+            }
+        }.withIncrementalSnapshots().deferScreenshots();
+        validator.drawMap();
+        moveMenuTo(10, 100);
+
+        UISnapshot closed = validator.snapshot("closed");
+        assertThat(closed.check("menu in header", this::menuIsInsideOfHeader)).isFalse();
+        UISnapshot opened = validator.snapshot("opened");
+        assertThat(opened.check("menu in header", this::menuIsInsideOfHeader)).isFalse();
+
+        validator.awaitScreenshots();
+        assertThat(runs).isEqualTo(1);
+        assertThat(reported.get(0).get(SCENARIO)).isEqualTo(closed.getDescription());
+        assertThat((String) reported.get(1).get(SCENARIO))
+                .startsWith(opened.getDescription())
+                .contains("unchanged since " + closed.getDescription());
+        assertThat(reported.get(1).get(SCREENSHOT)).isNotNull().isEqualTo(reported.get(0).get(SCREENSHOT));
+        assertThat(reported.get(1).get(DRAWINGS)).isNotNull().isEqualTo(reported.get(0).get(DRAWINGS));
+        assertThat(reported.get(1).get(DETAILS)).isEqualTo(reported.get(0).get(DETAILS));
+        assertThat(reported.get(1).get(ERROR_KEY)).isEqualTo(true);
+    }
+
+    @Test
+    public void pagesThatCanRunScriptsReturnOnlyTheChangedElements() {
+        List<List<Boolean>> known = new ArrayList<>();
+        Set<WebElement> moved = new HashSet<>();
+        DummyDriverFacade scriptingDriver = new DummyDriverFacade() {
+            @Override
+            public boolean canCaptureElements() {
+                return true;
+            }
+
+            @Override
+            public List<Object> captureChangedElements(List<WebElement> webElements, List<Boolean> knownElements, String token) {
+                known.add(knownElements);
+                List<Object> values = new ArrayList<>();
+                for (int i = 0; i < webElements.size(); i++) {
+                    WebElement webElement = webElements.get(i);
+                    values.add(knownElements.get(i) && !moved.remove(webElement) ? null : Arrays.asList(
+                            webElement.getLocation().getX(), webElement.getLocation().getY(),
+                            webElement.getSize().getWidth(), webElement.getSize().getHeight(),
+                            webElement.getTagName(), webElement.getText()));
+                }
+                return values;
+            }
+        };
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(scriptingDriver).withIncrementalSnapshots();
+        validator.dontDrawMap();
+
+        assertThat(validator.snapshot("closed").check("menu in header", this::menuIsInsideOfHeader)).isTrue();
+        List<List<Boolean>> knownInFirstSnapshot = new ArrayList<>(known);
+        known.clear();
+        assertThat(validator.snapshot("opened").check("menu in header", this::menuIsInsideOfHeader)).isTrue();
+        List<List<Boolean>> knownInSecondSnapshot = new ArrayList<>(known);
+        moveMenuTo(10, 100);
+        moved.add(menu);
+        assertThat(validator.snapshot("scrolled").check("menu in header", this::menuIsInsideOfHeader)).isFalse();
+
+        assertThat(runs).isEqualTo(2);
+        assertThat(knownInFirstSnapshot).flatExtracting(flags -> flags).containsOnly(false);
+        assertThat(knownInSecondSnapshot).hasSize(1).flatExtracting(flags -> flags).containsOnly(true);
+        assertThat(validator.getElementTracker().getChangedCount()).isEqualTo(1);
+    }
+
+    private boolean menuIsInsideOfHeader(UISnapshot snapshot) {
+        runs++;
+        return snapshot.findElement(menu, "menu").isInsideOf(header, "header").validate();
+    }
+
+    private static WebElement listItem(WebElement list, int y) {
+        WebElement item = mock(WebElement.class);
+        when(item.getTagName()).thenReturn("li");
+        when(item.getText()).thenReturn("item");
+        when(item.getLocation()).thenReturn(new Point(10, y));
+        when(item.getSize()).thenReturn(new Dimension(100, 20));
+        when(item.findElement(any())).thenReturn(list);
+        return item;
+    }
+
+    private void moveMenuTo(int x, int y) {
+        when(menu.getLocation()).thenReturn(new Point(x, y));
+    }
+}
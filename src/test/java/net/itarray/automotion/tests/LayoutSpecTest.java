@@ -0,0 +1,151 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.validation.LayoutSpec;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UIElementValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.itarray.automotion.internal.properties.PercentReference.PAGE;
+import static net.itarray.automotion.validation.properties.Condition.between;
+import static net.itarray.automotion.validation.properties.Condition.greaterOrEqualTo;
+import static net.itarray.automotion.validation.properties.Expression.percent;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static rectangles.DummyWebElement.createElement;
+
+public class LayoutSpecTest {
+
+    private static final By LOGO = By.id("logo");
+    private static final By MENU = By.id("menu");
+    private static final By CONTENT = By.id("content");
+    private static final By CARDS = By.className("card");
+
+    private Page page;
+
+    @Before
+    public void setUp() {
+        page = new Page();
+        page.add(LOGO, createElement(100, 100, 300, 200));
+        page.add(MENU, createElement(400, 100, 900, 200));
+        page.add(CONTENT, createElement(100, 300, 1900, 900));
+        page.add(CARDS, createElement(100, 300, 500, 600));
+        page.add(CARDS, createElement(600, 300, 1000, 600));
+        page.add(CARDS, createElement(1100, 300, 1500, 600));
+    }
+
+    @Test
+    public void aSpecIsValidatedOnEverySnapshot() {
+        LayoutSpec.Builder builder = LayoutSpec.builder();
+        builder.element(LOGO, "Logo")
+                .isLeftOf(builder.find(MENU), between(percent(5, PAGE)).and(percent(5, PAGE)))
+                .hasWidth(between(100).and(200))
+                .hasLeftOffsetToPage(greaterOrEqualTo(100));
+        builder.elements(CARDS)
+                .haveEqualSize()
+                .areTopAligned()
+                .doNotOverlap()
+                .areInsideOf(builder.find(CONTENT), "Content");
+        LayoutSpec spec = builder.build();
+
+        assertThat(spec.validate(snapshot(2000, 1000), page)).isTrue();
+        assertThat(spec.validate(snapshot(2000, 500), page)).isTrue();
+        assertThat(spec.validate(snapshot(1000, 1000), page)).isFalse();
+    }
+
+    @Test
+    public void failsLikeTheChainsOfCalls() {
+        LayoutSpec.Builder builder = LayoutSpec.builder();
+        builder.element(LOGO, "Logo").isLeftOf(builder.find(MENU), between(10).and(50));
+        LayoutSpec spec = builder.build();
+
+        boolean chainOfCalls = snapshot(2000, 1000)
+                .findElement(page.findElement(LOGO), "Logo")
+                .isLeftOf(page.findElement(MENU), between(10).and(50))
+                .validate();
+
+        assertThat(spec.validate(snapshot(2000, 1000), page)).isEqualTo(chainOfCalls).isFalse();
+    }
+
+    @Test
+    public void placeholdersOfSeveralElementsAreFoundInThePage() {
+        LayoutSpec.Builder builder = LayoutSpec.builder();
+        builder.element(LOGO, "Logo").isTopAlignedWith(builder.findAll(CARDS));
+        builder.element(MENU, "Menu").isTopAlignedWith(Arrays.asList(builder.find(LOGO)));
+
+        assertThat(builder.build().validate(snapshot(2000, 1000), page)).isFalse();
+
+        builder = LayoutSpec.builder();
+        builder.element(MENU, "Menu").isTopAlignedWith(Arrays.asList(builder.find(LOGO)));
+
+        assertThat(builder.build().validate(snapshot(2000, 1000), page)).isTrue();
+    }
+
+    @Test
+    public void callsRecordedAfterBuildingDoNotChangeTheSpec() {
+        LayoutSpec.Builder builder = LayoutSpec.builder();
+        UIElementValidator logo = builder.element(LOGO, "Logo").hasWidth(between(100).and(200));
+        LayoutSpec spec = builder.build();
+
+        logo.hasWidth(between(10).and(20));
+
+        assertThat(spec.validate(snapshot(2000, 1000), page)).isTrue();
+        assertThat(builder.build().validate(snapshot(2000, 1000), page)).isFalse();
+    }
+
+    @Test
+    public void recordedChainsCannotBeValidated() {
+        UIElementValidator logo = LayoutSpec.builder().element(LOGO, "Logo");
+
+        assertThatThrownBy(logo::validate).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void placeholdersCannotBeQueried() {
+        WebElement menu = LayoutSpec.builder().find(MENU);
+
+        assertThatThrownBy(menu::getLocation).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(menu.toString()).contains(MENU.toString());
+    }
+
+    private static UISnapshot snapshot(int pageWidth, int pageHeight) {
+        DummyDriverFacade driverFacade = new DummyDriverFacade();
+        driverFacade.setPageSize(new Dimension(pageWidth, pageHeight));
+        return new ResponsiveUIValidator(driverFacade).snapshot();
+    }
+
+    private static class Page implements SearchContext {
+        private final Map<By, List<WebElement>> elements = new HashMap<>();
+
+        private void add(By locator, WebElement element) {
+            elements.computeIfAbsent(locator, l -> new ArrayList<>()).add(element);
+        }
+
+        @Override
+        public List<WebElement> findElements(By locator) {
+            return elements.getOrDefault(locator, new ArrayList<>());
+        }
+
+        @Override
+        public WebElement findElement(By locator) {
+            List<WebElement> found = findElements(locator);
+            if (found.isEmpty()) {
+                throw new NoSuchElementException(locator.toString());
+            }
+            return found.get(0);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.internal.PageMetrics;
+import net.itarray.automotion.internal.ResolutionImpl;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import rectangles.DummyDriverFacade;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static rectangles.DummyWebElement.createElement;
+
+public class PageMetricsTest {
+
+    private int retrievals;
+    private int scripts;
+
+    private final DummyDriverFacade driver = new DummyDriverFacade() {
+        @Override
+        public PageMetrics retrievePageMetrics() {
+            retrievals++;
+            return super.retrievePageMetrics();
+        }
+    };
+
+    @Test
+    public void validationsOfASnapshotRetrieveThePageMetricsOnce() {
+        UISnapshot snapshot = new ResponsiveUIValidator(driver).snapshot("metrics");
+
+        for (int i = 0; i < 50; i++) {
+            snapshot.findElement(createElement(10, 20, 110, 70), "element " + i);
+        }
+
+        assertThat(retrievals).isEqualTo(1);
+    }
+
+    @Test
+    public void validationsOfASnapshotWithUnknownZoomExecuteNoScripts() {
+        RemoteWebDriver webDriver = mock(RemoteWebDriver.class, RETURNS_DEEP_STUBS);
+        when(webDriver.getCapabilities().getBrowserName()).thenReturn("chrome");
+        doAnswer(invocation -> {
+            scripts++;
+            return Arrays.asList("100%", 1280L, 1024L, 0L, 0L);
+        }).when(webDriver).executeScript(anyString(), any());
+        doAnswer(invocation -> {
+            scripts++;
+            return "100%";
+        }).when(webDriver).executeScript(anyString());
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(new DriverFacade(webDriver));
+        validator.dontDrawMap();
+        UISnapshot snapshot = validator.snapshot("scripts", ResolutionImpl.of(1280, 1024));
+
+        snapshot.findElement(createElement(10, 20, 110, 70), "first").isLeftAlignedWith(createElement(10, 100, 110, 150), "other").validate();
+        int scriptsOfFirstValidator = scripts;
+        for (int i = 0; i < 20; i++) {
+            snapshot.findElement(createElement(10, 20, 110, 70), "element " + i).isLeftAlignedWith(createElement(10, 100, 110, 150), "other").validate();
+        }
+
+        assertThat(scriptsOfFirstValidator).isEqualTo(1);
+        assertThat(scripts).isEqualTo(scriptsOfFirstValidator);
+        assertThat(snapshot.getZoomFactor()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void changingTheResolutionRetrievesThePageMetricsAgain() {
+        UISnapshot snapshot = new ResponsiveUIValidator(driver).snapshot("metrics");
+        snapshot.findElement(createElement(10, 20, 110, 70), "before");
+
+        driver.setResolution(new Dimension(800, 600));
+        driver.setPageSize(new Dimension(800, 3000));
+        snapshot.findElement(createElement(10, 20, 110, 70), "after");
+
+        assertThat(retrievals).isEqualTo(2);
+        assertThat(snapshot.getPageMetrics().getPageSize()).isEqualTo(new Dimension(800, 3000));
+    }
+}
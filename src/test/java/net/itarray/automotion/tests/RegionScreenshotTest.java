@@ -0,0 +1,141 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.DrawableScreenshot;
+import net.itarray.automotion.internal.PageMetrics;
+import net.itarray.automotion.internal.UIValidatorBase;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import rectangles.DummyDriverFacade;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class RegionScreenshotTest {
+
+    private ResponsiveUIValidator validator;
+
+    @Before
+    public void setUp() {
+        validator = new ResponsiveUIValidator(new DummyDriverFacade()).withRegionScreenshots(5);
+        validator.drawMap();
+    }
+
+    @Test
+    public void screenshotShowsTheDrawnElementsWithTheMargin() throws IOException {
+        UIValidatorBase element = (UIValidatorBase) validator.snapshot("region").findElement(createElement(10, 20, 110, 70), "element")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+
+        assertThat(element.validate()).isFalse();
+
+        DrawableScreenshot drawableScreenshot = element.getDrawableScreenshot();
+        BufferedImage screenshot = ImageIO.read(drawableScreenshot.getScreenshotName());
+        String drawings = new String(Files.readAllBytes(drawableScreenshot.getDrawingsOutput().toPath()), StandardCharsets.UTF_8);
+        assertThat(screenshot.getWidth()).isEqualTo(130);
+        assertThat(screenshot.getHeight()).isEqualTo(140);
+        assertThat(drawings).contains("width=\"130\" height=\"140\"");
+        assertThat(drawings).contains("<rect x=\"5\" y=\"5\" width=\"100\" height=\"50\" fill=\"none\" stroke=\"#ff0000\" stroke-width=\"2\"/>");
+    }
+
+    @Test
+    public void screenshotBelowAMobileTopBarStartsAtTheRegion() throws IOException {
+        validator = new ResponsiveUIValidator(new DummyDriverFacade() {
+            @Override
+            public boolean isAppiumContext() {
+                return true;
+            }
+
+            @Override
+            public boolean isAppiumWebContext() {
+                return true;
+            }
+
+            @Override
+            public boolean isAppiumAndroidContext() {
+                return true;
+            }
+
+            @Override
+            public Supplier<BufferedImage> captureScreenshot(PageMetrics pageMetrics) {
+                BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+                image.setRGB(10, 60, 0xFF0000);
+                return () -> image;
+            }
+        }).withRegionScreenshots(5);
+        validator.drawMap();
+        validator.setTopBarMobileOffset(true, 40);
+        UIValidatorBase element = (UIValidatorBase) validator.snapshot("region").findElement(createElement(10, 20, 110, 70), "element")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+
+        assertThat(element.validate()).isFalse();
+
+        DrawableScreenshot drawableScreenshot = element.getDrawableScreenshot();
+        BufferedImage screenshot = ImageIO.read(drawableScreenshot.getScreenshotName());
+        String drawings = new String(Files.readAllBytes(drawableScreenshot.getDrawingsOutput().toPath()), StandardCharsets.UTF_8);
+        assertThat(screenshot.getRGB(5, 5) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(drawings).contains("<rect x=\"5\" y=\"5\" width=\"100\" height=\"50\"");
+    }
+
+    @Test
+    public void regionScreenshotsCanBeDeferred() throws IOException {
+        validator.deferScreenshots();
+        UIValidatorBase element = (UIValidatorBase) validator.snapshot("region").findElement(createElement(10, 20, 110, 70), "element")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+
+        assertThat(element.validate()).isFalse();
+        validator.awaitScreenshots();
+
+        BufferedImage screenshot = ImageIO.read(element.getDrawableScreenshot().getScreenshotName());
+        assertThat(screenshot.getWidth()).isEqualTo(130);
+        assertThat(screenshot.getHeight()).isEqualTo(140);
+    }
+
+    @Test
+    public void regionsThatCannotBeCapturedAreCroppedFromTheScreenshotOfTheSnapshot() throws IOException {
+        AtomicInteger captures = new AtomicInteger();
+        validator = new ResponsiveUIValidator(new DummyDriverFacade() {
+            @Override
+            public Supplier<BufferedImage> captureScreenshot(PageMetrics pageMetrics) {
+                captures.incrementAndGet();
+                return super.captureScreenshot(pageMetrics);
+            }
+        }).withRegionScreenshots(5);
+        validator.drawMap();
+        UISnapshot snapshot = validator.snapshot("region");
+        UIValidatorBase first = (UIValidatorBase) snapshot.findElement(createElement(10, 20, 110, 70), "first")
+                .isLeftAlignedWith(createElement(30, 100, 130, 150), "other");
+        UIValidatorBase second = (UIValidatorBase) snapshot.findElement(createElement(210, 20, 310, 70), "second")
+                .isLeftAlignedWith(createElement(230, 100, 330, 150), "other");
+
+        assertThat(first.validate()).isFalse();
+        assertThat(second.validate()).isFalse();
+
+        assertThat(captures.get()).isEqualTo(1);
+        assertThat(ImageIO.read(first.getDrawableScreenshot().getScreenshotName()).getWidth()).isEqualTo(130);
+        assertThat(ImageIO.read(second.getDrawableScreenshot().getScreenshotName()).getWidth()).isEqualTo(130);
+    }
+
+    @Test
+    public void wholeScreenshotIsTakenIfTheRegionIsNotOnIt() throws IOException {
+        UIValidatorBase element = (UIValidatorBase) validator.snapshot("region").findElement(createElement(10, 1200, 110, 1250), "element")
+                .isLeftAlignedWith(createElement(30, 1300, 130, 1350), "other");
+
+        assertThat(element.validate()).isFalse();
+
+        DrawableScreenshot drawableScreenshot = element.getDrawableScreenshot();
+        BufferedImage screenshot = ImageIO.read(drawableScreenshot.getScreenshotName());
+        String drawings = new String(Files.readAllBytes(drawableScreenshot.getDrawingsOutput().toPath()), StandardCharsets.UTF_8);
+        assertThat(screenshot.getWidth()).isEqualTo(2000);
+        assertThat(screenshot.getHeight()).isEqualTo(1000);
+        assertThat(drawings).contains("<rect x=\"10\" y=\"1200\" width=\"100\" height=\"50\"");
+    }
+}
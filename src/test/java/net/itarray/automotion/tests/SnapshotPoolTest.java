@@ -0,0 +1,72 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.SnapshotPool;
+import net.itarray.automotion.validation.properties.Resolution;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static net.itarray.automotion.validation.Constants.SCENARIO;
+import static net.itarray.automotion.validation.properties.Condition.lessThan;
+import static net.itarray.automotion.validation.properties.Resolution.resolution;
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class SnapshotPoolTest {
+
+    private final List<JSONObject> results = Collections.synchronizedList(new ArrayList<>());
+    private final List<Dimension> resolutions = Collections.synchronizedList(new ArrayList<>());
+    private ResponsiveUIValidator validator;
+    private SnapshotPool pool;
+
+    @Before
+    public void setUp() {
+        validator = new ResponsiveUIValidator(new DummyDriverFacade()) {
+            @Override
+            public synchronized void addResult(String jsonFileName, JSONObject result) {
+                results.add(result);
+            }
+        };
+        pool = new SnapshotPool(validator, DummyDriverFacade::new, 2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void everyResolutionIsValidatedAndReportedToTheValidator() {
+        List<Resolution> breakpoints = Arrays.asList(resolution(320, 480), resolution(768, 1024), resolution(1280, 800), resolution(1920, 1080));
+
+        boolean valid = pool.validate("breakpoints", breakpoints, snapshot -> {
+            resolutions.add(snapshot.getResponsiveUIValidator().getDriver().getResolution());
+            return snapshot.findElement(createElement(10, 20, 110, 70), "logo").hasWidth(lessThan(200)).validate();
+        });
+
+        assertThat(valid).isTrue();
+        assertThat(resolutions).containsExactlyInAnyOrder(
+                new Dimension(320, 480), new Dimension(768, 1024), new Dimension(1280, 800), new Dimension(1920, 1080));
+        assertThat(results).extracting(result -> (String) result.get(SCENARIO))
+                .allMatch(scenario -> scenario.startsWith("breakpoints - resolution: "))
+                .hasSize(4);
+        assertThat(pool.getSessionCount()).isBetween(1, 2);
+    }
+
+    @Test
+    public void aFailureInOneResolutionFailsTheValidation() {
+        boolean valid = pool.validate("failing", Arrays.asList(resolution(320, 480), resolution(1280, 800)), snapshot ->
+                snapshot.getResponsiveUIValidator().getDriver().getResolution().getWidth() < 1000);
+
+        assertThat(valid).isFalse();
+    }
+}
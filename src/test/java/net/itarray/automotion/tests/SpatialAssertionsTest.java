@@ -0,0 +1,68 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.internal.ResponsiveUIValidatorBase;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import net.itarray.automotion.validation.UISnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class SpatialAssertionsTest {
+
+    private List<WebElement> columns;
+    private List<WebElement> items;
+    private UISnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        columns = Arrays.asList(
+                createElement(0, 0, 300, 1000),
+                createElement(400, 0, 700, 1000),
+                createElement(800, 0, 1100, 1000));
+        items = new ArrayList<>();
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 10; row++) {
+                items.add(createElement(column * 400 + 10, row * 100, column * 400 + 290, row * 100 + 90));
+            }
+        }
+        DummyDriverFacade driverFacade = new DummyDriverFacade();
+        driverFacade.setPageSize(new Dimension(2000, 1000));
+        snapshot = new ResponsiveUIValidator(driverFacade).snapshot();
+    }
+
+    @Test
+    public void itemsInsideOfTheColumnsAreValid() {
+        assertThat(snapshot.findElements(items).areInsideOfAnyOf(columns).validate()).isTrue();
+    }
+
+    @Test
+    public void anItemBetweenTheColumnsIsReported() {
+        List<WebElement> misplaced = new ArrayList<>(items);
+        misplaced.add(createElement(250, 0, 450, 90));
+
+        ResponsiveUIValidatorBase chunk = (ResponsiveUIValidatorBase) snapshot.findElements(misplaced).areInsideOfAnyOf(columns);
+
+        assertThat(chunk.getErrors().getCount()).isEqualTo(1);
+        assertThat(chunk.getErrors().getLastMessage()).contains("coord=[250,0]").endsWith("is not inside of any of 3 containers");
+    }
+
+    @Test
+    public void itemsOverlappingWithOtherElementsAreReported() {
+        List<WebElement> banners = Arrays.asList(createElement(0, 950, 2000, 1000), createElement(1500, 0, 2000, 100));
+
+        ResponsiveUIValidatorBase chunk = (ResponsiveUIValidatorBase) snapshot.findElements(items).doNotOverlapWith(banners);
+
+        assertThat(chunk.getErrors().getCount()).isEqualTo(3);
+        assertThat(snapshot.findElements(columns).doNotOverlapWith(items).validate()).isFalse();
+        assertThat(snapshot.findElements(items).doNotOverlapWith(Arrays.asList(banners.get(1))).validate()).isTrue();
+    }
+}
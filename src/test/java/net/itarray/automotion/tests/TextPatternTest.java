@@ -0,0 +1,170 @@
+package net.itarray.automotion.tests;
+
+import net.itarray.automotion.tools.helpers.TextFinder;
+import net.itarray.automotion.tools.helpers.TextPattern;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static java.lang.String.join;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextPatternTest {
+
+    private static final String[][] FOUND = {
+            {"abc das", "21dsabcdasas"},
+            {"Level 4", "21dsabc@/asaslevel$%sdfg4"},
+            {"Try Again", " gh  hgh  6%^7 hjgasd 7^& dfg!44dbTRYAGAIN#%hjkh  jkhjkhjkh ^&(* hjkhk"},
+            {"Try Again", " gh  hgh  6%^7 hjgasd 7^& dfg!44dbTRY@GAIN#%hjkh  jkhjkhjkh ^&(* hjkhk"},
+            {"Try Again", " gh  hgh  6%^7 hjgasd 7^& dfg!44d T@Y AGAIN#%hjk"},
+            {"Try Again", " gh  thgh  6%^7 hjgasd 7^& dfg!44d T@Y GAIN#%hjk"},
+            {"Try Again", " gh  try gh  6%^7 hjgasd 7^& dfg!44d T@y GaIN#%hjk in"},
+    };
+
+    private static final String[][] NOT_FOUND = {
+            {"Tryagain", "21dsabc againdasas"},
+            {"Try Again", " gh  t$y gh  6%^7 hjgasd 7^& dfg!44d T@Y GIN#%hjk in"},
+    };
+
+    @Test
+    public void findsWhatTextFinderFinds() {
+        for (String[] example : FOUND) {
+            assertThat(TextFinder.compile(example[0]).isFoundIn(example[1])).as(Arrays.toString(example)).isTrue();
+        }
+    }
+
+    @Test
+    public void doesNotFindWhatTextFinderDoesNotFind() {
+        for (String[] example : NOT_FOUND) {
+            assertThat(TextFinder.compile(example[0]).isFoundIn(example[1])).as(Arrays.toString(example)).isFalse();
+        }
+    }
+
+    @Test
+    public void aCompiledPatternCanBeUsedForManyTexts() {
+        TextPattern pattern = TextFinder.compile("Try Again");
+        assertThat(pattern.isFoundIn(FOUND[2][1])).isTrue();
+        assertThat(pattern.isFoundIn(NOT_FOUND[1][1])).isFalse();
+        assertThat(pattern.isFoundIn(FOUND[6][1])).isTrue();
+    }
+
+    @Test
+    public void agreesWithTheNestedLoopSearchOnRandomTexts() {
+        Random random = new Random(4711);
+        String alphabet = "abcdegt  @#-4";
+        for (int i = 0; i < 20000; i++) {
+            String pattern = randomText(random, alphabet, 1 + random.nextInt(10));
+            String text = randomText(random, alphabet, random.nextInt(40));
+            assertThat(TextFinder.textIsFound(pattern, text))
+                    .as("'%s' in '%s'", pattern, text)
+                    .isEqualTo(nestedLoopSearch(pattern, text));
+        }
+    }
+
+    @Test
+    public void agreesWithTheNestedLoopSearchOnSentences() {
+        Random random = new Random(815);
+        String[] words = {"try", "again", "level", "4", "tr", "gain", "a", "ag", "level4", "yag"};
+        String[] separators = {" ", "  ", "@", "#%", "", "-"};
+        for (int i = 0; i < 20000; i++) {
+            String pattern = randomSentence(random, words, separators, 1 + random.nextInt(4));
+            String text = randomSentence(random, words, separators, random.nextInt(12));
+            assertThat(TextFinder.textIsFound(pattern, text))
+                    .as("'%s' in '%s'", pattern, text)
+                    .isEqualTo(nestedLoopSearch(pattern, text));
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return random.nextBoolean() ? text.toString() : text.toString().toUpperCase();
+    }
+
+    private static String randomSentence(Random random, String[] words, String[] separators, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(separators[random.nextInt(separators.length)]).append(words[random.nextInt(words.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The search of TextFinder before it was compiled to a {@link TextPattern}, with the default derivation.
+     */
+    private static boolean nestedLoopSearch(String pattern, String text) {
+        pattern = pattern.toLowerCase();
+        text = text.toLowerCase();
+
+        if (text.contains(pattern)) {
+            return true;
+        } else if (text.replace(" ", "").contains(pattern.replace(" ", ""))) {
+            return true;
+        } else {
+            String[] patternArr = pattern.split("\\W|\\s");
+            String[] textArr = text.split("\\W|\\s");
+
+            int matchTime = 0;
+            int positionPrev = 0;
+            for (String sp : patternArr) {
+                for (String st : textArr) {
+                    if (st.equals(sp)) {
+                        int positionNext = Arrays.asList(textArr).indexOf(st);
+                        if (positionNext > positionPrev) {
+                            positionPrev = positionNext;
+                            matchTime++;
+                            break;
+                        }
+                    } else if (st.contains(sp)) {
+                        matchTime++;
+                        break;
+                    }
+                }
+            }
+
+            boolean found = false;
+            if (matchTime != patternArr.length) {
+                String textJoined = join("", textArr);
+                String patternJoined = join("", patternArr);
+                String[] patternJoinedArr = patternJoined.split("");
+
+                int position = 0;
+                Map<Integer, String> positions = new TreeMap<Integer, String>();
+
+                for (String s : patternJoinedArr) {
+                    while (position >= 0) {
+                        position = textJoined.indexOf(s, position + 1);
+                        if (position > -1) {
+                            positions.put(position, s);
+                        }
+                    }
+                    position = 0;
+                }
+
+                int count = 0;
+                int countInLine = 1;
+
+                for (Map.Entry entry : positions.entrySet()) {
+                    Integer i = (Integer) entry.getKey();
+                    if (positions.get(i + 1) != null && count < positions.size()) {
+                        countInLine++;
+                    } else {
+                        countInLine = 1;
+                    }
+                    if (countInLine >= patternJoined.length() * (1 - 0.3)) {
+                        found = true;
+                        break;
+                    }
+                    count++;
+                }
+            }
+
+            return matchTime == patternArr.length || found;
+        }
+    }
+}
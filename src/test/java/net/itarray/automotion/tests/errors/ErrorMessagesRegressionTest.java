@@ -344,6 +344,28 @@ public class ErrorMessagesRegressionTest {
                 .isEqualTo("Element 'under test' is not inside of 'specifying'");
     }
 
+    @Test
+    public void haveDifferentSizesChunk() {
+        createChunkValidator(createElement(300, 200, 700, 400)).haveDifferentSizes();
+        Errors errors = base.getErrors();
+        assertThat(errors.getLastMessage())
+                .isEqualTo("Elements 'with properties: tag=[null], text=[], coord=[100,200], size=[400,200]', 'with properties: tag=[null], text=[], coord=[300,200], size=[400,200]' have same size.");
+    }
+
+    @Test
+    public void haveDifferentWidthsChunkWithinTolerance() {
+        DummyDriverFacade driverFacade = new DummyDriverFacade();
+        driverFacade.setPageSize(new Dimension(2000, 1000));
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(driverFacade).withTolerance(2);
+        base = (ResponsiveUIValidatorBase) uiValidator.snapshot().findElements(Arrays.asList(
+                createElement(0, 0, 10, 10),
+                createElement(0, 20, 14, 30),
+                createElement(0, 40, 12, 50))).haveDifferentWidths();
+        Errors errors = base.getErrors();
+        assertThat(errors.getLastMessage())
+                .isEqualTo("Elements 'with properties: tag=[null], text=[], coord=[0,0], size=[10,10]', 'with properties: tag=[null], text=[], coord=[0,20], size=[14,10]', 'with properties: tag=[null], text=[], coord=[0,40], size=[12,10]' have same width, from 10px to 14px.");
+    }
+
     @Test
     public void insideOfChunk() {
         createChunkValidator().areInsideOf(createElement(1100, 1200, 500, 400), "specifying");
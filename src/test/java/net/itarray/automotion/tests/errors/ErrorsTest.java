@@ -0,0 +1,135 @@
+package net.itarray.automotion.tests.errors;
+
+import net.itarray.automotion.internal.Errors;
+import net.itarray.automotion.internal.ResponsiveUIValidatorBase;
+import net.itarray.automotion.internal.Violation;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.tests.properties.TestContext;
+import net.itarray.automotion.validation.ResponsiveUIValidator;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebElement;
+import rectangles.DummyDriverFacade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.itarray.automotion.internal.UIElement.asElement;
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
+import static net.itarray.automotion.validation.Constants.MESSAGE;
+import static net.itarray.automotion.validation.Constants.REASON;
+import static net.itarray.automotion.validation.properties.Condition.equalTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static rectangles.DummyWebElement.createElement;
+
+public class ErrorsTest {
+
+    @Test
+    public void messagesAreRenderedOnlyWhenAskedFor() {
+        AtomicInteger renderings = new AtomicInteger();
+        Errors errors = new Errors();
+
+        errors.add(violation("first", renderings));
+        errors.add(violation("second", renderings));
+
+        assertThat(errors.hasMessages()).isTrue();
+        assertThat(renderings.get()).isZero();
+        assertThat(errors.getLastMessage()).isEqualTo("second");
+        assertThat(renderings.get()).isEqualTo(1);
+        assertThat(messages(errors.getMessages())).containsExactly("first", "second");
+        assertThat(renderings.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void plainMessagesAreStillAccepted() {
+        Errors errors = new Errors();
+
+        errors.add("plain");
+
+        assertThat(errors.getLastMessage()).isEqualTo("plain");
+        assertThat(errors.getViolations().get(0).getType()).isEqualTo(Violation.Type.MESSAGE);
+        assertThat(messages(errors.getMessages())).containsExactly("plain");
+    }
+
+    @Test
+    public void violationsBeyondTheMaximumAreOnlyCounted() {
+        AtomicInteger renderings = new AtomicInteger();
+        Errors errors = new Errors(2);
+
+        for (int i = 0; i < 5; i++) {
+            errors.add(violation("violation " + i, renderings));
+        }
+
+        assertThat(errors.getCount()).isEqualTo(5);
+        assertThat(errors.getViolations()).hasSize(2);
+        assertThat(errors.getLastMessage()).isEqualTo("violation 4");
+        assertThat(messages(errors.getMessages())).containsExactly("violation 0", "violation 1", "3 more violations are not listed");
+    }
+
+    @Test
+    public void noErrorsNoMessages() {
+        Errors errors = new Errors();
+
+        assertThat(errors.hasMessages()).isFalse();
+        assertThat(errors.getLastMessage()).isNull();
+        assertThat(errors.getMessages()).isEmpty();
+    }
+
+    @Test
+    public void theMaximumIsTakenFromTheValidator() {
+        DummyDriverFacade driverFacade = new DummyDriverFacade();
+        driverFacade.setPageSize(new Dimension(2000, 1000));
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(driverFacade).withMaxStoredViolations(3);
+        List<WebElement> cells = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cells.add(createElement(i * 100, i * 10, i * 100 + 50, i * 10 + 50));
+        }
+        ResponsiveUIValidatorBase chunk = (ResponsiveUIValidatorBase) validator.snapshot().findElements(cells).areTopAligned();
+
+        assertThat(chunk.getErrors().getCount()).isEqualTo(9);
+        assertThat(chunk.getErrors().getViolations()).hasSize(3);
+        assertThat(chunk.getErrors().getViolations()).allMatch(v -> v.getType() == Violation.Type.ALIGNMENT);
+        assertThat(chunk.getErrors().getLastMessage()).contains("has not the same top offset as element #10:");
+    }
+
+    @Test
+    public void messagesAreRenderedWithTheToleranceOfTheirValidation() {
+        List<Violation> violations = new ArrayList<>();
+        TestContext context = new TestContext() {
+            @Override
+            public void add(Violation violation) {
+                violations.add(violation);
+            }
+        }.withTolerance(scalar(5));
+
+        asElement(new Rectangle(0, 0, 100, 50), "element").validateWidth(equalTo(200), context);
+        context.withTolerance(scalar(0));
+
+        assertThat(violations.get(0).getMessage()).endsWith("(With tolerance 5).");
+    }
+
+    @Test
+    public void theMaximumMustNotBeNegative() {
+        assertThatThrownBy(() -> new ResponsiveUIValidator(new DummyDriverFacade()).withMaxStoredViolations(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Violation violation(String message, AtomicInteger renderings) {
+        return new Violation(Violation.Type.MESSAGE, null, null, null, null, () -> {
+            renderings.incrementAndGet();
+            return message;
+        });
+    }
+
+    private static List<String> messages(JSONArray messages) {
+        List<String> result = new ArrayList<>();
+        for (Object details : messages) {
+            result.add((String) ((JSONObject) ((JSONObject) details).get(REASON)).get(MESSAGE));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package net.itarray.automotion.tests.geometry;
+
+import net.itarray.automotion.internal.geometry.EqualityGroups;
+import net.itarray.automotion.internal.geometry.Vector;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EqualityGroupsTest {
+
+    private final Vector small = new Vector(100, 50);
+    private final Vector medium = new Vector(200, 100);
+    private final Vector large = new Vector(300, 150);
+
+    @Test
+    public void differentVectorsFormNoGroups() {
+        assertThat(groups(Arrays.asList(small, medium, large), 0)).isEmpty();
+    }
+
+    @Test
+    public void equalVectorsAreGroupedInOrderOfTheirFirstOccurrence() {
+        Vector otherMedium = new Vector(200, 100);
+        Vector otherSmall = new Vector(100, 50);
+
+        assertThat(groups(Arrays.asList(medium, small, otherSmall, large, otherMedium), 0)).containsExactly(
+                Arrays.asList(medium, otherMedium),
+                Arrays.asList(small, otherSmall));
+    }
+
+    @Test
+    public void vectorsWithinTheToleranceAreGroupedAcrossBuckets() {
+        Vector nearlySmall = new Vector(102, 51);
+
+        assertThat(groups(Arrays.asList(small, nearlySmall, large), 3)).containsExactly(
+                Arrays.asList(small, nearlySmall));
+        assertThat(groups(Arrays.asList(small, nearlySmall, large), 2)).isEmpty();
+    }
+
+    @Test
+    public void chainsOfEqualVectorsAreGroupedBeyondTheTolerance() {
+        Vector first = new Vector(10, 0);
+        Vector second = new Vector(12, 0);
+        Vector third = new Vector(14, 0);
+
+        assertThat(groups(Arrays.asList(first, third, second), 2)).containsExactly(
+                Arrays.asList(first, third, second));
+        assertThat(groups(Arrays.asList(first, third), 2)).isEmpty();
+    }
+
+    private List<List<Vector>> groups(List<Vector> vectors, int tolerance) {
+        return new EqualityGroups<>(vectors, Function.identity(), scalar(tolerance)).getGroups();
+    }
+}
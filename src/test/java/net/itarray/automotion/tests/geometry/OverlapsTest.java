@@ -0,0 +1,106 @@
+package net.itarray.automotion.tests.geometry;
+
+import net.itarray.automotion.internal.geometry.Overlaps;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.internal.geometry.Scalar;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OverlapsTest {
+
+    @Test
+    public void tilesOfAGridDoNotOverlap() {
+        List<Rectangle> tiles = new ArrayList<>();
+        for (int row = 0; row < 10; row++) {
+            for (int column = 0; column < 10; column++) {
+                tiles.add(new Rectangle(column * 100, row * 50, column * 100 + 100, row * 50 + 50));
+            }
+        }
+
+        assertThat(overlappingPairs(tiles, scalar(0))).isEmpty();
+    }
+
+    @Test
+    public void allOverlapsOfAnElementAreReported() {
+        Rectangle first = new Rectangle(0, 0, 100, 100);
+        Rectangle second = new Rectangle(50, 50, 150, 150);
+        Rectangle third = new Rectangle(90, 0, 200, 10);
+        Rectangle fourth = new Rectangle(300, 300, 400, 400);
+
+        assertThat(overlappingPairs(Arrays.asList(first, second, third, fourth), scalar(0))).containsExactlyInAnyOrder(
+                Arrays.asList(first, second),
+                Arrays.asList(first, third));
+    }
+
+    @Test
+    public void overlapsWithinTheToleranceAreIgnored() {
+        Rectangle first = new Rectangle(0, 0, 100, 100);
+        Rectangle second = new Rectangle(97, 0, 200, 100);
+
+        assertThat(overlappingPairs(Arrays.asList(first, second), scalar(0))).hasSize(1);
+        assertThat(overlappingPairs(Arrays.asList(first, second), scalar(3))).isEmpty();
+    }
+
+    @Test
+    public void findsTheSamePairsAsComparingAllPairs() {
+        Random random = new Random(4711);
+        for (int tolerance = 0; tolerance <= 4; tolerance += 2) {
+            List<Rectangle> rectangles = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                int x = random.nextInt(1000);
+                int y = random.nextInt(1000);
+                rectangles.add(new Rectangle(x, y, x + random.nextInt(80), y + random.nextInt(80)));
+            }
+
+            assertThat(overlappingPairs(rectangles, scalar(tolerance)))
+                    .containsExactlyInAnyOrderElementsOf(allPairsOverlapping(rectangles, scalar(tolerance)));
+        }
+    }
+
+    @Test
+    public void findsTheSamePairsInAWideRowAsComparingAllPairs() {
+        Random random = new Random(4711);
+        List<Rectangle> rectangles = new ArrayList<>();
+        rectangles.add(new Rectangle(0, 0, 5000, 20));
+        for (int i = 0; i < 300; i++) {
+            int x = i * 15 + random.nextInt(10);
+            int y = 10 + random.nextInt(5);
+            rectangles.add(new Rectangle(x, y, x + 5 + random.nextInt(i % 50 == 0 ? 200 : 20), y + 10 + random.nextInt(10)));
+        }
+
+        assertThat(overlappingPairs(rectangles, scalar(1)))
+                .containsExactlyInAnyOrderElementsOf(allPairsOverlapping(rectangles, scalar(1)));
+    }
+
+    private List<List<Rectangle>> overlappingPairs(List<Rectangle> rectangles, Scalar tolerance) {
+        List<List<Rectangle>> pairs = new ArrayList<>();
+        new Overlaps<>(rectangles, Function.identity(), tolerance)
+                .forEachOverlappingPair((first, second) -> pairs.add(Arrays.asList(first, second)));
+        return pairs;
+    }
+
+    private List<List<Rectangle>> allPairsOverlapping(List<Rectangle> rectangles, Scalar tolerance) {
+        List<List<Rectangle>> pairs = new ArrayList<>();
+        for (int i = 0; i < rectangles.size(); i++) {
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                Rectangle first = rectangles.get(i);
+                Rectangle second = rectangles.get(j);
+                if (first.getOrigin().getX().isLessThan(second.getCorner().getX().minus(tolerance))
+                        && second.getOrigin().getX().isLessThan(first.getCorner().getX().minus(tolerance))
+                        && first.getOrigin().getY().isLessThan(second.getCorner().getY().minus(tolerance))
+                        && second.getOrigin().getY().isLessThan(first.getCorner().getY().minus(tolerance))) {
+                    pairs.add(Arrays.asList(first, second));
+                }
+            }
+        }
+        return pairs;
+    }
+}
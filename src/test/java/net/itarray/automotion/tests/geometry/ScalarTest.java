@@ -166,5 +166,28 @@ public class ScalarTest {
         assertThat(scalar.norm()).isEqualTo(scalar);
         assertThat(scalar.negated().norm()).isEqualTo(scalar);
     }
-}
 
+    @Test
+    public void integralFractionsAreEqualToIntScalars() {
+        assertThat(scalar(new Fraction(26, 2))).isEqualTo(scalar);
+        assertThat(scalar(new Fraction(26, 2)).hashCode()).isEqualTo(scalar.hashCode());
+        assertThat(scalar(new Fraction(26, 2)).isIntegral()).isTrue();
+    }
+
+    @Test
+    public void nonIntegralQuotientsFallBackToFractions() {
+        Scalar half = scalar(1).by(scalar(2));
+        assertThat(half.isIntegral()).isFalse();
+        assertThat(half.plus(half)).isEqualTo(scalar(1));
+        assertThat(half.toString()).isEqualTo(new Fraction(1, 2).toString());
+        assertThat(half.isLessThan(scalar(1))).isTrue();
+        assertThat(half.isGreaterThan(scalar(0))).isTrue();
+    }
+
+    @Test
+    public void integralValuesOutsideOfTheCacheCompareByValue() {
+        assertThat(scalar(100000)).isEqualTo(scalar(99999).plus(1));
+        assertThat(scalar(-100000).abs()).isEqualTo(scalar(100000));
+        assertThat(scalar(100000).by(scalar(4))).isEqualTo(scalar(25000));
+    }
+}
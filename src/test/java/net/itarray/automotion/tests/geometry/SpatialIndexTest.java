@@ -0,0 +1,126 @@
+package net.itarray.automotion.tests.geometry;
+
+import net.itarray.automotion.internal.geometry.Direction;
+import net.itarray.automotion.internal.geometry.Rectangle;
+import net.itarray.automotion.internal.geometry.Scalar;
+import net.itarray.automotion.internal.geometry.SpatialIndex;
+import org.apache.commons.math3.fraction.Fraction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static net.itarray.automotion.internal.geometry.Direction.DOWN;
+import static net.itarray.automotion.internal.geometry.Direction.LEFT;
+import static net.itarray.automotion.internal.geometry.Direction.RIGHT;
+import static net.itarray.automotion.internal.geometry.Direction.UP;
+import static net.itarray.automotion.internal.geometry.Scalar.scalar;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpatialIndexTest {
+
+    @Test
+    public void findsTheNeighboursInARowOfTiles() {
+        Rectangle first = new Rectangle(0, 0, 100, 50);
+        Rectangle second = new Rectangle(100, 0, 200, 50);
+        Rectangle third = new Rectangle(250, 0, 350, 50);
+        Rectangle below = new Rectangle(0, 60, 100, 100);
+        SpatialIndex<Rectangle> index = index(Arrays.asList(third, below, first, second));
+
+        assertThat(index.nearest(first, RIGHT)).isSameAs(second);
+        assertThat(index.nearest(second, RIGHT)).isSameAs(third);
+        assertThat(index.nearest(third, RIGHT)).isNull();
+        assertThat(index.nearest(third, LEFT)).isSameAs(second);
+        assertThat(index.nearest(first, DOWN)).isSameAs(below);
+        assertThat(index.nearest(below, UP)).isSameAs(first);
+        assertThat(index.nearest(second, DOWN)).isNull();
+    }
+
+    @Test
+    public void findsContainersAndContainedRectangles() {
+        Rectangle column = new Rectangle(0, 0, 300, 1000);
+        Rectangle item = new Rectangle(0, 100, 300, 200);
+        Rectangle other = new Rectangle(400, 100, 500, 200);
+        SpatialIndex<Rectangle> index = index(Arrays.asList(column, item, other));
+
+        assertThat(index.containing(item)).containsExactly(column, item);
+        assertThat(index.insideOf(column)).containsExactly(column, item);
+        assertThat(index.overlapping(new Rectangle(299, 150, 400, 160))).containsExactly(column, item);
+        assertThat(index.touching(new Rectangle(300, 150, 400, 160))).containsExactly(column, item, other);
+    }
+
+    @Test
+    public void anEmptyIndexFindsNothing() {
+        SpatialIndex<Rectangle> index = index(Collections.emptyList());
+        Rectangle area = new Rectangle(0, 0, 100, 100);
+
+        assertThat(index.size()).isZero();
+        assertThat(index.overlapping(area)).isEmpty();
+        assertThat(index.nearest(area, RIGHT)).isNull();
+    }
+
+    @Test
+    public void fractionalBordersAreComparedExactly() {
+        Scalar third = scalar(new Fraction(1, 3));
+        Rectangle left = new Rectangle(scalar(0), scalar(0), third, scalar(1));
+        Rectangle right = new Rectangle(third, scalar(0), scalar(1), scalar(1));
+        SpatialIndex<Rectangle> index = index(Arrays.asList(left, right));
+
+        assertThat(index.overlapping(left)).containsExactly(left);
+        assertThat(index.touching(left)).containsExactly(left, right);
+        assertThat(index.nearest(left, RIGHT)).isSameAs(right);
+    }
+
+    @Test
+    public void findsTheSameRectanglesAsComparingAllRectangles() {
+        Random random = new Random(4711);
+        List<Rectangle> rectangles = randomRectangles(random, 500);
+        SpatialIndex<Rectangle> index = index(rectangles);
+        for (Rectangle area : randomRectangles(random, 100)) {
+            assertThat(index.overlapping(area)).isEqualTo(filter(rectangles, area::intersects));
+            assertThat(index.insideOf(area)).isEqualTo(filter(rectangles, area::contains));
+            assertThat(index.containing(area)).isEqualTo(filter(rectangles, rectangle -> rectangle.contains(area)));
+            for (Direction direction : Direction.values()) {
+                assertThat(index.nearest(area, direction)).isSameAs(nearest(rectangles, area, direction));
+            }
+        }
+    }
+
+    private static SpatialIndex<Rectangle> index(List<Rectangle> rectangles) {
+        return new SpatialIndex<>(rectangles, Function.identity());
+    }
+
+    private static List<Rectangle> randomRectangles(Random random, int count) {
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(1000);
+            int y = random.nextInt(1000);
+            rectangles.add(new Rectangle(x, y, x + random.nextInt(200), y + random.nextInt(200)));
+        }
+        return rectangles;
+    }
+
+    private static List<Rectangle> filter(List<Rectangle> rectangles, java.util.function.Predicate<Rectangle> predicate) {
+        return rectangles.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static Rectangle nearest(List<Rectangle> rectangles, Rectangle area, Direction direction) {
+        Direction across = direction == LEFT || direction == RIGHT ? DOWN : RIGHT;
+        Rectangle nearest = null;
+        Scalar nearestDistance = null;
+        for (Rectangle rectangle : rectangles) {
+            Scalar distance = direction.signedDistance(direction.end(area), direction.begin(rectangle));
+            if (distance.isGreaterOrEqualTo(scalar(0)) && area.intersects(across, rectangle)
+                    && (nearestDistance == null || distance.isLessThan(nearestDistance))) {
+                nearest = rectangle;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,201 @@
+package net.itarray.automotion.tests.http;
+
+import com.sun.net.httpserver.HttpServer;
+import net.itarray.automotion.tools.http.connections.ConnectionFactory;
+import net.itarray.automotion.tools.http.connections.PooledHttpClients;
+import net.itarray.automotion.tools.http.connections.StreamingResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionFactoryStreamingTest {
+
+    private static final int DOWNLOAD_SIZE = 5 * 1024 * 1024;
+
+    private HttpServer server;
+    private String baseUrl;
+    private volatile long uploadedBytes;
+    private volatile String uploadedText;
+    private Path temporary;
+
+    @Before
+    public void setUp() throws IOException {
+        temporary = Files.createTempDirectory("streaming");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            long count = 0;
+            StringBuilder text = new StringBuilder();
+            byte[] buffer = new byte[8192];
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                int read;
+                while ((read = requestBody.read(buffer)) >= 0) {
+                    count += read;
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] != 0) {
+                            text.append((char) buffer[i]);
+                        }
+                    }
+                }
+            }
+            uploadedBytes = count;
+            uploadedText = text.toString();
+            byte[] body = ("received " + count).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.createContext("/download", exchange -> {
+            exchange.sendResponseHeaders(200, DOWNLOAD_SIZE);
+            byte[] chunk = new byte[64 * 1024];
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                for (int written = 0; written < DOWNLOAD_SIZE; written += chunk.length) {
+                    responseBody.write(chunk);
+                }
+            }
+        });
+        server.createContext("/small", exchange -> {
+            byte[] body = new byte[1024];
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ConnectionFactory.setBodyLogging(true);
+        ConnectionFactory.setMaxLoggedBodyLength(2000);
+        PooledHttpClients.closeAll();
+        server.stop(0);
+        for (File file : temporary.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.delete(temporary);
+    }
+
+    @Test
+    public void uploadsAMediaFileFromDisk() throws IOException {
+        File media = temporary.resolve("clip.mp4").toFile();
+        try (RandomAccessFile file = new RandomAccessFile(media, "rw")) {
+            file.setLength(8 * 1024 * 1024);
+        }
+        Map<Object, Object> form = new HashMap<>();
+        form.put("file", media);
+        form.put("title", "clip");
+
+        Map<Integer, String> result = new ConnectionFactory(baseUrl).sendPost(form, "/upload", "token", true);
+
+        assertThat(result).containsKey(200);
+        assertThat(uploadedBytes).isGreaterThan(media.length());
+        assertThat(uploadedText).contains("filename=\"clip.mp4\"", "name=\"title\"");
+        assertThat(media).exists();
+    }
+
+    @Test
+    public void streamsTheResponseBody() throws IOException {
+        ConnectionFactory factory = new ConnectionFactory(baseUrl);
+        long read = 0;
+        try (StreamingResponse response = factory.sendGetStreaming("/download", "token");
+             InputStream body = response.getBody()) {
+            assertThat(response.getResponseCode()).isEqualTo(200);
+            assertThat(response.getContentLength()).isEqualTo(DOWNLOAD_SIZE);
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = body.read(buffer)) >= 0) {
+                read += count;
+            }
+        }
+
+        assertThat(read).isEqualTo(DOWNLOAD_SIZE);
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+    }
+
+    @Test
+    public void closingAResponseWithAShortUnreadBodyKeepsTheConnection() throws IOException {
+        ConnectionFactory factory = new ConnectionFactory(baseUrl);
+        try (StreamingResponse response = factory.sendGetStreaming("/small", "token")) {
+            assertThat(response.getResponseCode()).isEqualTo(200);
+        }
+
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+        assertThat(PooledHttpClients.getStats(baseUrl).getAvailable()).isEqualTo(1);
+
+        try (StreamingResponse response = factory.sendGetStreaming("/download", "token")) {
+            assertThat(response.getResponseCode()).isEqualTo(200);
+        }
+
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+        assertThat(PooledHttpClients.getStats(baseUrl).getAvailable()).isEqualTo(0);
+    }
+
+    @Test
+    public void downloadsToAFile() throws IOException {
+        Path target = temporary.resolve("download.bin");
+
+        int responseCode = new ConnectionFactory(baseUrl).download("/download", "token", target);
+
+        assertThat(responseCode).isEqualTo(200);
+        assertThat(Files.size(target)).isEqualTo(DOWNLOAD_SIZE);
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+    }
+
+    @Test
+    public void logsBodiesUpToTheMaximumLength() throws IOException {
+        ConnectionFactory.setMaxLoggedBodyLength(20);
+        Map<Object, Object> data = new HashMap<>();
+        data.put("payload", new String(new char[1000]).replace('\0', 'x'));
+
+        String output = captureOutput(() -> new ConnectionFactory(baseUrl).sendPost(data, "/upload", "token", false));
+
+        assertThat(output).contains("with data: {\"payload\":\"xxxxxxxx... (1014 characters)");
+        assertThat(output).doesNotContain(data.get("payload").toString());
+    }
+
+    @Test
+    public void bodyLoggingCanBeDisabled() throws IOException {
+        ConnectionFactory.setBodyLogging(false);
+        Map<Object, Object> data = new HashMap<>();
+        data.put("payload", "secret");
+
+        String output = captureOutput(() -> new ConnectionFactory(baseUrl).sendPost(data, "/upload", "token", false));
+
+        assertThat(output).contains("POST request to: " + baseUrl + "/upload");
+        assertThat(output).doesNotContain("secret");
+    }
+
+    private static String captureOutput(Call call) throws IOException {
+        PrintStream original = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            call.run();
+        } finally {
+            System.setOut(original);
+        }
+        return new String(output.toByteArray());
+    }
+
+    private interface Call {
+        void run() throws IOException;
+    }
+}
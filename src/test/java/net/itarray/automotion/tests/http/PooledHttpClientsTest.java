@@ -0,0 +1,128 @@
+package net.itarray.automotion.tests.http;
+
+import com.sun.net.httpserver.HttpServer;
+import net.itarray.automotion.tools.http.connections.ConnectionFactory;
+import net.itarray.automotion.tools.http.connections.HttpResponse;
+import net.itarray.automotion.tools.http.connections.PooledHttpClients;
+import net.itarray.automotion.tools.http.connections.RestClient;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PooledHttpClientsTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private Set<SocketAddress> connections;
+    private List<String> cookies;
+
+    @Before
+    public void setUp() throws IOException {
+        connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        cookies = new CopyOnWriteArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            connections.add(exchange.getRemoteAddress());
+            cookies.add(String.valueOf(exchange.getRequestHeaders().getFirst("Cookie")));
+            exchange.getResponseHeaders().add("Set-Cookie", "session=" + exchange.getRequestURI().getPath());
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                while (requestBody.read() >= 0) {
+                }
+            }
+            if (exchange.getRequestMethod().equals("DELETE")) {
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                byte[] body = (exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        PooledHttpClients.closeAll();
+        server.stop(0);
+    }
+
+    @Test
+    public void restClientReusesOneConnectionForSequentialCalls() {
+        RestClient client = new RestClient(baseUrl).withBody("{}");
+        for (int i = 0; i < 20; i++) {
+            HttpResponse response = client.get("/items/" + i);
+            assertThat(response.getResponseCode()).isEqualTo(200);
+            assertThat(response.getResponseBody()).isEqualTo("GET /items/" + i);
+        }
+        assertThat(client.post("/items").getResponseBody()).isEqualTo("POST /items");
+        assertThat(client.update("/items/1").getResponseBody()).isEqualTo("PATCH /items/1");
+
+        assertThat(connections).hasSize(1);
+        PoolStats stats = PooledHttpClients.getStats(baseUrl);
+        assertThat(stats.getLeased()).isEqualTo(0);
+        assertThat(stats.getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    public void responsesWithoutBodyReleaseTheirConnection() {
+        RestClient client = new RestClient(baseUrl);
+        for (int i = 0; i < 5; i++) {
+            HttpResponse response = client.delete("/items/" + i);
+            assertThat(response.getResponseCode()).isEqualTo(204);
+            assertThat(response.getResponseBody()).isEmpty();
+        }
+
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+        assertThat(connections).hasSize(1);
+    }
+
+    @Test
+    public void connectionFactorySharesThePoolOfItsHost() throws IOException {
+        new RestClient(baseUrl).get("/first");
+        Map<Integer, String> result = new ConnectionFactory(baseUrl + "/api").sendGet("/second", "token");
+
+        assertThat(result).containsEntry(200, "GET /api/second");
+        assertThat(connections).hasSize(1);
+        assertThat(PooledHttpClients.getTotalStats().getAvailable()).isEqualTo(1);
+    }
+
+    @Test
+    public void cookiesAreNotSharedBetweenClients() {
+        new RestClient(baseUrl).get("/login");
+        new RestClient(baseUrl).get("/other");
+
+        assertThat(cookies).containsExactly("null", "null");
+        assertThat(connections).hasSize(1);
+    }
+
+    @Test
+    public void closedPoolsAreRecreatedOnDemand() {
+        RestClient client = new RestClient(baseUrl);
+        client.get("/first");
+        PooledHttpClients.closeAll();
+
+        assertThat(PooledHttpClients.getStats(baseUrl).getAvailable()).isEqualTo(0);
+        assertThat(client.get("/second").getResponseBody()).isEqualTo("GET /second");
+        assertThat(connections).hasSize(2);
+    }
+}
@@ -0,0 +1,170 @@
+package net.itarray.automotion.tests.http;
+
+import com.sun.net.httpserver.HttpServer;
+import net.itarray.automotion.tools.http.connections.BatchResult;
+import net.itarray.automotion.tools.http.connections.HttpResponse;
+import net.itarray.automotion.tools.http.connections.PooledHttpClients;
+import net.itarray.automotion.tools.http.connections.RestClient;
+import net.itarray.automotion.tools.http.connections.RestRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RestClientBatchTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+
+    @Before
+    public void setUp() throws IOException {
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                String request;
+                try (InputStream requestBody = exchange.getRequestBody()) {
+                    request = readFully(requestBody);
+                }
+                String path = exchange.getRequestURI().getPath();
+                if (path.startsWith("/slow")) {
+                    sleep(1000);
+                } else {
+                    sleep(50);
+                }
+                byte[] body = (exchange.getRequestMethod() + " " + path + " " + request + " " + exchange.getRequestHeaders().getFirst("X-Seed")).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(path.startsWith("/missing") ? 404 : 200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            } catch (IOException ignored) {
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        PooledHttpClients.closeAll();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void asyncRequestsCompleteWithTheResponse() throws Exception {
+        RestClient client = new RestClient(baseUrl).withHeader("X-Seed", "async").withBody("{\"id\":1}");
+        CompletableFuture<HttpResponse> post = client.postAsync("/users");
+        CompletableFuture<HttpResponse> get = client.getAsync("/users/1");
+
+        assertThat(post.get(5, TimeUnit.SECONDS).getResponseBody()).isEqualTo("POST /users {\"id\":1} async");
+        assertThat(get.get(5, TimeUnit.SECONDS).getResponseBody()).isEqualTo("GET /users/1  async");
+    }
+
+    @Test
+    public void failedAsyncRequestsCompleteExceptionally() throws Exception {
+        CompletableFuture<HttpResponse> future = new RestClient(baseUrl).sendAsync(RestRequest.get("/slow"), 100, TimeUnit.MILLISECONDS);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("timeout expected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+        }
+    }
+
+    @Test
+    public void batchReturnsTheResponsesInTheOrderOfTheRequests() {
+        List<RestRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            requests.add(RestRequest.post("/users/" + i, "{\"id\":" + i + "}").withHeader("X-Seed", "batch"));
+        }
+
+        BatchResult result = new RestClient(baseUrl).batch(requests, 8, 5, TimeUnit.SECONDS);
+
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.getResponses()).hasSize(24);
+        for (int i = 0; i < 24; i++) {
+            assertThat(result.getResponses().get(i).getResponseBody()).isEqualTo("POST /users/" + i + " {\"id\":" + i + "} batch");
+        }
+        assertThat(maxInFlight.get()).isBetween(2, 8);
+        assertThat(PooledHttpClients.getStats(baseUrl).getLeased()).isEqualTo(0);
+    }
+
+    @Test
+    public void batchReportsFailedRequestsTogether() {
+        List<RestRequest> requests = new ArrayList<>();
+        requests.add(RestRequest.get("/users/1"));
+        requests.add(RestRequest.get("/slow/1"));
+        requests.add(RestRequest.get("/missing"));
+        requests.add(RestRequest.get("/slow/2"));
+
+        BatchResult result = new RestClient(baseUrl).batch(requests, 4, 300, TimeUnit.MILLISECONDS);
+
+        assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.getFailures().keySet()).containsExactly(1, 3);
+        assertThat(result.getFailedRequests()).containsExactly(requests.get(1), requests.get(3));
+        assertThat(result.getResponses().get(0).getResponseCode()).isEqualTo(200);
+        assertThat(result.getResponses().get(1)).isNull();
+        assertThat(result.getResponses().get(2).getResponseCode()).isEqualTo(404);
+        assertThat(result.getFailureReport()).contains("#1 GET /slow/1: java.util.concurrent.TimeoutException", "#3 GET /slow/2");
+    }
+
+    @Test
+    public void timeoutsIncludeTheWaitForAFreeConnection() {
+        List<RestRequest> requests = new ArrayList<>();
+        requests.add(RestRequest.get("/slow/1"));
+        requests.add(RestRequest.get("/slow/2"));
+        requests.add(RestRequest.get("/slow/3"));
+        long start = System.nanoTime();
+
+        BatchResult result = new RestClient(baseUrl).batch(requests, 1, 300, TimeUnit.MILLISECONDS);
+
+        assertThat(result.getFailures().keySet()).containsExactly(0, 1, 2);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(800);
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            text.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        return text.toString();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
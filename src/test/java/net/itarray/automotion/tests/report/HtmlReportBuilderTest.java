@@ -0,0 +1,93 @@
+package net.itarray.automotion.tests.report;
+
+import net.itarray.automotion.internal.HtmlReportBuilder;
+import net.itarray.automotion.internal.ResultsJournal;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.itarray.automotion.validation.Constants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HtmlReportBuilderTest {
+
+    @Test
+    public void resultsInMemoryAndInJsonFilesAreReportedInOrder() throws IOException {
+        JSONObject passed = result("login page", "logo", false);
+        JSONObject failed = result("search page", "search <input>", true, "Element \"search\" is not aligned");
+        File jsonFile = new File(TARGET_AUTOMOTION_JSON + "from-disk-test.json");
+        jsonFile.getParentFile().mkdirs();
+        Files.write(jsonFile.toPath(), failed.toJSONString().getBytes(StandardCharsets.UTF_8));
+
+        Map<String, JSONObject> results = new HashMap<>();
+        results.put("in-memory-test.json", passed);
+        List<String> jsonFiles = new ArrayList<>(Arrays.asList("in-memory-test.json", "from-disk-test.json"));
+
+        File report = new HtmlReportBuilder().buildReport("report test", jsonFiles, results);
+
+        String html = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        assertThat(report.getParentFile().getName()).isEqualTo("failure");
+        assertThat(html).contains("Scenario: &quot;login page&quot;", "Element: &quot;search &lt;input&gt;&quot;");
+        assertThat(html.indexOf("login page")).isLessThan(html.indexOf("search page"));
+        assertThat(html).contains("x: ['1. login page', '2. search page']", "values: [1, 1]");
+        assertThat(html).contains("src=\"../../img/search page-draw.png\"");
+        assertThat(jsonFile).doesNotExist();
+        assertThat(jsonFiles).isEmpty();
+    }
+
+    @Test
+    public void reportsWithoutFailuresAreSuccessful() {
+        Map<String, JSONObject> results = new HashMap<>();
+        results.put("passed-test.json", result("home", "header", false));
+
+        File report = new HtmlReportBuilder().buildReport("passed", new ArrayList<>(Arrays.asList("passed-test.json")), results);
+
+        assertThat(report.getParentFile().getName()).isEqualTo("success");
+    }
+
+    @Test
+    public void journaledResultsAreReported() throws IOException {
+        File journalFile = File.createTempFile("results", ".journal");
+        journalFile.delete();
+        ResultsJournal journal = new ResultsJournal(journalFile);
+        journal.append("journaled-test.json", result("journaled page", "footer", false));
+
+        File report = new HtmlReportBuilder(journal).buildReport("journaled", new ArrayList<>(Arrays.asList("journaled-test.json")), new HashMap<>());
+
+        assertThat(new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8)).contains("Scenario: &quot;journaled page&quot;");
+        assertThat(journalFile).doesNotExist();
+        journal.close();
+        journalFile.delete();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject result(String scenario, String elementName, boolean failed, String... messages) {
+        JSONArray details = new JSONArray();
+        for (String message : messages) {
+            JSONObject reason = new JSONObject();
+            reason.put(MESSAGE, message);
+            JSONObject detail = new JSONObject();
+            detail.put(REASON, reason);
+            details.add(detail);
+        }
+        JSONObject result = new JSONObject();
+        result.put(ERROR_KEY, failed);
+        result.put(DETAILS, details);
+        result.put(SCENARIO, scenario);
+        result.put(ELEMENT_NAME, elementName);
+        result.put(TIME_EXECUTION, "12 milliseconds");
+        result.put(SCREENSHOT, failed ? scenario + ".png" : "");
+        result.put(DRAWINGS, failed ? scenario + "-draw.png" : "");
+        return result;
+    }
+}
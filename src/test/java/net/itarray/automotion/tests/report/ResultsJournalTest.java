@@ -0,0 +1,119 @@
+package net.itarray.automotion.tests.report;
+
+import net.itarray.automotion.internal.ResultsJournal;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static net.itarray.automotion.validation.Constants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResultsJournalTest {
+
+    private File file;
+    private ResultsJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("results", ".journal");
+        file.delete();
+        journal = new ResultsJournal(file);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        file.delete();
+    }
+
+    @Test
+    public void appendedResultsCanBeReadByName() {
+        journal.append("first.json", result("first scenario"));
+        journal.append("second.json", result("second scenario"));
+
+        assertThat(journal.size()).isEqualTo(2);
+        assertThat(journal.read("first.json").get(SCENARIO)).isEqualTo("first scenario");
+        assertThat(journal.read("second.json").get(SCENARIO)).isEqualTo("second scenario");
+        assertThat(journal.read("unknown.json")).isNull();
+    }
+
+    @Test
+    public void resultsAreReadFromAnExistingJournal() {
+        journal.append("first.json", result("first scenario"));
+        journal.close();
+
+        ResultsJournal reopened = new ResultsJournal(file);
+        try {
+            assertThat(reopened.contains("first.json")).isTrue();
+            assertThat(reopened.read("first.json").get(SCENARIO)).isEqualTo("first scenario");
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void anIncompleteRecordIsIgnoredAndOverwritten() throws IOException {
+        journal.append("first.json", result("first scenario"));
+        journal.append("second.json", result("second scenario"));
+        journal.close();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 5);
+        }
+
+        journal = new ResultsJournal(file);
+        assertThat(journal.size()).isEqualTo(1);
+        journal.append("third.json", result("third scenario"));
+        journal.close();
+
+        journal = new ResultsJournal(file);
+        assertThat(journal.size()).isEqualTo(2);
+        assertThat(journal.read("third.json").get(SCENARIO)).isEqualTo("third scenario");
+    }
+
+    @Test
+    public void theJournalIsDeletedWhenAllOfItsResultsAreRemoved() {
+        journal.append("first.json", result("first scenario"));
+        journal.append("second.json", result("second scenario"));
+
+        journal.remove(Arrays.asList("first.json"));
+        assertThat(file).exists();
+        assertThat(journal.contains("first.json")).isFalse();
+
+        journal.remove(Arrays.asList("second.json"));
+        assertThat(file).doesNotExist();
+
+        journal.append("third.json", result("third scenario"));
+        assertThat(journal.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void resultsCanBeExportedToJsonFiles() throws IOException {
+        journal.append("first.json", result("first scenario"));
+        File directory = Files.createTempDirectory("json").toFile();
+
+        journal.exportJsonFiles(directory);
+
+        File exported = new File(directory, "first.json");
+        assertThat(new String(Files.readAllBytes(exported.toPath()), StandardCharsets.UTF_8))
+                .isEqualTo(result("first scenario").toJSONString());
+        exported.delete();
+        directory.delete();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject result(String scenario) {
+        JSONObject result = new JSONObject();
+        result.put(SCENARIO, scenario);
+        result.put(ERROR_KEY, false);
+        result.put(TIME_EXECUTION, "3 milliseconds");
+        return result;
+    }
+}
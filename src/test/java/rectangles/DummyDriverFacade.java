@@ -1,11 +1,14 @@
 package rectangles;
 
 import net.itarray.automotion.internal.DriverFacade;
+import net.itarray.automotion.internal.PageMetrics;
 import net.itarray.automotion.internal.geometry.Vector;
 import net.itarray.automotion.validation.properties.Expression;
 import org.openqa.selenium.Dimension;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.function.Supplier;
 
 public class DummyDriverFacade extends DriverFacade {
 
@@ -38,10 +41,20 @@ public class DummyDriverFacade extends DriverFacade {
     }
 
     @Override
-    public void takeScreenshot(File file) {
+    public void takeScreenshot(File file, PageMetrics pageMetrics) {
         // do nothing here
     }
 
+    @Override
+    public Supplier<BufferedImage> captureScreenshot(PageMetrics pageMetrics) {
+        return () -> new BufferedImage(screenSize.getX().intValue(), screenSize.getY().intValue(), BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Override
+    public Supplier<BufferedImage> captureScreenshotOfRegion(java.awt.Rectangle region, PageMetrics pageMetrics) {
+        return null;
+    }
+
     @Override
     public Vector getExtend(File screenshotName) {
         return screenSize;
@@ -82,8 +95,14 @@ public class DummyDriverFacade extends DriverFacade {
         return pageSize;
     }
 
+    @Override
+    public PageMetrics retrievePageMetrics() {
+        return new PageMetrics(retrievePageSize(), getZoom(), 0, 0);
+    }
+
     @Override
     public void setResolution(Dimension resolution) {
+        layoutChanged();
         this.resolution = new Dimension(resolution.getWidth(), resolution.getHeight());
     }
 